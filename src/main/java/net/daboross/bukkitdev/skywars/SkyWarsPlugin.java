@@ -28,17 +28,15 @@ import java.util.logging.Level;
 import net.daboross.bukkitdev.bukkitstorageprotobuf.ProtobufStatic;
 import net.daboross.bukkitdev.skywars.api.SkyStatic;
 import net.daboross.bukkitdev.skywars.api.SkyWars;
-import net.daboross.bukkitdev.skywars.api.config.SkyConfiguration;
 import net.daboross.bukkitdev.skywars.api.config.SkyConfigurationException;
-import net.daboross.bukkitdev.skywars.api.game.SkyGameHandler;
 import net.daboross.bukkitdev.skywars.api.kits.SkyKitGui;
 import net.daboross.bukkitdev.skywars.api.kits.SkyKits;
-import net.daboross.bukkitdev.skywars.api.location.SkyLocationStore;
 import net.daboross.bukkitdev.skywars.api.translations.SkyTrans;
 import net.daboross.bukkitdev.skywars.api.translations.SkyTranslations;
 import net.daboross.bukkitdev.skywars.api.translations.TransKey;
 import net.daboross.bukkitdev.skywars.commands.MainCommand;
 import net.daboross.bukkitdev.skywars.commands.SetupCommand;
+import net.daboross.bukkitdev.skywars.config.ExtraTrans;
 import net.daboross.bukkitdev.skywars.config.RandomChestConfiguration;
 import net.daboross.bukkitdev.skywars.config.SkyWarsConfiguration;
 import net.daboross.bukkitdev.skywars.config.TranslationsConfiguration;
@@ -47,7 +45,6 @@ import net.daboross.bukkitdev.skywars.economy.SkyEconomyGameRewards;
 import net.daboross.bukkitdev.skywars.economy.SkyEconomyHook;
 import net.daboross.bukkitdev.skywars.events.GameEventDistributor;
 import net.daboross.bukkitdev.skywars.events.listeners.GameBroadcaster;
-import net.daboross.bukkitdev.skywars.game.GameQueueTimer;
 import net.daboross.bukkitdev.skywars.events.listeners.InventorySaveListener;
 import net.daboross.bukkitdev.skywars.events.listeners.KitApplyListener;
 import net.daboross.bukkitdev.skywars.events.listeners.KitQueueNotifier;
@@ -56,7 +53,8 @@ import net.daboross.bukkitdev.skywars.events.listeners.SignListener;
 import net.daboross.bukkitdev.skywars.game.CurrentGames;
 import net.daboross.bukkitdev.skywars.game.GameHandler;
 import net.daboross.bukkitdev.skywars.game.GameIDHandler;
-import net.daboross.bukkitdev.skywars.game.GameQueue;
+import net.daboross.bukkitdev.skywars.game.GameQueueManager;
+import net.daboross.bukkitdev.skywars.game.TimingWheel;
 import net.daboross.bukkitdev.skywars.kits.KitGuiManager;
 import net.daboross.bukkitdev.skywars.kits.SkyKitConfiguration;
 import net.daboross.bukkitdev.skywars.libraries.pluginstatistics.PluginStatistics;
@@ -88,18 +86,18 @@ import org.mcstats.MetricsLite;
 
 public class SkyWarsPlugin extends JavaPlugin implements SkyWars {
 
-    private SkyTranslations translations;
-    private SkyConfiguration configuration;
+    private TranslationsConfiguration translations;
+    private SkyWarsConfiguration configuration;
     private RandomChestConfiguration chestConfiguration;
-    private SkyLocationStore locationStore;
-    private SkyGameHandler gameHandler;
+    private LocationStore locationStore;
+    private GameHandler gameHandler;
     private SkyWorldHandler worldHandler;
     private SkyEconomyHook economyHook;
     private SkyEconomyGameRewards ecoRewards;
     private SkyKits kits;
     private SkyKitGui kitGui;
-    private GameQueue gameQueue;
-    private GameQueueTimer gameQueueTimer;
+    private TimingWheel timingWheel;
+    private GameQueueManager gameQueue;
     private CurrentGames currentGameTracker;
     private GameIDHandler idHandler;
     private GameBroadcaster broadcaster;
@@ -159,6 +157,7 @@ public class SkyWarsPlugin extends JavaPlugin implements SkyWars {
             throw new StartupFailedException("Failed to load translations", ex);
         }
         SkyTrans.setInstance(translations);
+        ExtraTrans.setInstance(translations);
         currentGameTracker = new CurrentGames();
         idHandler = new GameIDHandler();
         broadcaster = new GameBroadcaster(this);
@@ -170,8 +169,8 @@ public class SkyWarsPlugin extends JavaPlugin implements SkyWars {
         } catch (SkyConfigurationException ex) {
             throw new StartupFailedException("Failed to load locations", ex);
         }
-        gameQueue = new GameQueue(this);
-        gameQueueTimer = new GameQueueTimer(this);
+        timingWheel = new TimingWheel(this);
+        gameQueue = new GameQueueManager(this);
         gameHandler = new GameHandler(this);
         attackerStorage = new AttackerStorageListener(this);
         distributor = new GameEventDistributor(this);
@@ -222,7 +221,7 @@ public class SkyWarsPlugin extends JavaPlugin implements SkyWars {
                 new PortalListener(this), new PlayerJoinInArenaWorldListener(this),
                 new CommandWhitelistListener(this), new BuildingLimiter(this),
                 new MobSpawnDisable(), new KitGuiListener(this), chatListener,
-                signListener);
+                signListener, worldHandler.getChangeTracker(), worldHandler.getChunkHolder());
         enabledCorrectly = true;
     }
 
@@ -352,7 +351,7 @@ public class SkyWarsPlugin extends JavaPlugin implements SkyWars {
 
     @Override
     public boolean reloadTranslations() {
-        SkyTranslations tempTrans;
+        TranslationsConfiguration tempTrans;
         try {
             tempTrans = new TranslationsConfiguration(this);
         } catch (SkyConfigurationException | RuntimeException ex) {
@@ -361,6 +360,7 @@ public class SkyWarsPlugin extends JavaPlugin implements SkyWars {
         }
         translations = tempTrans;
         SkyTrans.setInstance(tempTrans);
+        ExtraTrans.setInstance(tempTrans);
         return true;
     }
 
@@ -386,7 +386,7 @@ public class SkyWarsPlugin extends JavaPlugin implements SkyWars {
     }
 
     @Override
-    public SkyConfiguration getConfiguration() {
+    public SkyWarsConfiguration getConfiguration() {
         return configuration;
     }
 
@@ -396,22 +396,26 @@ public class SkyWarsPlugin extends JavaPlugin implements SkyWars {
     }
 
     @Override
-    public SkyLocationStore getLocationStore() {
+    public LocationStore getLocationStore() {
         return locationStore;
     }
 
     @Override
-    public GameQueue getGameQueue() {
+    public GameQueueManager getGameQueue() {
         return gameQueue;
     }
 
+    public TimingWheel getTimingWheel() {
+        return timingWheel;
+    }
+
     @Override
     public CurrentGames getCurrentGameTracker() {
         return currentGameTracker;
     }
 
     @Override
-    public SkyGameHandler getGameHandler() {
+    public GameHandler getGameHandler() {
         return gameHandler;
     }
 
@@ -499,8 +503,4 @@ public class SkyWarsPlugin extends JavaPlugin implements SkyWars {
     public SignListener getSignListener() {
         return signListener;
     }
-
-    public GameQueueTimer getGameQueueTimer() {
-        return gameQueueTimer;
-    }
 }
@@ -21,6 +21,7 @@ import net.daboross.bukkitdev.skywars.SkyWarsPlugin;
 import net.daboross.bukkitdev.skywars.api.translations.SkyTrans;
 import net.daboross.bukkitdev.skywars.api.translations.TransKey;
 import net.daboross.bukkitdev.skywars.commands.setupstuff.SetupStates;
+import net.daboross.bukkitdev.skywars.commands.setupsubcommands.ImportSchematic;
 import net.daboross.bukkitdev.skywars.commands.setupsubcommands.NewKit;
 import net.daboross.bukkitdev.skywars.commands.setupsubcommands.SaveCurrentArena;
 import net.daboross.bukkitdev.skywars.commands.setupsubcommands.SetPos1;
@@ -46,6 +47,7 @@ public class SetupCommand {
     private void initCommands() {
         base.addSubCommand(new NewKit(plugin));
         base.addSubCommand(new UpdateArena(plugin));
+        base.addSubCommand(new ImportSchematic(plugin));
         base.addSubCommand(new StartNewArena(plugin, states));
         base.addSubCommand(new SetPos1(states));
         base.addSubCommand(new SetPos2(states));
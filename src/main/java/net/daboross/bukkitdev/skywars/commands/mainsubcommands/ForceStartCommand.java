@@ -18,11 +18,15 @@ package net.daboross.bukkitdev.skywars.commands.mainsubcommands;
 
 import net.daboross.bukkitdev.commandexecutorbase.SubCommand;
 import net.daboross.bukkitdev.commandexecutorbase.filters.ArgumentFilter;
+import net.daboross.bukkitdev.skywars.SkyWarsPlugin;
 import net.daboross.bukkitdev.skywars.api.SkyWars;
 import net.daboross.bukkitdev.skywars.api.translations.SkyTrans;
 import net.daboross.bukkitdev.skywars.api.translations.TransKey;
+import net.daboross.bukkitdev.skywars.game.GameQueue;
+import net.daboross.bukkitdev.skywars.game.GameQueueManager;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
 
 public class ForceStartCommand extends SubCommand {
 
@@ -36,8 +40,17 @@ public class ForceStartCommand extends SubCommand {
 
     @Override
     public void runCommand(CommandSender sender, Command baseCommand, String baseCommandLabel, String subCommandLabel, String[] subCommandArgs) {
-        if (plugin.getGameQueue().areMinPlayersPresent()) {
-            plugin.getGameHandler().startNewGame();
+        GameQueueManager queues = ((SkyWarsPlugin) plugin).getGameQueue();
+        GameQueue queue = null;
+        if (sender instanceof Player) {
+            // Players start the queue they are in, if any.
+            queue = queues.getQueueOf(((Player) sender).getUniqueId());
+        }
+        if (queue == null) {
+            queue = queues.getDefaultQueue();
+        }
+        if (queue.areMinPlayersPresent()) {
+            ((SkyWarsPlugin) plugin).getGameHandler().startNewGame(queue);
         } else {
             sender.sendMessage(SkyTrans.get(TransKey.CMD_FORCESTART_NOT_ENOUGH));
         }
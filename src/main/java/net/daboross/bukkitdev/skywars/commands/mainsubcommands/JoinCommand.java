@@ -19,9 +19,14 @@ package net.daboross.bukkitdev.skywars.commands.mainsubcommands;
 import java.util.UUID;
 import net.daboross.bukkitdev.commandexecutorbase.SubCommand;
 import net.daboross.bukkitdev.commandexecutorbase.filters.ArgumentFilter;
+import net.daboross.bukkitdev.skywars.SkyWarsPlugin;
 import net.daboross.bukkitdev.skywars.api.SkyWars;
 import net.daboross.bukkitdev.skywars.api.translations.SkyTrans;
 import net.daboross.bukkitdev.skywars.api.translations.TransKey;
+import net.daboross.bukkitdev.skywars.config.ExtraTrans;
+import net.daboross.bukkitdev.skywars.config.ExtraTransKey;
+import net.daboross.bukkitdev.skywars.game.GameQueue;
+import net.daboross.bukkitdev.skywars.game.GameQueueManager;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
@@ -32,7 +37,8 @@ public class JoinCommand extends SubCommand {
 
     public JoinCommand(SkyWars plugin) {
         super("join", false, "skywars.join", SkyTrans.get(TransKey.CMD_JOIN_DESCRIPTION));
-        this.addCommandFilter(new ArgumentFilter(ArgumentFilter.ArgumentCondition.EQUALS, 0, SkyTrans.get(TransKey.TOO_MANY_PARAMS)));
+        addArgumentNames("arena");
+        this.addCommandFilter(new ArgumentFilter(ArgumentFilter.ArgumentCondition.LESS_THAN, 2, SkyTrans.get(TransKey.TOO_MANY_PARAMS)));
         this.plugin = plugin;
     }
 
@@ -49,13 +55,26 @@ public class JoinCommand extends SubCommand {
             sender.sendMessage(SkyTrans.get(TransKey.CMD_JOIN_ALREADY_IN_SECONDARY_QUEUE));
             sender.sendMessage(SkyTrans.get(TransKey.SECONDARY_QUEUE_EXPLANATION));
         } else {
-            if (plugin.getGameQueue().isQueueFull()) {
+            GameQueueManager queues = ((SkyWarsPlugin) plugin).getGameQueue();
+            GameQueue queue;
+            if (subCommandArgs.length == 0) {
+                queue = queues.getDefaultQueue();
+            } else {
+                queue = queues.getArenaQueue(subCommandArgs[0]);
+                if (queue == null) {
+                    sender.sendMessage(ExtraTrans.get(ExtraTransKey.CMD_JOIN_NO_SUCH_ARENA, subCommandArgs[0]));
+                    return;
+                }
+            }
+            if (queue.isMatchmaking()) {
+                sender.sendMessage(ExtraTrans.get(ExtraTransKey.CMD_JOIN_MATCHMAKING));
+            } else if (queue.isQueueFull()) {
                 sender.sendMessage(SkyTrans.get(TransKey.CMD_JOIN_JOINED_SECONDARY_QUEUE));
                 sender.sendMessage(SkyTrans.get(TransKey.SECONDARY_QUEUE_EXPLANATION));
             } else {
                 sender.sendMessage(SkyTrans.get(TransKey.CMD_JOIN_CONFIRMATION));
             }
-            plugin.getGameQueue().queuePlayer((Player) sender);
+            queue.queuePlayer((Player) sender);
         }
     }
 }
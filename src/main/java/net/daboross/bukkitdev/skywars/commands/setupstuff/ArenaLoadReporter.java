@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2016 Dabo Ross <http://www.daboross.net/>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.daboross.bukkitdev.skywars.commands.setupstuff;
+
+import java.util.UUID;
+import net.daboross.bukkitdev.skywars.world.ArenaLoadListener;
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+/**
+ * Reports the progress of an arena loaded in the background to the player or console which started it.
+ */
+public abstract class ArenaLoadReporter implements ArenaLoadListener {
+
+    // null signifies that it isn't a player - rather it's the console.
+    private final UUID senderUuid;
+    private final String arenaName;
+
+    protected ArenaLoadReporter(final CommandSender sender, final String arenaName) {
+        this.senderUuid = sender instanceof Player ? ((Player) sender).getUniqueId() : null;
+        this.arenaName = arenaName;
+    }
+
+    @Override
+    public void onProgress(final int percentDone) {
+        sendMessage(ChatColor.DARK_GREEN + "Creating blocks cache for " + ChatColor.GREEN + arenaName
+                + ChatColor.DARK_GREEN + ": " + ChatColor.GREEN + percentDone + "%");
+    }
+
+    protected void sendMessage(String message) {
+        CommandSender sender = senderUuid == null ? Bukkit.getConsoleSender() : Bukkit.getPlayer(senderUuid);
+        if (sender != null) {
+            sender.sendMessage(message);
+        }
+    }
+}
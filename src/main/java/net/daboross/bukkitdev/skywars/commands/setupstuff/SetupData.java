@@ -27,9 +27,9 @@ import net.daboross.bukkitdev.skywars.api.arenaconfig.SkyBoundariesConfig;
 import net.daboross.bukkitdev.skywars.api.location.SkyBlockLocation;
 import net.daboross.bukkitdev.skywars.api.location.SkyBlockLocationRange;
 import net.daboross.bukkitdev.skywars.api.location.SkyPlayerLocation;
+import net.daboross.bukkitdev.skywars.world.ArenaSnapshot;
 import org.apache.commons.lang.Validate;
 import org.bukkit.Bukkit;
-import org.bukkit.Material;
 import org.bukkit.World;
 
 public class SetupData {
@@ -54,15 +54,28 @@ public class SetupData {
         this.originPos2 = originPos2;
     }
 
-    public void setOriginBoundaries() {
-        if (originPos1 != null && originPos2 != null) {
-            SkyBlockLocation originMin = SkyBlockLocation.min(originPos1, originPos2);
-            SkyBlockLocation originMax = SkyBlockLocation.max(originPos1, originPos2);
-            originRange = calculateOrigin(originMin, originMax);
+    /**
+     * Takes a snapshot of the blocks between the two origin positions, to be trimmed with {@link
+     * ArenaSnapshot#trim()} off the server thread. Must be called from the server thread.
+     */
+    public ArenaSnapshot takeOriginSnapshot() {
+        Validate.isTrue(originPos1 != null && originPos2 != null, "Origin not defined.");
+        World world = Bukkit.getWorld(originPos1.world);
+        if (world == null) {
+            throw new IllegalStateException("Origin world '" + originPos1.world + "' no longer loaded.");
         }
+        return ArenaSnapshot.take(world, SkyBlockLocation.min(originPos1, originPos2), SkyBlockLocation.max(originPos1, originPos2));
+    }
+
+    /**
+     * Creates the arena configuration using an origin which has already been trimmed.
+     */
+    public SkyArenaConfig convertToArenaConfig(SkyBlockLocationRange trimmedOrigin) {
+        this.originRange = trimmedOrigin;
+        return createArenaConfig();
     }
 
-    public SkyArenaConfig convertToArenaConfig() {
+    private SkyArenaConfig createArenaConfig() {
         Path arenaFolder = plugin.getConfiguration().getArenaFolder();
         int additionToName = 0;
         String finalArenaName = arenaName;
@@ -73,7 +86,6 @@ public class SetupData {
             plugin.getLogger().log(Level.INFO, String.format("New arena `%s` saved as `%s` (to avoid conflict with `%s`).", arenaName, finalArenaName, arenaName));
         }
         Path saveFile = arenaFolder.resolve(finalArenaName + ".yml");
-        setOriginBoundaries();
         if (originRange == null) {
             throw new IllegalStateException("Origin not defined.");
         }
@@ -96,66 +108,6 @@ public class SetupData {
         return config;
     }
 
-    protected SkyBlockLocationRange calculateOrigin(SkyBlockLocation min, SkyBlockLocation max) {
-        World world = Bukkit.getWorld(min.world);
-        if (world == null) {
-            throw new IllegalStateException("Origin world '" + min.world + "' no longer loaded.");
-        }
-        int minX = min.x;
-        int minY = min.y;
-        int minZ = min.z;
-        int maxX = max.x;
-        int maxY = max.y;
-        int maxZ = max.z;
-
-        // Each of these loops will reduce the empty space around the chosen area,
-        //  by checking each plane of space and reducing the min/max of that direction if the space is clear.
-        // Reducing minX
-        while (minX < maxX
-                && isClear(minX, minY, minZ, minX, maxY, maxZ, world)) {
-            minX += 1;
-        }
-        // Reducing minY
-        while (minY < maxY
-                && isClear(minX, minY, minZ, maxX, minY, maxZ, world)) {
-            minY += 1;
-        }
-        // Reducing minZ
-        while (minZ < maxZ
-                && isClear(minX, minY, minZ, maxX, maxY, minZ, world)) {
-            minZ += 1;
-        }
-        // Reducing maxX
-        while (maxX > minX
-                && isClear(maxX, minY, minZ, maxX, maxY, maxZ, world)) {
-            maxX -= 1;
-        }
-        // Reducing maxY
-        while (maxY > minY
-                && isClear(minX, maxY, minZ, maxX, maxY, maxZ, world)) {
-            maxY -= 1;
-        }
-        // Reducing maxZ
-        while (maxZ > minZ
-                && isClear(minX, minY, maxZ, maxX, maxY, maxZ, world)) {
-            maxZ -= 1;
-        }
-        return new SkyBlockLocationRange(new SkyBlockLocation(minX, minY, minZ, world.getName()), new SkyBlockLocation(maxX, maxY, maxZ, world.getName()), world.getName());
-    }
-
-    private static boolean isClear(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, World world) {
-        for (int x = minX; x <= maxX; x++) {
-            for (int y = minY; y <= maxY; y++) {
-                for (int z = minZ; z <= maxZ; z++) {
-                    if (world.getBlockAt(x, y, z).getType() != Material.AIR) {
-                        return false;
-                    }
-                }
-            }
-        }
-        return true;
-    }
-
     public String getArenaName() {
         return arenaName;
     }
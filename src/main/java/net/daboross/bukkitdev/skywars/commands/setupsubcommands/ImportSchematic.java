@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2016 Dabo Ross <http://www.daboross.net/>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.daboross.bukkitdev.skywars.commands.setupsubcommands;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import net.daboross.bukkitdev.commandexecutorbase.SubCommand;
+import net.daboross.bukkitdev.commandexecutorbase.filters.ArgumentFilter;
+import net.daboross.bukkitdev.skywars.SkyWarsPlugin;
+import net.daboross.bukkitdev.skywars.api.arenaconfig.SkyArenaConfig;
+import net.daboross.bukkitdev.skywars.api.arenaconfig.SkyBoundariesConfig;
+import net.daboross.bukkitdev.skywars.api.location.SkyBlockLocation;
+import net.daboross.bukkitdev.skywars.api.location.SkyBlockLocationRange;
+import net.daboross.bukkitdev.skywars.api.location.SkyPlayerLocation;
+import net.daboross.bukkitdev.skywars.api.translations.SkyTrans;
+import net.daboross.bukkitdev.skywars.api.translations.TransKey;
+import net.daboross.bukkitdev.skywars.commands.setupstuff.ArenaLoadReporter;
+import net.daboross.bukkitdev.skywars.config.ExtraTrans;
+import net.daboross.bukkitdev.skywars.config.ExtraTransKey;
+import net.daboross.bukkitdev.skywars.world.PalettedBlockArea;
+import net.daboross.bukkitdev.skywars.world.SchematicImporter;
+import org.bukkit.Material;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+
+public class ImportSchematic extends SubCommand {
+
+    private static final Material DEFAULT_SPAWN_MARKER = Material.SPONGE;
+    private final SkyWarsPlugin plugin;
+
+    public ImportSchematic(final SkyWarsPlugin plugin) {
+        super("import-schematic", true, null, ExtraTrans.get(ExtraTransKey.SWS_IMPORTSCHEMATIC_DESCRIPTION));
+        addArgumentNames(ExtraTrans.get(ExtraTransKey.SWS_IMPORTSCHEMATIC_FILE_ARGUMENT), ExtraTrans.get(ExtraTransKey.SWS_IMPORTSCHEMATIC_NAME_ARGUMENT), ExtraTrans.get(ExtraTransKey.SWS_IMPORTSCHEMATIC_MARKER_ARGUMENT));
+        this.addCommandFilter(new ArgumentFilter(ArgumentFilter.ArgumentCondition.LESS_THAN, 4, SkyTrans.get(TransKey.TOO_MANY_PARAMS)));
+        this.addCommandFilter(new ArgumentFilter(ArgumentFilter.ArgumentCondition.GREATER_THAN, 1, SkyTrans.get(TransKey.NOT_ENOUGH_PARAMS)));
+        this.plugin = plugin;
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public void runCommand(final CommandSender sender, final Command baseCommand, final String baseCommandLabel, final String subCommandLabel, final String[] subCommandArgs) {
+        Path arenaFolder = plugin.getConfiguration().getArenaFolder();
+        Path file = arenaFolder.resolve(subCommandArgs[0]).normalize();
+        if (!Files.exists(file) && !subCommandArgs[0].endsWith(".schematic")) {
+            file = arenaFolder.resolve(subCommandArgs[0] + ".schematic").normalize();
+        }
+        if (!file.startsWith(arenaFolder.normalize()) || !Files.isRegularFile(file)) {
+            sender.sendMessage(ExtraTrans.get(ExtraTransKey.SWS_IMPORTSCHEMATIC_NOT_FOUND, subCommandArgs[0], arenaFolder));
+            return;
+        }
+        Material marker = DEFAULT_SPAWN_MARKER;
+        if (subCommandArgs.length > 2) {
+            marker = Material.matchMaterial(subCommandArgs[2]);
+            if (marker == null || !marker.isBlock()) {
+                sender.sendMessage(ExtraTrans.get(ExtraTransKey.SWS_IMPORTSCHEMATIC_UNKNOWN_BLOCK, subCommandArgs[2]));
+                return;
+            }
+        }
+        final String arenaName = subCommandArgs[1];
+        final SchematicImporter importer = new SchematicImporter(file, marker.getId());
+        sender.sendMessage(ExtraTrans.get(ExtraTransKey.SWS_IMPORTSCHEMATIC_IMPORTING, file.getFileName(), marker));
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, new Runnable() {
+            @Override
+            public void run() {
+                PalettedBlockArea blocks;
+                try {
+                    blocks = importer.read();
+                } catch (final IOException ex) {
+                    plugin.getLogger().log(Level.WARNING, "Failed to import schematic", ex);
+                    plugin.getServer().getScheduler().runTask(plugin, new Runnable() {
+                        @Override
+                        public void run() {
+                            sender.sendMessage(ExtraTrans.get(ExtraTransKey.SWS_IMPORTSCHEMATIC_READ_FAILED, ex.getMessage()));
+                        }
+                    });
+                    return;
+                }
+                final PalettedBlockArea finalBlocks = blocks;
+                plugin.getServer().getScheduler().runTask(plugin, new Runnable() {
+                    @Override
+                    public void run() {
+                        save(sender, arenaName, importer, finalBlocks);
+                    }
+                });
+            }
+        });
+    }
+
+    private void save(CommandSender sender, String arenaName, SchematicImporter importer, PalettedBlockArea blocks) {
+        if (importer.getSpawns().size() < 2) {
+            sender.sendMessage(ExtraTrans.get(ExtraTransKey.SWS_IMPORTSCHEMATIC_TOO_FEW_SPAWNS, importer.getSpawns().size()));
+            return;
+        }
+        Path arenaFolder = plugin.getConfiguration().getArenaFolder();
+        int additionToName = 0;
+        String finalArenaName = arenaName;
+        while (Files.exists(arenaFolder.resolve(finalArenaName + ".yml"))) {
+            finalArenaName = arenaName + ++additionToName;
+        }
+        List<SkyPlayerLocation> spawns = new ArrayList<>();
+        for (SkyBlockLocation marker : importer.getSpawns()) {
+            spawns.add(new SkyPlayerLocation(marker.x + 0.5, marker.y, marker.z + 0.5, 0, 0, null));
+        }
+        // The origin has no world: it only records the arena's size, since there is nowhere to rebuild it from.
+        SkyBlockLocationRange origin = new SkyBlockLocationRange(new SkyBlockLocation(0, 0, 0, null),
+                new SkyBlockLocation(importer.getWidth() - 1, importer.getHeight() - 1, importer.getLength() - 1, null), null);
+        SkyArenaConfig config = new SkyArenaConfig(finalArenaName,
+                spawns,
+                spawns.size(), // Number of teams
+                1, // Team size
+                2, // min players
+                20, // Placement Y
+                new SkyBoundariesConfig(origin), null);
+        config.setFile(arenaFolder.resolve(finalArenaName + ".yml"));
+        plugin.getConfiguration().saveArena(config);
+        plugin.getWorldHandler().importArenaInBackground(config, blocks, new ArenaLoadReporter(sender, finalArenaName) {
+            @Override
+            public void onLoaded(final SkyArenaConfig arena) {
+                sendMessage(SkyTrans.get(TransKey.SWS_SAVE_SAVED));
+                sendMessage(SkyTrans.get(TransKey.SWS_SAVE_SAVED_LINE_TWO, arena.getArenaName()));
+            }
+
+            @Override
+            public void onFailed(final SkyArenaConfig arena, final Exception ex) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to store imported blocks for " + arena.getArenaName() + "!", ex);
+                sendMessage(SkyTrans.get(TransKey.SWS_SAVE_FAILED));
+            }
+        });
+    }
+}
@@ -16,17 +16,21 @@
  */
 package net.daboross.bukkitdev.skywars.commands.setupsubcommands;
 
-import java.io.IOException;
+import java.util.logging.Level;
 import net.daboross.bukkitdev.commandexecutorbase.SubCommand;
 import net.daboross.bukkitdev.commandexecutorbase.filters.ArgumentFilter;
 import net.daboross.bukkitdev.skywars.SkyWarsPlugin;
 import net.daboross.bukkitdev.skywars.api.SkyWars;
 import net.daboross.bukkitdev.skywars.api.arenaconfig.SkyArenaConfig;
+import net.daboross.bukkitdev.skywars.api.location.SkyBlockLocationRange;
 import net.daboross.bukkitdev.skywars.api.translations.SkyTrans;
 import net.daboross.bukkitdev.skywars.api.translations.TransKey;
+import net.daboross.bukkitdev.skywars.commands.setupstuff.ArenaLoadReporter;
 import net.daboross.bukkitdev.skywars.commands.setupstuff.BoundariesSetCondition;
 import net.daboross.bukkitdev.skywars.commands.setupstuff.EnoughSpawnsSetCondition;
+import net.daboross.bukkitdev.skywars.commands.setupstuff.SetupData;
 import net.daboross.bukkitdev.skywars.commands.setupstuff.SetupStates;
+import net.daboross.bukkitdev.skywars.world.ArenaSnapshot;
 import org.apache.commons.lang.Validate;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
@@ -52,17 +56,41 @@ public class SaveCurrentArena extends SubCommand {
     }
 
     @Override
-    public void runCommand(CommandSender sender, Command baseCommand, String baseCommandLabel, String subCommandLabel, String[] subCommandArgs) {
+    public void runCommand(final CommandSender sender, Command baseCommand, String baseCommandLabel, String subCommandLabel, String[] subCommandArgs) {
+        final SkyWarsPlugin skyWars = (SkyWarsPlugin) plugin;
+        final SetupData data = states.getSetupState(((Player) sender).getUniqueId());
+        final ArenaSnapshot snapshot = data.takeOriginSnapshot();
         sender.sendMessage(SkyTrans.get(TransKey.SWS_SAVE_SAVING));
-        SkyArenaConfig config = states.getSetupState(((Player) sender).getUniqueId()).convertToArenaConfig();
+        // Trimming the empty space around the arena can take a while for large selections, so it's done off the
+        // server thread.
+        skyWars.getServer().getScheduler().runTaskAsynchronously(skyWars, new Runnable() {
+            @Override
+            public void run() {
+                final SkyBlockLocationRange origin = snapshot.trim();
+                skyWars.getServer().getScheduler().runTask(skyWars, new Runnable() {
+                    @Override
+                    public void run() {
+                        save(skyWars, sender, data.convertToArenaConfig(origin));
+                    }
+                });
+            }
+        });
+    }
+
+    private void save(SkyWarsPlugin skyWars, CommandSender sender, SkyArenaConfig config) {
         plugin.getConfiguration().saveArena(config);
-        try {
-            ((SkyWarsPlugin) plugin).getWorldHandler().loadNewArena(config, true);
-        } catch (IOException e) {
-            sender.sendMessage(SkyTrans.get(TransKey.SWS_SAVE_FAILED));
-            return;
-        }
-        sender.sendMessage(SkyTrans.get(TransKey.SWS_SAVE_SAVED));
-        sender.sendMessage(SkyTrans.get(TransKey.SWS_SAVE_SAVED_LINE_TWO, config.getArenaName()));
+        skyWars.getWorldHandler().loadNewArenaInBackground(config, true, new ArenaLoadReporter(sender, config.getArenaName()) {
+            @Override
+            public void onLoaded(final SkyArenaConfig arena) {
+                sendMessage(SkyTrans.get(TransKey.SWS_SAVE_SAVED));
+                sendMessage(SkyTrans.get(TransKey.SWS_SAVE_SAVED_LINE_TWO, arena.getArenaName()));
+            }
+
+            @Override
+            public void onFailed(final SkyArenaConfig arena, final Exception ex) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to create blocks cache for " + arena.getArenaName() + "!", ex);
+                sendMessage(SkyTrans.get(TransKey.SWS_SAVE_FAILED));
+            }
+        });
     }
 }
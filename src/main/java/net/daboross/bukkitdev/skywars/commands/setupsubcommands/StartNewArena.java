@@ -23,7 +23,6 @@ import net.daboross.bukkitdev.skywars.api.translations.SkyTrans;
 import net.daboross.bukkitdev.skywars.api.translations.TransKey;
 import net.daboross.bukkitdev.skywars.commands.setupstuff.SetupData;
 import net.daboross.bukkitdev.skywars.commands.setupstuff.SetupStates;
-import net.daboross.bukkitdev.skywars.commands.setupstuff.WESetupData;
 import org.apache.commons.lang.Validate;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
@@ -45,12 +44,7 @@ public class StartNewArena extends SubCommand {
 
     @Override
     public void runCommand(CommandSender sender, Command baseCommand, String baseCommandLabel, String subCommandLabel, String[] subCommandArgs) {
-        SetupData state;
-        if (plugin.getConfiguration().isWorldeditHookEnabled() && plugin.getServer().getPluginManager().isPluginEnabled("WorldEdit")) {
-            state = new WESetupData(plugin);
-        } else {
-            state = new SetupData(plugin);
-        }
+        SetupData state = new SetupData(plugin);
         state.setArenaName(subCommandArgs[0]);
         states.setSetupState(((Player) sender).getUniqueId(), state);
         sender.sendMessage(SkyTrans.get(TransKey.SWS_START_CONFIRMATION, subCommandArgs[0]));
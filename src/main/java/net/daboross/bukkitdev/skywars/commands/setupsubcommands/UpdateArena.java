@@ -16,7 +16,6 @@
  */
 package net.daboross.bukkitdev.skywars.commands.setupsubcommands;
 
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -27,6 +26,9 @@ import net.daboross.bukkitdev.skywars.SkyWarsPlugin;
 import net.daboross.bukkitdev.skywars.api.arenaconfig.SkyArenaConfig;
 import net.daboross.bukkitdev.skywars.api.translations.SkyTrans;
 import net.daboross.bukkitdev.skywars.api.translations.TransKey;
+import net.daboross.bukkitdev.skywars.commands.setupstuff.ArenaLoadReporter;
+import net.daboross.bukkitdev.skywars.config.ExtraTrans;
+import net.daboross.bukkitdev.skywars.config.ExtraTransKey;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
 
@@ -66,23 +68,25 @@ public class UpdateArena extends SubCommand {
                 return;
             }
         }
-        try {
-            plugin.getWorldHandler().loadNewArena(realArena, true);
-        } catch (IOException e) {
-            plugin.getLogger().log(Level.SEVERE, "Failed to update arena blocks cache for " + realArena.getArenaName() + "!", e);
-            sender.sendMessage(SkyTrans.get(TransKey.SWS_UPDATEARENA_FAILED, realArena.getArenaName()));
-            return;
-        } catch (IllegalArgumentException e) {
-            if (e.getMessage().contains("Origin location")) {
-                sender.sendMessage(SkyTrans.get(TransKey.SWS_UPDATEARENA_BUILTIN, realArena.getArenaName()));
-                return;
-            } else {
-                plugin.getLogger().log(Level.SEVERE, "Failed to update arena blocks cache for " + realArena.getArenaName() + "!", e);
-                sender.sendMessage(SkyTrans.get(TransKey.SWS_UPDATEARENA_FAILED, realArena.getArenaName()));
+        boolean started = plugin.getWorldHandler().loadNewArenaInBackground(realArena, true, new ArenaLoadReporter(sender, realArena.getArenaName()) {
+            @Override
+            public void onLoaded(final SkyArenaConfig arena) {
+                sendMessage(SkyTrans.get(TransKey.SWS_UPDATEARENA_COMPLETED, arena.getArenaName()));
+            }
+
+            @Override
+            public void onFailed(final SkyArenaConfig arena, final Exception ex) {
+                if (ex instanceof IllegalStateException && ex.getMessage().contains("Origin location")) {
+                    sendMessage(SkyTrans.get(TransKey.SWS_UPDATEARENA_BUILTIN, arena.getArenaName()));
+                    return;
+                }
+                plugin.getLogger().log(Level.SEVERE, "Failed to update arena blocks cache for " + arena.getArenaName() + "!", ex);
+                sendMessage(SkyTrans.get(TransKey.SWS_UPDATEARENA_FAILED, arena.getArenaName()));
             }
-            return;
+        });
+        if (!started) {
+            sender.sendMessage(ExtraTrans.get(ExtraTransKey.SWS_UPDATEARENA_ALREADY_UPDATING, realArena.getArenaName()));
         }
-        sender.sendMessage(SkyTrans.get(TransKey.SWS_UPDATEARENA_COMPLETED, realArena.getArenaName()));
     }
 
     @Override
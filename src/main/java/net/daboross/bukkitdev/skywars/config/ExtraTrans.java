@@ -0,0 +1,35 @@
+/*
+ * Copyright (C) 2016 Dabo Ross <http://www.daboross.net/>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.daboross.bukkitdev.skywars.config;
+
+/**
+ * Static access to {@link ExtraTransKey} messages, like {@link net.daboross.bukkitdev.skywars.api.translations.SkyTrans}
+ * for the API's messages.
+ */
+public class ExtraTrans {
+
+    private static TranslationsConfiguration instance;
+
+    public static void setInstance(final TranslationsConfiguration instance) {
+        ExtraTrans.instance = instance;
+    }
+
+    public static String get(ExtraTransKey key, Object... args) {
+        String message = instance.getExtra(key);
+        return args.length == 0 ? message : String.format(message, args);
+    }
+}
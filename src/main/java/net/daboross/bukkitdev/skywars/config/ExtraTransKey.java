@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2016 Dabo Ross <http://www.daboross.net/>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.daboross.bukkitdev.skywars.config;
+
+/**
+ * Messages for features of this plugin which don't have a {@link net.daboross.bukkitdev.skywars.api.translations.TransKey}
+ * in the SkyWars API. They are stored in messages.yml along with the other messages, but only have English defaults.
+ */
+public enum ExtraTransKey {
+    CMD_JOIN_NO_SUCH_ARENA("cmd.join.no-such-arena", false, "&cThere is no enabled arena named %s."),
+    CMD_JOIN_MATCHMAKING("cmd.join.matchmaking", false, "&7Finding a game with players of similar score."),
+    SWS_UPDATEARENA_ALREADY_UPDATING("setup.update-arena.already-updating", false, "&cArena %s is already being updated."),
+    SWS_IMPORTSCHEMATIC_DESCRIPTION("setup.import-schematic.description", false, "Creates a new arena from a schematic file in the arenas folder"),
+    SWS_IMPORTSCHEMATIC_FILE_ARGUMENT("setup.import-schematic.file-argument", false, "file"),
+    SWS_IMPORTSCHEMATIC_NAME_ARGUMENT("setup.import-schematic.name-argument", false, "arena name"),
+    SWS_IMPORTSCHEMATIC_MARKER_ARGUMENT("setup.import-schematic.marker-argument", false, "spawn marker block"),
+    SWS_IMPORTSCHEMATIC_NOT_FOUND("setup.import-schematic.not-found", false, "&cSchematic file %s not found in %s"),
+    SWS_IMPORTSCHEMATIC_UNKNOWN_BLOCK("setup.import-schematic.unknown-block", false, "&cUnknown block %s"),
+    SWS_IMPORTSCHEMATIC_IMPORTING("setup.import-schematic.importing", false, "&2Importing &a%s&2, with &a%s&2 blocks marking spawns."),
+    SWS_IMPORTSCHEMATIC_READ_FAILED("setup.import-schematic.read-failed", false, "&cFailed to read schematic: %s"),
+    SWS_IMPORTSCHEMATIC_TOO_FEW_SPAWNS("setup.import-schematic.too-few-spawns", false, "&cOnly found %s spawn markers in the schematic: at least two are needed."),
+    GAME_TIMELINE_BORDER_CLOSING("game.timeline.border-closing", false, "&cThe border is closing in!"),
+    GAME_TIMELINE_OUTSIDE_BORDER("game.timeline.outside-border", false, "&cYou are outside the border!"),
+    GAME_TIMELINE_CHESTS_REFILLED("game.timeline.chests-refilled", false, "&aThe chests have been refilled!"),
+    GAME_TIMELINE_DEATHMATCH("game.timeline.deathmatch", false, "&cDeathmatch! All remaining players have been brought back to the spawns."),
+    GAME_TIMELINE_ENDING_SOON("game.timeline.ending-soon", false, "&cThe game ends in %s seconds!");
+
+    public final String key;
+    public final boolean includePrefix;
+    public final String defaultValue;
+
+    ExtraTransKey(final String key, final boolean includePrefix, final String defaultValue) {
+        this.key = key;
+        this.includePrefix = includePrefix;
+        this.defaultValue = defaultValue;
+    }
+}
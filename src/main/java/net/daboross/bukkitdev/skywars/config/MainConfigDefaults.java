@@ -34,7 +34,9 @@ public class MainConfigDefaults {
     public static final SkyConfiguration.ArenaOrder ARENA_ORDER = SkyConfiguration.ArenaOrder.RANDOM;
     public static final List<String> ENABLED_ARENAS = Arrays.asList("skyblock-warriors", "water-warriors");
     public static final boolean SAVE_INVENTORY = true;
-    public static final int ARENA_DISTANCE_APART = 200;
+    public static final int ARENA_SPACING_CHUNKS = 4;
+    public static final int ARENA_ITEM_LIFETIME = 0;
+    public static final int ARENA_WORLD_COUNT = 1;
     public static final String LOCALE = Locale.getDefault().getLanguage();
     public static final Map<String, String> ARENA_GAMERULES;
     public static final boolean DEVELOPER_OPTIONS = false;
@@ -59,7 +61,20 @@ public class MainConfigDefaults {
     public static final long TIME_BEFORE_GAME_STARTS_TO_COPY_ARENA = 45;
     public static final long IN_GAME_PLAYER_FREEZE_TIME = 5;
     public static final List<Long> START_TIMER_MESSAGE_TIMES = Arrays.asList(600l, 300l, 180l, 60l, 45l, 30l, 15l, 5l, 3l, 2l, 1l);
+    public static final List<Long> TIMELINE_CHEST_REFILL_TIMES = Collections.emptyList();
+    public static final long TIMELINE_BORDER_SHRINK_START = 0;
+    public static final long TIMELINE_BORDER_SHRINK_DURATION = 120;
+    public static final int TIMELINE_BORDER_FINAL_RADIUS = 8;
+    public static final long TIMELINE_DEATHMATCH_START = 0;
+    public static final long TIMELINE_MAX_GAME_LENGTH = 0;
     public static final int ARENA_COPYING_BLOCK_SIZE = 500;
+    public static final boolean ARENA_COPYING_SKIP_AIR = true;
+    public static final int ARENA_COPYING_TICK_BUDGET = 0;
+    public static final int ARENA_COPYING_BLOCKS_PER_TICK = 1000;
+    public static final boolean ARENA_COPYING_RESET_CHANGED_ONLY = true;
+    public static final int ARENA_COPYING_MAX_TRACKED_CHANGES = 50000;
+    public static final int ARENA_COPYING_READY_ARENAS = 1;
+    public static final int ARENA_CACHE_MEMORY_BUDGET = 0;
 
     static {
         Map<String, String> defaultArenaGamerules = new HashMap<>(1);
@@ -101,6 +116,16 @@ public class MainConfigDefaults {
         }
     }
 
+    public static class Matchmaking {
+
+        public static final boolean ENABLE = false;
+        public static final int INITIAL_SCORE_RANGE = 20;
+        public static final int RANGE_INCREASE = 2;
+
+        private Matchmaking() {
+        }
+    }
+
     public static class CommandWhitelist {
 
         public static final boolean WHITELIST_ENABLED = true;
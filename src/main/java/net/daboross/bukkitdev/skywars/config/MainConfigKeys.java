@@ -28,7 +28,9 @@ public class MainConfigKeys {
     public static final String SAVE_INVENTORY = "save-inventory";
     public static final String SAVE_EXPERIENCE = "save-experience";
     public static final String SAVE_POSITION_GAMEMODE_HEALTH = "save-position-gamemode-health";
-    public static final String ARENA_DISTANCE_APART = "arena-distance-apart";
+    public static final String ARENA_SPACING_CHUNKS = "arena-spacing-chunks";
+    public static final String ARENA_ITEM_LIFETIME = "arena-item-lifetime-seconds";
+    public static final String ARENA_WORLD_COUNT = "arena-world-count";
     public static final String LOCALE = "locale";
     public static final String ARENA_GAMERULES = "skywars-arena-gamerules";
     public static final String RESPAWN_PLAYERS_IMMEDIATELY = "skip-respawn-screen";
@@ -48,7 +50,20 @@ public class MainConfigKeys {
     public static final String TIME_BEFORE_GAME_STARTS_TO_COPY_ARENA = "game-timer.time-before-start-to-start-arena-copy-operation";
     public static final String IN_GAME_PLAYER_FREEZE_TIME = "game-timer.time-after-start-to-freeze-players";
     public static final String START_TIMER_MESSAGE_TIMES = "game-timer.times-to-message-before-start";
+    public static final String TIMELINE_CHEST_REFILL_TIMES = "game-timeline.chest-refill-times";
+    public static final String TIMELINE_BORDER_SHRINK_START = "game-timeline.border-shrink-start";
+    public static final String TIMELINE_BORDER_SHRINK_DURATION = "game-timeline.border-shrink-duration";
+    public static final String TIMELINE_BORDER_FINAL_RADIUS = "game-timeline.border-final-radius";
+    public static final String TIMELINE_DEATHMATCH_START = "game-timeline.deathmatch-start";
+    public static final String TIMELINE_MAX_GAME_LENGTH = "game-timeline.max-game-length";
     public static final String ARENA_COPYING_BLOCK_SIZE = "arena-copying.number-of-blocks-to-copy-at-once";
+    public static final String ARENA_COPYING_SKIP_AIR = "arena-copying.skip-air-blocks";
+    public static final String ARENA_COPYING_TICK_BUDGET = "arena-copying.tick-budget-millis";
+    public static final String ARENA_COPYING_BLOCKS_PER_TICK = "arena-copying.blocks-per-tick";
+    public static final String ARENA_COPYING_RESET_CHANGED_ONLY = "arena-copying.reset-changed-blocks-only";
+    public static final String ARENA_COPYING_MAX_TRACKED_CHANGES = "arena-copying.max-tracked-changes";
+    public static final String ARENA_COPYING_READY_ARENAS = "arena-copying.ready-copies-per-arena";
+    public static final String ARENA_CACHE_MEMORY_BUDGET = "arena-copying.cache-memory-budget-megabytes";
 
     private MainConfigKeys() {
     }
@@ -83,6 +98,16 @@ public class MainConfigKeys {
         }
     }
 
+    public static class Matchmaking {
+
+        public static final String ENABLE = "matchmaking.enable-matchmaking";
+        public static final String INITIAL_SCORE_RANGE = "matchmaking.initial-score-range";
+        public static final String RANGE_INCREASE = "matchmaking.score-range-increase-per-second";
+
+        private Matchmaking() {
+        }
+    }
+
     public static class CommandWhitelist {
 
         public static final String WHITELIST_ENABLED = "command-whitelist.whitelist-enabled";
@@ -106,6 +131,7 @@ public class MainConfigKeys {
 
         public static final String PREFIX_CHAT = "points.should-prefix-chat";
         public static final String CHAT_PREFIX = "points.chat-prefix";
+        public static final String ARENA_DISTANCE_APART = "arena-distance-apart";
 
         private Deprecated() {
         }
@@ -185,6 +185,16 @@ public class RandomChestConfiguration implements RandomChests {
     @Override
     public ItemStack[] getItems(final int size, final int chestLevel, final int minValue, final int maxValue) {
         SkyStatic.debug("Filling with size: %s, level: %s, min: %s, max: %s", size, chestLevel, minValue, maxValue);
+        return arrange(rollItems(chestLevel, minValue, maxValue, random), size, random);
+    }
+
+    /**
+     * Picks the items for one chest, without placing them in the chest's slots yet. Safe to call from any thread: the
+     * chest levels aren't changed once loaded, and all randomness comes from the given Random.
+     *
+     * @return the items, in the order they were picked.
+     */
+    public List<ItemStack> rollItems(final int chestLevel, final int minValue, final int maxValue, final Random random) {
         int totalChance = 0;
         List<ChestLevel> acceptableLevels = new ArrayList<>();
         for (ChestLevel level : levels) {
@@ -195,7 +205,7 @@ public class RandomChestConfiguration implements RandomChests {
         }
         if (acceptableLevels.isEmpty()) {
             SkyStatic.log(Level.SEVERE, "Warning: No acceptable chest levels found when filling chest with minValue={0}, maxValue={1}! Chest will be completely empty.", minValue, maxValue);
-            return new ItemStack[size];
+            return Collections.emptyList();
         }
         SkyStatic.debug("[RandomChests] Found acceptable levels: %s", acceptableLevels);
         int totalValue = 0;
@@ -218,14 +228,21 @@ public class RandomChestConfiguration implements RandomChests {
             inventory.add(item.toItem());
             totalValue += level.itemValue;
         }
+        return inventory;
+    }
 
+    /**
+     * Places rolled items into randomly chosen slots of an inventory with the given size, dropping any which don't
+     * fit.
+     */
+    public static ItemStack[] arrange(final List<ItemStack> items, final int size, final Random random) {
         ItemStack[] result;
-        if (inventory.size() > size) {
-            result = inventory.subList(0, size).toArray(new ItemStack[size]);
+        if (items.size() > size) {
+            result = items.subList(0, size).toArray(new ItemStack[size]);
         } else {
-            result = inventory.toArray(new ItemStack[size]);
+            result = items.toArray(new ItemStack[size]);
         }
-        Collections.shuffle(Arrays.asList(result));
+        Collections.shuffle(Arrays.asList(result), random);
         return result;
     }
 
@@ -65,7 +65,9 @@ public class SkyWarsConfiguration implements SkyConfiguration {
     private String scoreSqlPassword;
     private long scoreSaveInterval;
     private long scoreIndividualRankUpdateInterval;
-    private int arenaDistanceApart;
+    private int arenaSpacingChunks;
+    private int arenaItemLifetime;
+    private int arenaWorldCount;
     private boolean commandWhitelistEnabled;
     private boolean commandWhitelistABlacklist;
     private Pattern commandWhitelistCommandRegex;
@@ -75,6 +77,9 @@ public class SkyWarsConfiguration implements SkyConfiguration {
     private String locale;
     private boolean respawnPlayersImmediately;
     private boolean economyRewardMessages;
+    private boolean matchmakingEnabled;
+    private int matchmakingInitialScoreRange;
+    private int matchmakingRangeIncrease;
     private String[] joinSignLines;
     private boolean limitStartMessagesToArenaPlayers;
     private boolean limitDeathMessagesToArenaPlayers;
@@ -88,12 +93,25 @@ public class SkyWarsConfiguration implements SkyConfiguration {
     private long timeBeforeGameStartsToCopyArena;
     private long inGamePlayerFreezeTime;
     private List<Long> startTimerMessageTimes;
+    private List<Long> timelineChestRefillTimes;
+    private long timelineBorderShrinkStart;
+    private long timelineBorderShrinkDuration;
+    private int timelineBorderFinalRadius;
+    private long timelineDeathmatchStart;
+    private long timelineMaxGameLength;
     private boolean multiverseCoreHookEnabled;
     private boolean worldeditHookEnabled;
     private boolean disableReport;
     private boolean recoverFromScoreErrors;
     private boolean developerOptions;
     private int arenaCopyingBlockSize;
+    private boolean arenaCopyingSkipAir;
+    private int arenaCopyingTickBudget;
+    private int arenaCopyingBlocksPerTick;
+    private boolean arenaCopyingResetChangedOnly;
+    private int arenaCopyingMaxTrackedChanges;
+    private int arenaCopyingReadyArenas;
+    private int arenaCacheMemoryBudget;
 
     public SkyWarsConfiguration(SkyWars plugin) throws IOException, InvalidConfigurationException, SkyConfigurationException {
         this.plugin = plugin;
@@ -182,9 +200,34 @@ public class SkyWarsConfiguration implements SkyConfiguration {
         economyKillReward = mainConfig.getSetInt(MainConfigKeys.Economy.KILL_REWARD, MainConfigDefaults.Economy.KILL_REWARD);
         economyWinReward = mainConfig.getSetInt(MainConfigKeys.Economy.WIN_REWARD, MainConfigDefaults.Economy.WIN_REWARD);
         economyRewardMessages = mainConfig.getSetBoolean(MainConfigKeys.Economy.MESSAGE, MainConfigDefaults.Economy.MESSAGE);
+        // Matchmaking
+        matchmakingEnabled = mainConfig.getSetBoolean(MainConfigKeys.Matchmaking.ENABLE, MainConfigDefaults.Matchmaking.ENABLE);
+        matchmakingInitialScoreRange = mainConfig.getSetInt(MainConfigKeys.Matchmaking.INITIAL_SCORE_RANGE, MainConfigDefaults.Matchmaking.INITIAL_SCORE_RANGE);
+        matchmakingRangeIncrease = mainConfig.getSetInt(MainConfigKeys.Matchmaking.RANGE_INCREASE, MainConfigDefaults.Matchmaking.RANGE_INCREASE);
+        if (matchmakingEnabled && !enableScore) {
+            throw new SkyConfigurationException("Points must be enabled to enable matchmaking!");
+        }
+        if (matchmakingInitialScoreRange < 0 || matchmakingRangeIncrease < 0) {
+            throw new SkyConfigurationException("Invalid matchmaking score range in file " + mainConfigFile.toAbsolutePath() + ": " + MainConfigKeys.Matchmaking.INITIAL_SCORE_RANGE + " and " + MainConfigKeys.Matchmaking.RANGE_INCREASE + " can't be negative.");
+        }
 
-        arenaDistanceApart = mainConfig.getSetInt(MainConfigKeys.ARENA_DISTANCE_APART, MainConfigDefaults.ARENA_DISTANCE_APART);
+        if (mainConfig.getConfig().contains(MainConfigKeys.Deprecated.ARENA_DISTANCE_APART)) {
+            plugin.getLogger().warning(MainConfigKeys.Deprecated.ARENA_DISTANCE_APART + " is no longer used, and has been removed from " + mainConfigFile.getFileName() + ". Arenas are now spaced using " + MainConfigKeys.ARENA_SPACING_CHUNKS + ".");
+        }
+        arenaSpacingChunks = mainConfig.getSetInt(MainConfigKeys.ARENA_SPACING_CHUNKS, MainConfigDefaults.ARENA_SPACING_CHUNKS);
+        arenaItemLifetime = mainConfig.getSetInt(MainConfigKeys.ARENA_ITEM_LIFETIME, MainConfigDefaults.ARENA_ITEM_LIFETIME);
+        arenaWorldCount = mainConfig.getSetInt(MainConfigKeys.ARENA_WORLD_COUNT, MainConfigDefaults.ARENA_WORLD_COUNT);
+        if (arenaWorldCount < 1) {
+            throw new SkyConfigurationException("Invalid " + MainConfigKeys.ARENA_WORLD_COUNT + " '" + arenaWorldCount + "' in file " + mainConfigFile.toAbsolutePath() + ": at least one arena world is needed.");
+        }
         arenaCopyingBlockSize = mainConfig.getSetInt(MainConfigKeys.ARENA_COPYING_BLOCK_SIZE, MainConfigDefaults.ARENA_COPYING_BLOCK_SIZE);
+        arenaCopyingSkipAir = mainConfig.getSetBoolean(MainConfigKeys.ARENA_COPYING_SKIP_AIR, MainConfigDefaults.ARENA_COPYING_SKIP_AIR);
+        arenaCopyingTickBudget = mainConfig.getSetInt(MainConfigKeys.ARENA_COPYING_TICK_BUDGET, MainConfigDefaults.ARENA_COPYING_TICK_BUDGET);
+        arenaCopyingBlocksPerTick = mainConfig.getSetInt(MainConfigKeys.ARENA_COPYING_BLOCKS_PER_TICK, MainConfigDefaults.ARENA_COPYING_BLOCKS_PER_TICK);
+        arenaCopyingResetChangedOnly = mainConfig.getSetBoolean(MainConfigKeys.ARENA_COPYING_RESET_CHANGED_ONLY, MainConfigDefaults.ARENA_COPYING_RESET_CHANGED_ONLY);
+        arenaCopyingMaxTrackedChanges = mainConfig.getSetInt(MainConfigKeys.ARENA_COPYING_MAX_TRACKED_CHANGES, MainConfigDefaults.ARENA_COPYING_MAX_TRACKED_CHANGES);
+        arenaCopyingReadyArenas = mainConfig.getSetInt(MainConfigKeys.ARENA_COPYING_READY_ARENAS, MainConfigDefaults.ARENA_COPYING_READY_ARENAS);
+        arenaCacheMemoryBudget = mainConfig.getSetInt(MainConfigKeys.ARENA_CACHE_MEMORY_BUDGET, MainConfigDefaults.ARENA_CACHE_MEMORY_BUDGET);
 
         commandWhitelistEnabled = mainConfig.getSetBoolean(MainConfigKeys.CommandWhitelist.WHITELIST_ENABLED, MainConfigDefaults.CommandWhitelist.WHITELIST_ENABLED);
         commandWhitelistABlacklist = mainConfig.getSetBoolean(MainConfigKeys.CommandWhitelist.IS_BLACKLIST, MainConfigDefaults.CommandWhitelist.IS_BLACKLIST);
@@ -210,6 +253,23 @@ public class SkyWarsConfiguration implements SkyConfiguration {
         inGamePlayerFreezeTime = mainConfig.getSetLong(MainConfigKeys.IN_GAME_PLAYER_FREEZE_TIME, MainConfigDefaults.IN_GAME_PLAYER_FREEZE_TIME);
         startTimerMessageTimes = mainConfig.getSetLongList(MainConfigKeys.START_TIMER_MESSAGE_TIMES, MainConfigDefaults.START_TIMER_MESSAGE_TIMES);
 
+        // In-game timeline
+        timelineChestRefillTimes = mainConfig.getSetLongList(MainConfigKeys.TIMELINE_CHEST_REFILL_TIMES, MainConfigDefaults.TIMELINE_CHEST_REFILL_TIMES);
+        timelineBorderShrinkStart = mainConfig.getSetLong(MainConfigKeys.TIMELINE_BORDER_SHRINK_START, MainConfigDefaults.TIMELINE_BORDER_SHRINK_START);
+        timelineBorderShrinkDuration = mainConfig.getSetLong(MainConfigKeys.TIMELINE_BORDER_SHRINK_DURATION, MainConfigDefaults.TIMELINE_BORDER_SHRINK_DURATION);
+        timelineBorderFinalRadius = mainConfig.getSetInt(MainConfigKeys.TIMELINE_BORDER_FINAL_RADIUS, MainConfigDefaults.TIMELINE_BORDER_FINAL_RADIUS);
+        timelineDeathmatchStart = mainConfig.getSetLong(MainConfigKeys.TIMELINE_DEATHMATCH_START, MainConfigDefaults.TIMELINE_DEATHMATCH_START);
+        timelineMaxGameLength = mainConfig.getSetLong(MainConfigKeys.TIMELINE_MAX_GAME_LENGTH, MainConfigDefaults.TIMELINE_MAX_GAME_LENGTH);
+        for (Long refillTime : timelineChestRefillTimes) {
+            if (refillTime == null || refillTime <= 0) {
+                throw new SkyConfigurationException("Invalid " + MainConfigKeys.TIMELINE_CHEST_REFILL_TIMES + " entry '" + refillTime + "' in file " + mainConfigFile.toAbsolutePath() + ": refill times must be above 0 seconds.");
+            }
+        }
+        if (timelineBorderShrinkStart < 0 || timelineBorderShrinkDuration < 1 || timelineBorderFinalRadius < 0
+                || timelineDeathmatchStart < 0 || timelineMaxGameLength < 0) {
+            throw new SkyConfigurationException("Invalid game-timeline section in file " + mainConfigFile.toAbsolutePath() + ": times and the border radius can't be negative, and border-shrink-duration must be at least 1.");
+        }
+
         // Report disable
         disableReport = mainConfig.getConfig().getBoolean(MainConfigKeys.DISABLE_REPORT, MainConfigDefaults.DISABLE_REPORT);
         recoverFromScoreErrors = !mainConfig.getConfig().getBoolean(MainConfigKeys.DISABLE_SCORE_RECOVERY, MainConfigDefaults.DISABLE_SCORE_RECOVERY);
@@ -225,7 +285,7 @@ public class SkyWarsConfiguration implements SkyConfiguration {
         }
 
         // Remove deprecated values
-        mainConfig.removeValues(MainConfigKeys.Deprecated.CHAT_PREFIX, MainConfigKeys.Deprecated.PREFIX_CHAT);
+        mainConfig.removeValues(MainConfigKeys.Deprecated.CHAT_PREFIX, MainConfigKeys.Deprecated.PREFIX_CHAT, MainConfigKeys.Deprecated.ARENA_DISTANCE_APART);
 
         // Save
         mainConfig.save(String.format(Headers.CONFIG));
@@ -379,9 +439,58 @@ public class SkyWarsConfiguration implements SkyConfiguration {
         return scoreSaveInterval;
     }
 
+    /**
+     * Only kept because {@link net.daboross.bukkitdev.skywars.api.config.SkyConfiguration} requires it: arenas are
+     * spaced by {@link #getArenaSpacingChunks()} rather than a fixed distance.
+     *
+     * @return the spacing between arenas, in blocks.
+     */
     @Override
+    @Deprecated
     public int getArenaDistanceApart() {
-        return arenaDistanceApart;
+        return arenaSpacingChunks * 16;
+    }
+
+    /**
+     * @return number of empty chunks left between arena copies in the arena world.
+     */
+    public int getArenaSpacingChunks() {
+        return arenaSpacingChunks;
+    }
+
+    /**
+     * @return seconds dropped items may lie in the arena world before being removed, or 0 to never remove them early.
+     */
+    public int getArenaItemLifetime() {
+        return arenaItemLifetime;
+    }
+
+    /**
+     * @return true if queued players are grouped into games by score rather than by join order.
+     */
+    public boolean isMatchmakingEnabled() {
+        return matchmakingEnabled;
+    }
+
+    /**
+     * @return largest score difference allowed within a game formed by matchmaking, before any widening.
+     */
+    public int getMatchmakingInitialScoreRange() {
+        return matchmakingInitialScoreRange;
+    }
+
+    /**
+     * @return amount the allowed score difference grows by for every second the longest-waiting player has waited.
+     */
+    public int getMatchmakingRangeIncrease() {
+        return matchmakingRangeIncrease;
+    }
+
+    /**
+     * @return number of arena worlds games are spread between.
+     */
+    public int getArenaWorldCount() {
+        return arenaWorldCount;
     }
 
     @Override
@@ -544,11 +653,95 @@ public class SkyWarsConfiguration implements SkyConfiguration {
         return startTimerMessageTimes;
     }
 
+    /**
+     * @return seconds after a game starts to refill its chests.
+     */
+    public List<Long> getTimelineChestRefillTimes() {
+        return timelineChestRefillTimes;
+    }
+
+    /**
+     * @return seconds after a game starts for its border to start shrinking, or 0 to never shrink it.
+     */
+    public long getTimelineBorderShrinkStart() {
+        return timelineBorderShrinkStart;
+    }
+
+    /**
+     * @return seconds the border takes to shrink to its final radius.
+     */
+    public long getTimelineBorderShrinkDuration() {
+        return timelineBorderShrinkDuration;
+    }
+
+    /**
+     * @return distance from the arena's center to the edge of the border once it has finished shrinking.
+     */
+    public int getTimelineBorderFinalRadius() {
+        return timelineBorderFinalRadius;
+    }
+
+    /**
+     * @return seconds after a game starts to bring all remaining players back to the spawns, or 0 to never do so.
+     */
+    public long getTimelineDeathmatchStart() {
+        return timelineDeathmatchStart;
+    }
+
+    /**
+     * @return seconds after a game starts to end it, or 0 to let games run until they're won.
+     */
+    public long getTimelineMaxGameLength() {
+        return timelineMaxGameLength;
+    }
+
     @Override
     public int getArenaCopyingBlockSize() {
         return arenaCopyingBlockSize;
     }
 
+    public boolean isArenaCopyingSkipAir() {
+        return arenaCopyingSkipAir;
+    }
+
+    /**
+     * @return milliseconds all copy and destroy operations together may spend per tick, or 0 for no time limit.
+     */
+    public int getArenaCopyingTickBudget() {
+        return arenaCopyingTickBudget;
+    }
+
+    /**
+     * @return blocks all copy and destroy operations together may change per tick, beyond what they need to finish on
+     * time.
+     */
+    public int getArenaCopyingBlocksPerTick() {
+        return arenaCopyingBlocksPerTick;
+    }
+
+    public boolean isArenaCopyingResetChangedOnly() {
+        return arenaCopyingResetChangedOnly;
+    }
+
+    public int getArenaCopyingMaxTrackedChanges() {
+        return arenaCopyingMaxTrackedChanges;
+    }
+
+    /**
+     * @return number of fully copied arena locations to keep ready for each enabled arena.
+     */
+    public int getArenaCopyingReadyArenas() {
+        return arenaCopyingReadyArenas;
+    }
+
+    /**
+     * @return megabytes which loaded arena blocks may use before the least recently used arenas are unloaded, or 0
+     * for no limit.
+     */
+    public int getArenaCacheMemoryBudget() {
+        return arenaCacheMemoryBudget;
+    }
+
     private static class Names {
 
         private static final String MAIN = "main-config.yml";
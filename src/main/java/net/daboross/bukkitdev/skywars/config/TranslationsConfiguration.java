@@ -45,6 +45,7 @@ public class TranslationsConfiguration implements SkyTranslations {
     private int messagesVersion;
     private String language;
     private Map<TransKey, String> values;
+    private final Map<ExtraTransKey, String> extraValues = new EnumMap<>(ExtraTransKey.class);
 
     public TranslationsConfiguration(SkyWars plugin) throws SkyConfigurationException {
         this.plugin = plugin;
@@ -103,6 +104,15 @@ public class TranslationsConfiguration implements SkyTranslations {
             }
             entry.setValue(compiledValue);
         }
+        for (ExtraTransKey key : ExtraTransKey.values()) {
+            String value = !autoUpdating && config.contains(key.key) ? config.getString(key.key) : key.defaultValue;
+            config.set(key.key, value);
+            String compiledValue = ChatColor.translateAlternateColorCodes('&', value);
+            if (key.includePrefix) {
+                compiledValue = messagePrefix + compiledValue;
+            }
+            extraValues.put(key, compiledValue);
+        }
         config.options().header(MESSAGES_FILE_HEADER);
         try {
             config.save(configFile.toFile());
@@ -125,6 +135,9 @@ public class TranslationsConfiguration implements SkyTranslations {
             for (TransKey key : TransKey.values()) {
                 newConfig.set(key.key, internal.get(key));
             }
+            for (ExtraTransKey key : ExtraTransKey.values()) {
+                newConfig.set(key.key, key.defaultValue);
+            }
             try {
                 newConfig.save(newConfigFile.toFile());
             } catch (IOException ex) {
@@ -196,6 +209,10 @@ public class TranslationsConfiguration implements SkyTranslations {
         return values.get(key);
     }
 
+    public String getExtra(ExtraTransKey key) {
+        return extraValues.get(key);
+    }
+
     private static final String MESSAGES_FILE_HEADER = "### messages.yml ###\n"
             + "Note! If you are editing this file, set auto-update to false. \n"
             + "If auto-update is left true, all changed values will be overwritten.\n"
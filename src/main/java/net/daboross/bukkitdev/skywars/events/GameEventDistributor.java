@@ -66,13 +66,15 @@ public class GameEventDistributor {
             plugin.getTeamScoreBoardListener().onGameStart(info);
             plugin.getAttackerStorage().onGameStart(info);
             plugin.getSignListener().onGameStart(info);
-            plugin.getGameQueueTimer().onGameStart(info);
+            info.getQueue().getTimer().onGameStart(info);
             // -- Before gameStart1 --
             plugin.getWorldHandler().onGameStart0(info);
             // -- After gameStart0 --
             plugin.getInventorySaveListener().onGameStart(info);
             // -- After InventorySaveListener --
             plugin.getWorldHandler().onGameStart1(info);
+            // -- After WorldHandler --
+            plugin.getGameHandler().onGameStart(info);
             // -- After InventorySaveListener --
             plugin.getPlayers().onGameStart(info);
             plugin.getKitApplyListener().onGameStart(info);
@@ -92,6 +94,7 @@ public class GameEventDistributor {
             // -- Initial --
             plugin.getIDHandler().onGameEnd(info);
             // -- Normal --
+            plugin.getGameHandler().onGameEnd(info);
             plugin.getBroadcaster().broadcastEnd(info);
             plugin.getTeamScoreBoardListener().onGameEnd(info);
             if (plugin.getScore() != null) {
@@ -178,7 +181,7 @@ public class GameEventDistributor {
         try {
             // -- Normal --
             plugin.getPlayers().onJoinQueue(info);
-            plugin.getGameQueueTimer().onJoinQueue(info);
+            info.getQueue().getTimer().onJoinQueue(info);
             plugin.getKitQueueNotifier().onQueueJoin(info);
             plugin.getSignListener().onQueueJoin(info);
             // -- After --
@@ -194,7 +197,7 @@ public class GameEventDistributor {
         try {
             // -- Normal --
             plugin.getPlayers().onLeaveQueue(info);
-            plugin.getGameQueueTimer().onLeaveQueue(info);
+            info.getQueue().getTimer().onLeaveQueue(info);
             plugin.getSignListener().onQueueLeave(info);
             // -- After --
             plugin.getServer().getPluginManager().callEvent(new PlayerLeaveQueueEvent(plugin, info.getPlayer()));
@@ -20,6 +20,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 import net.daboross.bukkitdev.skywars.game.ArenaGame;
+import net.daboross.bukkitdev.skywars.game.GameQueue;
 import org.apache.commons.lang.Validate;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
@@ -28,10 +29,13 @@ public class GameStartInfo {
 
     private final List<Player> players;
     private final ArenaGame game;
+    private final GameQueue queue;
 
-    public GameStartInfo(ArenaGame game) {
+    public GameStartInfo(ArenaGame game, GameQueue queue) {
         Validate.notNull(game, "Game cannot be null");
+        Validate.notNull(queue, "Queue cannot be null");
         this.game = game;
+        this.queue = queue;
         List<UUID> playersList = game.getAlivePlayers();
         this.players = new ArrayList<>(playersList.size());
         for (UUID uuid : playersList) {
@@ -45,6 +49,13 @@ public class GameStartInfo {
         return game;
     }
 
+    /**
+     * @return the queue the game's players came from.
+     */
+    public GameQueue getQueue() {
+        return queue;
+    }
+
     public List<Player> getPlayers() {
         return players;
     }
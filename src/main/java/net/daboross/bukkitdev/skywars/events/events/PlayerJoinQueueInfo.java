@@ -16,26 +16,34 @@
  */
 package net.daboross.bukkitdev.skywars.events.events;
 
+import net.daboross.bukkitdev.skywars.game.GameQueue;
 import org.apache.commons.lang.Validate;
 import org.bukkit.entity.Player;
 
 public class PlayerJoinQueueInfo {
 
     private final Player player;
+    private final GameQueue queue;
     private final boolean queueFull;
     private final boolean minPlayersPresent;
 
-    public PlayerJoinQueueInfo(final Player player, boolean queueFull, final boolean minPlayersPresent) {
+    public PlayerJoinQueueInfo(final Player player, final GameQueue queue, boolean queueFull, final boolean minPlayersPresent) {
         this.queueFull = queueFull;
         this.minPlayersPresent = minPlayersPresent;
         Validate.notNull(player, "Player cannot be null");
+        Validate.notNull(queue, "Queue cannot be null");
         this.player = player;
+        this.queue = queue;
     }
 
     public Player getPlayer() {
         return player;
     }
 
+    public GameQueue getQueue() {
+        return queue;
+    }
+
     public boolean isQueueFull() {
         return queueFull;
     }
@@ -48,6 +56,7 @@ public class PlayerJoinQueueInfo {
     public String toString() {
         return "PlayerJoinQueueInfo{" +
                 "player=" + player +
+                ", queue=" + queue.getPlannedArena().getArenaName() +
                 ", queueFull=" + queueFull +
                 ", minPlayersPresent=" + minPlayersPresent +
                 '}';
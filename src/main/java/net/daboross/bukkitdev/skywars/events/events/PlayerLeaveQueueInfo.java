@@ -16,24 +16,32 @@
  */
 package net.daboross.bukkitdev.skywars.events.events;
 
+import net.daboross.bukkitdev.skywars.game.GameQueue;
 import org.apache.commons.lang.Validate;
 import org.bukkit.entity.Player;
 
 public class PlayerLeaveQueueInfo {
 
     private final Player player;
+    private final GameQueue queue;
     private final boolean minPlayersPresent;
 
-    public PlayerLeaveQueueInfo(final Player player, boolean minPlayersPresent) {
+    public PlayerLeaveQueueInfo(final Player player, final GameQueue queue, boolean minPlayersPresent) {
         this.minPlayersPresent = minPlayersPresent;
         Validate.notNull(player, "Player cannot be null");
+        Validate.notNull(queue, "Queue cannot be null");
         this.player = player;
+        this.queue = queue;
     }
 
     public Player getPlayer() {
         return player;
     }
 
+    public GameQueue getQueue() {
+        return queue;
+    }
+
     public boolean areMinPlayersPresent() {
         return minPlayersPresent;
     }
@@ -42,6 +50,7 @@ public class PlayerLeaveQueueInfo {
     public String toString() {
         return "PlayerLeaveQueueInfo{" +
                 "player=" + player +
+                ", queue=" + queue.getPlannedArena().getArenaName() +
                 ", minPlayersPresent=" + minPlayersPresent +
                 '}';
     }
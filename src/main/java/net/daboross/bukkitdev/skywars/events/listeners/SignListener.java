@@ -19,7 +19,7 @@ package net.daboross.bukkitdev.skywars.events.listeners;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
-import net.daboross.bukkitdev.skywars.api.SkyWars;
+import net.daboross.bukkitdev.skywars.SkyWarsPlugin;
 import net.daboross.bukkitdev.skywars.api.arenaconfig.SkyArena;
 import net.daboross.bukkitdev.skywars.api.location.SkyBlockLocation;
 import net.daboross.bukkitdev.skywars.api.translations.SkyTrans;
@@ -27,6 +27,7 @@ import net.daboross.bukkitdev.skywars.api.translations.TransKey;
 import net.daboross.bukkitdev.skywars.events.events.GameStartInfo;
 import net.daboross.bukkitdev.skywars.events.events.PlayerJoinQueueInfo;
 import net.daboross.bukkitdev.skywars.events.events.PlayerLeaveQueueInfo;
+import net.daboross.bukkitdev.skywars.game.GameQueue;
 import org.bukkit.ChatColor;
 import org.bukkit.Material;
 import org.bukkit.block.Block;
@@ -44,15 +45,18 @@ import org.bukkit.event.player.PlayerInteractEvent;
  * Keeping track of signs should be in SignManager in "skywars.game", sign updating events should be in
  * "SignUpdateListener" in "skywars.events.listeners" and sign creation events should be in "SignCreateListener" in
  * "skywars.listeners".
+ * <p>
+ * A sign placed with the name of an enabled arena written on its {name} line only joins games on that arena, using
+ * that arena's own queue. Other signs join the default queue.
  */
 public class SignListener implements Listener {
 
-    private final SkyWars plugin;
+    private final SkyWarsPlugin plugin;
     private final List<SkyBlockLocation> toRemove = new ArrayList<>();
     private final String[] lines = new String[4];
     private final boolean[] dynamic = new boolean[4];
 
-    public SignListener(final SkyWars plugin) {
+    public SignListener(final SkyWarsPlugin plugin) {
         this.plugin = plugin;
         String[] lineStrings = plugin.getConfiguration().getJoinSignLines();
         for (int i = 0; i < 4; i++) {
@@ -91,18 +95,24 @@ public class SignListener implements Listener {
                 // signs, and the duplicate would never be removed.
                 signs.add(location);
             }
-            SkyArena nextArena = plugin.getGameQueue().getPlannedArena();
-            int current = plugin.getGameQueue().getNumPlayersInQueue();
+            GameQueue queue = null;
             for (int i = 0; i < 4; i++) {
-                if (dynamic[i]) {
-                    evt.setLine(i, lines[i]
-                            .replace("{max}", Integer.toString(nextArena.getNumPlayers()))
-                            .replace("{count}", Integer.toString(current))
-                            .replace("{name}", nextArena.getArenaName()));
-                } else {
-                    evt.setLine(i, lines[i]);
+                if (dynamic[i] && lines[i].contains("{name}") && evt.getLine(i) != null && !evt.getLine(i).trim().isEmpty()) {
+                    queue = plugin.getGameQueue().getArenaQueue(evt.getLine(i).trim());
+                    if (queue != null) {
+                        plugin.getLocationStore().getSignArenas().put(location, queue.getFixedArena().getArenaName());
+                        break;
+                    }
                 }
             }
+            if (queue == null) {
+                plugin.getLocationStore().getSignArenas().remove(location);
+                queue = plugin.getGameQueue().getDefaultQueue();
+            }
+            String[] signLines = getLines(queue);
+            for (int i = 0; i < 4; i++) {
+                evt.setLine(i, signLines[i]);
+            }
         }
     }
 
@@ -134,7 +144,7 @@ public class SignListener implements Listener {
                 } else if (!plugin.getCurrentGameTracker().isInGame(uuid)) {
                     // Should be pretty impossible to click a join sign while already in a game.
                     p.sendMessage(SkyTrans.get(TransKey.CMD_JOIN_CONFIRMATION));
-                    plugin.getGameQueue().queuePlayer(p);
+                    getQueue(new SkyBlockLocation(evt.getClickedBlock())).queuePlayer(p);
                 }
             }
         }
@@ -158,9 +168,6 @@ public class SignListener implements Listener {
             return;
         }
 
-        SkyArena nextArena = plugin.getGameQueue().getPlannedArena();
-        int current = plugin.getGameQueue().getNumPlayersInQueue();
-
         for (SkyBlockLocation location : signs) {
             Block block = location.toBlock();
             if (block != null) {
@@ -179,15 +186,9 @@ public class SignListener implements Listener {
                     toRemove.add(location);
                     continue;
                 }
+                String[] signLines = getLines(getQueue(location));
                 for (int i = 0; i < 4; i++) {
-                    if (dynamic[i]) {
-                        sign.setLine(i, lines[i]
-                                .replace("{max}", Integer.toString(nextArena.getNumPlayers()))
-                                .replace("{count}", Integer.toString(current))
-                                .replace("{name}", nextArena.getArenaName()));
-                    } else {
-                        sign.setLine(i, lines[i]);
-                    }
+                    sign.setLine(i, signLines[i]);
                 }
                 // Don't update physics.
                 state.update(false, false);
@@ -197,7 +198,35 @@ public class SignListener implements Listener {
         for (SkyBlockLocation location : toRemove) {
             // This collection is not a copy, but rather the original storage for signs.
             signs.remove(location);
+            plugin.getLocationStore().getSignArenas().remove(location);
+        }
+        toRemove.clear();
+    }
+
+    /**
+     * Gets the queue a join sign joins: its arena's queue if it is for one arena, otherwise the default queue.
+     */
+    private GameQueue getQueue(SkyBlockLocation location) {
+        String arenaName = plugin.getLocationStore().getSignArenas().get(location);
+        GameQueue queue = arenaName == null ? null : plugin.getGameQueue().getArenaQueue(arenaName);
+        return queue == null ? plugin.getGameQueue().getDefaultQueue() : queue;
+    }
+
+    private String[] getLines(GameQueue queue) {
+        SkyArena nextArena = queue.getPlannedArena();
+        int current = queue.getNumPlayersInQueue();
+        String[] result = new String[4];
+        for (int i = 0; i < 4; i++) {
+            if (dynamic[i]) {
+                result[i] = lines[i]
+                        .replace("{max}", Integer.toString(nextArena.getNumPlayers()))
+                        .replace("{count}", Integer.toString(current))
+                        .replace("{name}", nextArena.getArenaName());
+            } else {
+                result[i] = lines[i];
+            }
         }
+        return result;
     }
 
     private boolean testSign(Sign sign) {
@@ -34,6 +34,7 @@ public class ArenaGame implements SkyGame {
     private final int id;
     private final List<UUID> alivePlayers;
     private final List<UUID> deadPlayers;
+    private final GameQueue queue;
     private final SkyArena arena;
     private SkyBlockLocation min;
     private SkyBlockLocationRange boundaries;
@@ -42,10 +43,13 @@ public class ArenaGame implements SkyGame {
     private final Team[] teams;
     private final int numTeams;
     private int locationId = -5; // TODO: It would be better to set this in the constructor!
+    private GameTimeline timeline;
+    private long lootSeed;
 
-    public ArenaGame(SkyArena arena, int id, UUID[] originalPlayers) {
+    public ArenaGame(GameQueue queue, SkyArena arena, int id, UUID[] originalPlayers) {
         Validate.notNull(arena, "Arena cannot be null");
         Validate.noNullElements(originalPlayers, "No players can be null");
+        this.queue = queue;
         this.arena = arena;
         this.id = id;
         this.alivePlayers = new ArrayList<>(Arrays.asList(originalPlayers));
@@ -60,13 +64,17 @@ public class ArenaGame implements SkyGame {
             for (int i = 0; i < numTeams; i++) {
                 teams[i] = new Team(i, String.valueOf(i + 1));
             }
+            // Assign teams back and forth (0, 1, 2, 2, 1, 0, ...) so that when players are sorted by score, each
+            // team gets a similar total.
             int nextTeam = 0;
+            int direction = 1;
             for (UUID uuid : alivePlayers) {
                 playerTeams.put(uuid, nextTeam);
                 this.teams[nextTeam].addPlayer(uuid);
-                nextTeam += 1;
-                if (nextTeam >= numTeams) {
-                    nextTeam = 0;
+                nextTeam += direction;
+                if (nextTeam >= numTeams || nextTeam < 0) {
+                    direction = -direction;
+                    nextTeam += direction;
                 }
             }
         } else {
@@ -181,6 +189,35 @@ public class ArenaGame implements SkyGame {
         return alive;
     }
 
+    /**
+     * @return the game's timeline, or null if the game hasn't started yet.
+     */
+    public GameTimeline getTimeline() {
+        return timeline;
+    }
+
+    public void setTimeline(final GameTimeline timeline) {
+        this.timeline = timeline;
+    }
+
+    /**
+     * @return the queue this game was started from.
+     */
+    public GameQueue getQueue() {
+        return queue;
+    }
+
+    /**
+     * @return the seed this game's chest contents were rolled with.
+     */
+    public long getLootSeed() {
+        return lootSeed;
+    }
+
+    public void setLootSeed(final long lootSeed) {
+        this.lootSeed = lootSeed;
+    }
+
     public void setLocationId(final int locationId) {
         this.locationId = locationId;
     }
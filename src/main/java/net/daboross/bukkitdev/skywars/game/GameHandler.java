@@ -49,7 +49,42 @@ public class GameHandler implements SkyGameHandler {
 
     @Override
     public void startNewGame() {
-        plugin.getDistributor().distribute(new GameStartInfo(plugin.getGameQueue().getNextGame()));
+        startNewGame(plugin.getGameQueue().getDefaultQueue());
+    }
+
+    /**
+     * Starts a new game with the players in the given queue. If the queue's arena has been evicted and has to be loaded
+     * again first, the game is started once it's loaded instead.
+     */
+    public void startNewGame(GameQueue queue) {
+        if (!plugin.getWorldHandler().readyToStart(queue)) {
+            return;
+        }
+        plugin.getDistributor().distribute(new GameStartInfo(queue.getNextGame(), queue));
+    }
+
+    public void onGameStart(GameStartInfo info) {
+        GameTimeline timeline = new GameTimeline(plugin, info.getGame());
+        info.getGame().setTimeline(timeline);
+        timeline.start();
+    }
+
+    public void onGameEnd(GameEndInfo info) {
+        GameTimeline timeline = info.getGame().getTimeline();
+        if (timeline != null) {
+            timeline.cancel();
+        }
+    }
+
+    /**
+     * Ends a game which hasn't been won, such as one which reached its maximum length. Does nothing if the game has
+     * already ended or is about to.
+     */
+    public void endUnfinishedGame(int id) {
+        if (!gamesCurrentlyEnding.contains(id) && plugin.getIDHandler().gameRunning(id)) {
+            gamesCurrentlyEnding.add(id);
+            endGame(id, true);
+        }
     }
 
     @Override
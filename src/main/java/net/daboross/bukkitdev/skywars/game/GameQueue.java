@@ -19,7 +19,10 @@ package net.daboross.bukkitdev.skywars.game;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.logging.Level;
 import net.daboross.bukkitdev.skywars.SkyWarsPlugin;
@@ -28,8 +31,10 @@ import net.daboross.bukkitdev.skywars.api.SkyStatic;
 import net.daboross.bukkitdev.skywars.api.arenaconfig.SkyArena;
 import net.daboross.bukkitdev.skywars.api.config.SkyConfiguration;
 import net.daboross.bukkitdev.skywars.api.game.SkyGameQueue;
+import net.daboross.bukkitdev.skywars.api.players.SkyPlayer;
 import net.daboross.bukkitdev.skywars.api.translations.SkyTrans;
 import net.daboross.bukkitdev.skywars.api.translations.TransKey;
+import net.daboross.bukkitdev.skywars.config.SkyWarsConfiguration;
 import net.daboross.bukkitdev.skywars.events.events.PlayerJoinQueueInfo;
 import net.daboross.bukkitdev.skywars.events.events.PlayerJoinSecondaryQueueInfo;
 import net.daboross.bukkitdev.skywars.events.events.PlayerLeaveQueueInfo;
@@ -38,16 +43,39 @@ import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.scheduler.BukkitRunnable;
 
+/**
+ * A queue of players for the next game, either rotating between all enabled arenas or always playing one arena.
+ * Each queue has its own {@link GameQueueTimer}.
+ * <p>
+ * With matchmaking enabled, players wait in a {@link MatchmakingPool} rather than joining the next game directly, and
+ * {@link #matchmake()} moves groups of players with close scores from the pool into the next game.
+ */
 public class GameQueue implements SkyGameQueue {
 
     private final SkyWarsPlugin plugin;
+    private final SkyArena fixedArena;
+    private final GameQueueTimer timer;
+    private final MatchmakingPool pool;
+    private Map<UUID, MatchmakingPool.Entry> matched;
     private List<UUID> queueNext;
     private List<UUID> currentlyQueued;
     private SkyArena nextArena;
     private int nextArenaOrderedNumber = 0;
 
-    public GameQueue(SkyWarsPlugin plugin) {
+    /**
+     * @param fixedArena the arena every game from this queue is played on, or null to choose using the configured
+     *                   arena order.
+     */
+    public GameQueue(SkyWarsPlugin plugin, SkyArena fixedArena) {
         this.plugin = plugin;
+        this.fixedArena = fixedArena;
+        this.timer = new GameQueueTimer(plugin, this);
+        SkyWarsConfiguration config = plugin.getConfiguration();
+        if (config.isMatchmakingEnabled()) {
+            this.pool = new MatchmakingPool(config.getMatchmakingInitialScoreRange(), config.getMatchmakingRangeIncrease());
+        } else {
+            this.pool = null;
+        }
         prepareNextArena();
     }
 
@@ -58,20 +86,28 @@ public class GameQueue implements SkyGameQueue {
 
     @Override
     public boolean inSecondaryQueue(final UUID uuid) {
-        return queueNext.contains(uuid);
+        return queueNext.contains(uuid) || (pool != null && pool.contains(uuid));
     }
 
     @Override
     public boolean queuePlayer(Player player) {
         UUID uuid = player.getUniqueId();
         if (!currentlyQueued.contains(uuid)) {
-            if (isQueueFull()) {
+            if (pool != null) {
+                if (!pool.contains(uuid)) {
+                    SkyPlayer skyPlayer = plugin.getPlayers().getPlayer(uuid);
+                    int score = skyPlayer == null ? 0 : skyPlayer.getScore();
+                    pool.add(new MatchmakingPool.Entry(uuid, score, System.currentTimeMillis()));
+                    plugin.getDistributor().distribute(new PlayerJoinSecondaryQueueInfo(player));
+                }
+                return false;
+            } else if (isQueueFull()) {
                 queueNext.add(uuid);
                 plugin.getDistributor().distribute(new PlayerJoinSecondaryQueueInfo(player));
                 return false;
             } else {
                 currentlyQueued.add(uuid);
-                plugin.getDistributor().distribute(new PlayerJoinQueueInfo(player, isQueueFull(), areMinPlayersPresent()));
+                plugin.getDistributor().distribute(new PlayerJoinQueueInfo(player, this, isQueueFull(), areMinPlayersPresent()));
                 return true;
             }
         }
@@ -80,10 +116,11 @@ public class GameQueue implements SkyGameQueue {
 
     @Override
     public void removePlayer(Player player) {
-        if (queueNext.remove(player.getUniqueId())) {
+        if (queueNext.remove(player.getUniqueId()) || (pool != null && pool.remove(player.getUniqueId()))) {
             plugin.getDistributor().distribute(new PlayerLeaveSecondaryQueueInfo(player));
         } else if (currentlyQueued.remove(player.getUniqueId())) {
-            plugin.getDistributor().distribute(new PlayerLeaveQueueInfo(player, areMinPlayersPresent()));
+            matched.remove(player.getUniqueId());
+            plugin.getDistributor().distribute(new PlayerLeaveQueueInfo(player, this, areMinPlayersPresent()));
             if (!queueNext.isEmpty()) {
                 Player p = Bukkit.getPlayer(queueNext.remove(0));
                 plugin.getDistributor().distribute(new PlayerLeaveSecondaryQueueInfo(player));
@@ -92,39 +129,88 @@ public class GameQueue implements SkyGameQueue {
         }
     }
 
+    /**
+     * Moves waiting players with close enough scores into the next game: a new group if nobody has been matched to it
+     * yet, otherwise players near the scores of those already matched. Does nothing unless matchmaking is enabled.
+     * <p>
+     * Called every tick, and only searches part of the pool each time.
+     */
+    public void matchmake() {
+        if (pool == null || pool.isEmpty() || isQueueFull()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        List<MatchmakingPool.Entry> found;
+        if (matched.isEmpty()) {
+            found = pool.takeMatch(nextArena.getNumPlayers(), nextArena.getMinPlayers(), now);
+        } else {
+            found = pool.takeNear(matched.values(), nextArena.getNumPlayers() - currentlyQueued.size(), now);
+        }
+        if (found == null) {
+            return;
+        }
+        for (MatchmakingPool.Entry entry : found) {
+            Player p = Bukkit.getPlayer(entry.getUuid());
+            if (p != null) {
+                plugin.getDistributor().distribute(new PlayerLeaveSecondaryQueueInfo(p));
+                matched.put(entry.getUuid(), entry);
+                currentlyQueued.add(entry.getUuid());
+                plugin.getDistributor().distribute(new PlayerJoinQueueInfo(p, this, isQueueFull(), areMinPlayersPresent()));
+            }
+        }
+    }
+
     public ArenaGame getNextGame() {
         if (currentlyQueued.size() < nextArena.getMinPlayers()) {
             throw new IllegalStateException("Queue size smaller than minimum player count (" + currentlyQueued.size() + " < " + nextArena.getMinPlayers() + ")");
         }
-        Collections.shuffle(currentlyQueued);
+        if (pool != null) {
+            // Highest score first, so that ArenaGame's team assignment balances teams.
+            final Map<UUID, MatchmakingPool.Entry> scores = matched;
+            Collections.shuffle(currentlyQueued);
+            Collections.sort(currentlyQueued, new Comparator<UUID>() {
+                @Override
+                public int compare(UUID o1, UUID o2) {
+                    return Integer.compare(scores.get(o2).getScore(), scores.get(o1).getScore());
+                }
+            });
+        } else {
+            Collections.shuffle(currentlyQueued);
+        }
         UUID[] queueCopy = currentlyQueued.toArray(new UUID[currentlyQueued.size()]);
         int id = plugin.getIDHandler().getNextId();
-        ArenaGame game = new ArenaGame(nextArena, id, queueCopy);
+        ArenaGame game = new ArenaGame(this, nextArena, id, queueCopy);
         prepareNextArena();
         return game;
     }
 
     private void prepareNextArena() {
-        SkyConfiguration config = plugin.getConfiguration();
-        List<? extends SkyArena> enabledArenas = config.getEnabledArenas();
-        switch (config.getArenaOrder()) {
-            case ORDERED:
-                if (nextArenaOrderedNumber >= enabledArenas.size()) {
-                    nextArenaOrderedNumber = 0;
-                }
-                nextArena = enabledArenas.get(nextArenaOrderedNumber++);
-                SkyStatic.debug("ORDERED: Choosing arena %s", nextArena.getArenaName());
-                break;
-            case RANDOM:
-                nextArena = Randomation.getRandom(enabledArenas);
-                SkyStatic.debug("RANDOM: Choosing arena %s", nextArena.getArenaName());
-                break;
-            default:
-                plugin.getLogger().log(Level.WARNING, "[GameQueue] Invalid ArenaOrder found in config!");
-                nextArena = null;
-                throw new IllegalStateException("Invalid ArenaOrder found in config");
+        if (fixedArena != null) {
+            nextArena = fixedArena;
+        } else {
+            SkyConfiguration config = plugin.getConfiguration();
+            List<? extends SkyArena> enabledArenas = config.getEnabledArenas();
+            switch (config.getArenaOrder()) {
+                case ORDERED:
+                    if (nextArenaOrderedNumber >= enabledArenas.size()) {
+                        nextArenaOrderedNumber = 0;
+                    }
+                    nextArena = enabledArenas.get(nextArenaOrderedNumber++);
+                    SkyStatic.debug("ORDERED: Choosing arena %s", nextArena.getArenaName());
+                    break;
+                case RANDOM:
+                    nextArena = Randomation.getRandom(enabledArenas);
+                    SkyStatic.debug("RANDOM: Choosing arena %s", nextArena.getArenaName());
+                    break;
+                default:
+                    plugin.getLogger().log(Level.WARNING, "[GameQueue] Invalid ArenaOrder found in config!");
+                    nextArena = null;
+                    throw new IllegalStateException("Invalid ArenaOrder found in config");
+            }
         }
+        plugin.getWorldHandler().prepareArena(nextArena);
         currentlyQueued = new ArrayList<>(nextArena.getNumPlayers());
+        matched = new LinkedHashMap<>(nextArena.getNumPlayers());
         final List<UUID> joinNext = queueNext;
         this.queueNext = new ArrayList<>();
         if (joinNext != null) {
@@ -143,13 +229,25 @@ public class GameQueue implements SkyGameQueue {
         }
     }
 
+    /**
+     * @return the arena every game from this queue is played on, or null if this queue rotates between arenas.
+     */
+    public SkyArena getFixedArena() {
+        return fixedArena;
+    }
+
+    public GameQueueTimer getTimer() {
+        return timer;
+    }
+
     @Override
     public UUID[] getCopy() {
         return currentlyQueued.toArray(new UUID[currentlyQueued.size()]);
     }
 
     public UUID[] getSecondaryCopy() {
-        return queueNext.toArray(new UUID[queueNext.size()]);
+        Collection<UUID> secondary = getInSecondaryQueue();
+        return secondary.toArray(new UUID[secondary.size()]);
     }
 
     @Override
@@ -159,9 +257,20 @@ public class GameQueue implements SkyGameQueue {
 
     @Override
     public Collection<UUID> getInSecondaryQueue() {
+        if (pool != null) {
+            return Collections.unmodifiableCollection(pool.getPlayers());
+        }
         return Collections.unmodifiableCollection(queueNext);
     }
 
+    /**
+     * @return true if players wait to be matched by score, rather than joining the next game in the order they
+     * queued.
+     */
+    public boolean isMatchmaking() {
+        return pool != null;
+    }
+
     @Override
     public int getNumPlayersInQueue() {
         return currentlyQueued.size();
@@ -0,0 +1,203 @@
+/*
+ * Copyright (C) 2016 Dabo Ross <http://www.daboross.net/>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.daboross.bukkitdev.skywars.game;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import net.daboross.bukkitdev.skywars.SkyWarsPlugin;
+import net.daboross.bukkitdev.skywars.api.arenaconfig.SkyArena;
+import net.daboross.bukkitdev.skywars.api.game.SkyGameQueue;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitRunnable;
+
+/**
+ * Keeps the default queue, which rotates between all enabled arenas, plus one queue for each arena players have asked
+ * to play specifically. Every queue has its own timer and starts its own games, so games on different arenas can fill
+ * and start at the same time.
+ * <p>
+ * As a {@link SkyGameQueue}, lookups for a single player and the lists of queued players cover every queue. Methods
+ * about one upcoming game, and queuePlayer(Player), refer to the default queue.
+ */
+public class GameQueueManager implements SkyGameQueue {
+
+    private final SkyWarsPlugin plugin;
+    private final GameQueue defaultQueue;
+    private final Map<String, GameQueue> arenaQueues = new LinkedHashMap<>();
+
+    public GameQueueManager(SkyWarsPlugin plugin) {
+        this.plugin = plugin;
+        this.defaultQueue = new GameQueue(plugin, null);
+        if (plugin.getConfiguration().isMatchmakingEnabled()) {
+            new BukkitRunnable() {
+                @Override
+                public void run() {
+                    for (GameQueue queue : getQueues()) {
+                        queue.matchmake();
+                    }
+                }
+            }.runTaskTimer(plugin, 1, 1);
+        }
+    }
+
+    public GameQueue getDefaultQueue() {
+        return defaultQueue;
+    }
+
+    /**
+     * Gets the queue for games on a single arena, creating it if needed.
+     *
+     * @param arenaName name of the arena, ignoring case.
+     * @return the queue, or null if no enabled arena has the given name.
+     */
+    public GameQueue getArenaQueue(String arenaName) {
+        GameQueue queue = arenaQueues.get(arenaName.toLowerCase());
+        if (queue == null) {
+            for (SkyArena arena : plugin.getConfiguration().getEnabledArenas()) {
+                if (arena.getArenaName().equalsIgnoreCase(arenaName)) {
+                    queue = new GameQueue(plugin, arena);
+                    arenaQueues.put(arenaName.toLowerCase(), queue);
+                    // Prepared again now that the queue is listed, so it gets a ready copy of its own.
+                    plugin.getWorldHandler().prepareArena(arena);
+                    break;
+                }
+            }
+        }
+        return queue;
+    }
+
+    /**
+     * @return the default queue, followed by every arena queue created so far.
+     */
+    public List<GameQueue> getQueues() {
+        List<GameQueue> queues = new ArrayList<>(arenaQueues.size() + 1);
+        queues.add(defaultQueue);
+        queues.addAll(arenaQueues.values());
+        return queues;
+    }
+
+    /**
+     * @return the queue the player is in or waiting for, or null if they aren't queued.
+     */
+    public GameQueue getQueueOf(UUID uuid) {
+        for (GameQueue queue : getQueues()) {
+            if (queue.inQueue(uuid) || queue.inSecondaryQueue(uuid)) {
+                return queue;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return true if players are waiting in a queue whose next game is on the given arena.
+     */
+    public boolean isQueuedFor(SkyArena arena) {
+        for (GameQueue queue : getQueues()) {
+            if (queue.getNumPlayersInQueue() > 0 && queue.getPlannedArena() != null
+                    && queue.getPlannedArena().getArenaName().equals(arena.getArenaName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean inQueue(UUID uuid) {
+        for (GameQueue queue : getQueues()) {
+            if (queue.inQueue(uuid)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean inSecondaryQueue(UUID uuid) {
+        for (GameQueue queue : getQueues()) {
+            if (queue.inSecondaryQueue(uuid)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean queuePlayer(Player player) {
+        return defaultQueue.queuePlayer(player);
+    }
+
+    @Override
+    public void removePlayer(Player player) {
+        GameQueue queue = getQueueOf(player.getUniqueId());
+        if (queue != null) {
+            queue.removePlayer(player);
+        }
+    }
+
+    @Override
+    public UUID[] getCopy() {
+        Collection<UUID> inQueue = getInQueue();
+        return inQueue.toArray(new UUID[inQueue.size()]);
+    }
+
+    public UUID[] getSecondaryCopy() {
+        Collection<UUID> inSecondaryQueue = getInSecondaryQueue();
+        return inSecondaryQueue.toArray(new UUID[inSecondaryQueue.size()]);
+    }
+
+    @Override
+    public Collection<UUID> getInQueue() {
+        List<UUID> result = new ArrayList<>();
+        for (GameQueue queue : getQueues()) {
+            result.addAll(queue.getInQueue());
+        }
+        return Collections.unmodifiableCollection(result);
+    }
+
+    @Override
+    public Collection<UUID> getInSecondaryQueue() {
+        List<UUID> result = new ArrayList<>();
+        for (GameQueue queue : getQueues()) {
+            result.addAll(queue.getInSecondaryQueue());
+        }
+        return Collections.unmodifiableCollection(result);
+    }
+
+    @Override
+    public int getNumPlayersInQueue() {
+        return defaultQueue.getNumPlayersInQueue();
+    }
+
+    @Override
+    public SkyArena getPlannedArena() {
+        return defaultQueue.getPlannedArena();
+    }
+
+    @Override
+    public boolean isQueueFull() {
+        return defaultQueue.isQueueFull();
+    }
+
+    @Override
+    public boolean areMinPlayersPresent() {
+        return defaultQueue.areMinPlayersPresent();
+    }
+}
@@ -31,17 +31,19 @@ import org.bukkit.Bukkit;
 public class GameQueueTimer {
 
     private final SkyWarsPlugin plugin;
+    private final GameQueue queue;
     private final GenericTimer startTimer;
 
-    public GameQueueTimer(final SkyWarsPlugin plugin) {
+    public GameQueueTimer(final SkyWarsPlugin plugin, final GameQueue queue) {
         this.plugin = plugin;
+        this.queue = queue;
         List<Long> timesToMessage = plugin.getConfiguration().getStartTimerMessageTimes();
         List<GenericTimer.TaskDefinition> tasks = new ArrayList<>(timesToMessage.size() + 2);
         tasks.add(new GenericTimer.TaskDefinition(0, new Runnable() {
             @Override
             public void run() {
-                if (plugin.getGameQueue().areMinPlayersPresent()) {
-                    plugin.getGameHandler().startNewGame();
+                if (queue.areMinPlayersPresent()) {
+                    plugin.getGameHandler().startNewGame(queue);
                 }
             }
         }));
@@ -54,7 +56,7 @@ public class GameQueueTimer {
         for (Long timeTillStart : timesToMessage) {
             tasks.add(new GenericTimer.TaskDefinition(timeTillStart, new MessageRunnable(timeTillStart)));
         }
-        this.startTimer = new GenericTimer(plugin, tasks, false);
+        this.startTimer = new GenericTimer(plugin, plugin.getTimingWheel(), tasks, false);
     }
 
     public void onJoinQueue(PlayerJoinQueueInfo info) {
@@ -87,8 +89,8 @@ public class GameQueueTimer {
     }
 
     private void startArenaCopy() {
-        SkyStatic.debug("[Timer] Starting arena copy for %s.", plugin.getGameQueue().getPlannedArena().getArenaName());
-        plugin.getWorldHandler().startCopyingArena(plugin.getGameQueue().getPlannedArena(),
+        SkyStatic.debug("[Timer] Starting arena copy for %s.", queue.getPlannedArena().getArenaName());
+        plugin.getWorldHandler().startCopyingArena(queue, queue.getPlannedArena(),
                 plugin.getConfiguration().getTimeBeforeGameStartToCopyArena());
     }
 
@@ -109,7 +111,7 @@ public class GameQueueTimer {
 
         @Override
         public void run() {
-            if (!plugin.getGameQueue().areMinPlayersPresent()) {
+            if (!queue.areMinPlayersPresent()) {
                 SkyStatic.debug("[Timer] Canceling timer as min players are not present.");
                 startTimer.cancelAll();
                 return;
@@ -122,10 +124,10 @@ public class GameQueueTimer {
             }
             String message = SkyTrans.get(transKey, displayTime);
             if (plugin.getConfiguration().shouldLimitStartTimerMessagesToArenaPlayers()) {
-                for (UUID uuid : plugin.getGameQueue().getInQueue()) {
+                for (UUID uuid : queue.getInQueue()) {
                     Bukkit.getPlayer(uuid).sendMessage(message);
                 }
-                for (UUID uuid : plugin.getGameQueue().getInSecondaryQueue()) {
+                for (UUID uuid : queue.getInSecondaryQueue()) {
                     Bukkit.getPlayer(uuid).sendMessage(message);
                 }
                 Bukkit.getConsoleSender().sendMessage(message);
@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) 2016 Dabo Ross <http://www.daboross.net/>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.daboross.bukkitdev.skywars.game;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Future;
+import net.daboross.bukkitdev.skywars.SkyWarsPlugin;
+import net.daboross.bukkitdev.skywars.api.SkyStatic;
+import net.daboross.bukkitdev.skywars.api.arenaconfig.SkyArenaChest;
+import net.daboross.bukkitdev.skywars.api.location.SkyBlockLocation;
+import net.daboross.bukkitdev.skywars.api.location.SkyBlockLocationRange;
+import net.daboross.bukkitdev.skywars.api.location.SkyPlayerLocation;
+import net.daboross.bukkitdev.skywars.config.ExtraTrans;
+import net.daboross.bukkitdev.skywars.config.ExtraTransKey;
+import net.daboross.bukkitdev.skywars.config.SkyWarsConfiguration;
+import net.daboross.bukkitdev.skywars.world.ArenaChestIndex;
+import net.daboross.bukkitdev.skywars.world.ArenaLootTable;
+import net.daboross.bukkitdev.skywars.world.RandomChestProvider;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.BlockState;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+import org.bukkit.inventory.ItemStack;
+
+/**
+ * The configured phases of one running game: chest refills, the shrinking border, the deathmatch and the end of the
+ * game once it reaches its maximum length. All phases are scheduled on the plugin's {@link TimingWheel} when the game
+ * starts, and canceled when it ends.
+ * <p>
+ * Arenas share their world, so the border isn't Minecraft's world border: players outside of it take damage once a
+ * second instead.
+ */
+public class GameTimeline {
+
+    private static final long TICKS_PER_SECOND = 20;
+    private static final long END_WARNING_SECONDS = 60;
+    private static final double BORDER_DAMAGE = 2;
+    private final SkyWarsPlugin plugin;
+    private final ArenaGame game;
+    private final List<TimingWheel.Timeout> phases = new ArrayList<>();
+    private TimingWheel.Timeout borderStep;
+    private long borderSecondsShrunk;
+
+    public GameTimeline(final SkyWarsPlugin plugin, final ArenaGame game) {
+        this.plugin = plugin;
+        this.game = game;
+    }
+
+    public void start() {
+        SkyWarsConfiguration config = plugin.getConfiguration();
+        List<Long> refillTimes = config.getTimelineChestRefillTimes();
+        for (int i = 0; i < refillTimes.size(); i++) {
+            // Each refill's loot is rolled in the background now, from a seed following the game's own.
+            final long lootSeed = game.getLootSeed() + i + 1;
+            final Future<ArenaLootTable> loot = plugin.getWorldHandler().getLootPregenerator().pregenerate(game.getArena(), lootSeed);
+            at(refillTimes.get(i), new Runnable() {
+                @Override
+                public void run() {
+                    refillChests(new RandomChestProvider(plugin.getChestRandomizer(),
+                            new ArenaChestIndex(game.getArena().getChests()), loot, lootSeed));
+                }
+            });
+        }
+        at(config.getTimelineBorderShrinkStart(), new Runnable() {
+            @Override
+            public void run() {
+                sendMessage(ExtraTrans.get(ExtraTransKey.GAME_TIMELINE_BORDER_CLOSING));
+                shrinkBorder();
+            }
+        });
+        at(config.getTimelineDeathmatchStart(), new Runnable() {
+            @Override
+            public void run() {
+                startDeathmatch();
+            }
+        });
+        final long maxLength = config.getTimelineMaxGameLength();
+        if (maxLength > END_WARNING_SECONDS) {
+            at(maxLength - END_WARNING_SECONDS, new Runnable() {
+                @Override
+                public void run() {
+                    sendMessage(ExtraTrans.get(ExtraTransKey.GAME_TIMELINE_ENDING_SOON, END_WARNING_SECONDS));
+                }
+            });
+        }
+        at(maxLength, new Runnable() {
+            @Override
+            public void run() {
+                SkyStatic.debug("Ending game #%s, which reached its maximum length.", game.getId());
+                plugin.getGameHandler().endUnfinishedGame(game.getId());
+            }
+        });
+    }
+
+    public void cancel() {
+        for (TimingWheel.Timeout phase : phases) {
+            phase.cancel();
+        }
+        phases.clear();
+        if (borderStep != null) {
+            borderStep.cancel();
+            borderStep = null;
+        }
+    }
+
+    /**
+     * Schedules a phase, unless secondsAfterStart is 0.
+     */
+    private void at(long secondsAfterStart, Runnable phase) {
+        if (secondsAfterStart > 0) {
+            phases.add(plugin.getTimingWheel().schedule(secondsAfterStart * TICKS_PER_SECOND, phase));
+        }
+    }
+
+    private void refillChests(RandomChestProvider chestProvider) {
+        SkyBlockLocation min = game.getMin();
+        World world = Bukkit.getWorld(min.world);
+        if (world == null) {
+            return;
+        }
+        int refilled = 0;
+        for (SkyArenaChest chest : game.getArena().getChests()) {
+            if (!chest.isRandomizationEnabled()) {
+                continue;
+            }
+            SkyBlockLocation location = chest.getLocation();
+            BlockState state = world.getBlockAt(min.x + location.x, min.y + location.y, min.z + location.z).getState();
+            if (!(state instanceof InventoryHolder)) {
+                continue; // broken during the game
+            }
+            Inventory inventory = ((InventoryHolder) state).getInventory();
+            ItemStack[] contents = chestProvider.getInventory(inventory.getSize(), location.x, location.y, location.z);
+            if (contents != null) {
+                inventory.setContents(contents);
+                refilled++;
+            }
+        }
+        SkyStatic.debug("Refilled %s chests in game #%s.", refilled, game.getId());
+        sendMessage(ExtraTrans.get(ExtraTransKey.GAME_TIMELINE_CHESTS_REFILLED));
+    }
+
+    /**
+     * Damages players outside the border, then shrinks it further and waits a second.
+     */
+    private void shrinkBorder() {
+        SkyWarsConfiguration config = plugin.getConfiguration();
+        SkyBlockLocationRange boundaries = game.getBuildingBoundaries();
+        double centerX = (boundaries.min.x + boundaries.max.x + 1) / 2.0;
+        double centerZ = (boundaries.min.z + boundaries.max.z + 1) / 2.0;
+        double startRadius = Math.max(boundaries.max.x + 1 - centerX, boundaries.max.z + 1 - centerZ);
+        double finalRadius = Math.min(startRadius, config.getTimelineBorderFinalRadius());
+        long duration = config.getTimelineBorderShrinkDuration();
+        double progress = Math.min(1, (double) borderSecondsShrunk / duration);
+        double radius = startRadius - (startRadius - finalRadius) * progress;
+        for (UUID uuid : game.getAlivePlayers()) {
+            Player player = Bukkit.getPlayer(uuid);
+            if (player == null) {
+                continue;
+            }
+            Location location = player.getLocation();
+            if (Math.abs(location.getX() - centerX) > radius || Math.abs(location.getZ() - centerZ) > radius) {
+                player.sendMessage(ExtraTrans.get(ExtraTransKey.GAME_TIMELINE_OUTSIDE_BORDER));
+                player.damage(BORDER_DAMAGE);
+            }
+        }
+        borderSecondsShrunk++;
+        borderStep = plugin.getTimingWheel().schedule(TICKS_PER_SECOND, new Runnable() {
+            @Override
+            public void run() {
+                shrinkBorder();
+            }
+        });
+    }
+
+    /**
+     * Brings all remaining players back to the spawns, keeping teams together.
+     */
+    private void startDeathmatch() {
+        SkyBlockLocation min = game.getMin();
+        List<SkyPlayerLocation> spawns = game.getArena().getSpawns();
+        List<UUID> alive = new ArrayList<>(game.getAlivePlayers());
+        for (int i = 0; i < alive.size(); i++) {
+            Player player = Bukkit.getPlayer(alive.get(i));
+            if (player == null) {
+                continue;
+            }
+            int spawn = game.areTeamsEnabled() ? game.getTeamNumber(alive.get(i)) : i;
+            player.teleport(min.add(spawns.get(spawn % spawns.size())).toLocation());
+        }
+        sendMessage(ExtraTrans.get(ExtraTransKey.GAME_TIMELINE_DEATHMATCH));
+    }
+
+    private void sendMessage(String message) {
+        for (UUID uuid : game.getAlivePlayers()) {
+            Player player = Bukkit.getPlayer(uuid);
+            if (player != null) {
+                player.sendMessage(message);
+            }
+        }
+    }
+}
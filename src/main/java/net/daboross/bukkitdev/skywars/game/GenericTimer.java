@@ -22,18 +22,24 @@ import java.util.List;
 import net.daboross.bukkitdev.skywars.api.SkyStatic;
 import org.apache.commons.lang.Validate;
 import org.bukkit.plugin.Plugin;
-import org.bukkit.scheduler.BukkitScheduler;
 
+/**
+ * Runs a chain of tasks at set times before the timer's end. Waiting between tasks is done with a shared
+ * {@link TimingWheel}.
+ */
 public class GenericTimer {
 
     private final Plugin plugin;
+    private final TimingWheel wheel;
     private final boolean runTaskAsync;
     private final TaskChainPart firstTask;
     private final Object taskLock = new Object();
-    private int bukkitTaskId = -1;
+    private GenericTimerRunnable currentRunnable;
+    private TimingWheel.Timeout timeout;
 
-    public GenericTimer(Plugin plugin, List<TaskDefinition> tasksBeforeFinish, boolean runTaskAsync) {
+    public GenericTimer(Plugin plugin, TimingWheel wheel, List<TaskDefinition> tasksBeforeFinish, boolean runTaskAsync) {
         this.plugin = plugin;
+        this.wheel = wheel;
         this.runTaskAsync = runTaskAsync;
         List<TaskDefinition> tasks = new ArrayList<>(tasksBeforeFinish);
         Collections.sort(tasks);
@@ -42,7 +48,7 @@ public class GenericTimer {
 
     public boolean isRunning() {
         synchronized (taskLock) {
-            return bukkitTaskId != -1;
+            return currentRunnable != null;
         }
     }
 
@@ -54,23 +60,22 @@ public class GenericTimer {
      */
     public void startIn(long seconds) {
         synchronized (taskLock) {
-            if (bukkitTaskId != -1) {
-                SkyStatic.debug("[Timer] Canceling task!");
-                plugin.getServer().getScheduler().cancelTask(bukkitTaskId);
-                // bukkitTaskId is set to another value in runnable.start(long).
-            }
-            GenericTimerRunnable runnable = new GenericTimerRunnable(firstTask);
-            runnable.start(seconds);
+            cancelAll();
+            GenericTimerRunnable runnable = new GenericTimerRunnable(firstTask.getNextTaskForRemainingTime(seconds));
+            currentRunnable = runnable;
+            // Tasks due right away still wait for the next tick, as they did when each was a separate Bukkit task.
+            runnable.waitFor(seconds);
         }
     }
 
     public void cancelAll() {
         synchronized (taskLock) {
-            if (bukkitTaskId != -1) {
+            if (timeout != null) {
                 SkyStatic.debug("[Timer] Canceling task!");
-                plugin.getServer().getScheduler().cancelTask(bukkitTaskId);
-                bukkitTaskId = -1;
+                timeout.cancel();
+                timeout = null;
             }
+            currentRunnable = null;
         }
     }
 
@@ -82,28 +87,47 @@ public class GenericTimer {
             nextTask = firstTask;
         }
 
-        public void start(long secondsTillEnd) {
-            nextTask = nextTask.getNextTaskForRemainingTime(secondsTillEnd);
-            synchronized (taskLock) {
-                while (nextTask != null && nextTask.secondsBeforeEndToExecuteThis == secondsTillEnd) {
-                    nextTask.executeNow();
-                    nextTask = nextTask.nextPart;
-                }
-                if (nextTask == null) {
-                    bukkitTaskId = -1;
-                } else {
-                    long secondsTillNextTask = secondsTillEnd - nextTask.secondsBeforeEndToExecuteThis;
-                    SkyStatic.debug("[Timer] Waiting %s seconds!", secondsTillNextTask);
-                    long ticksTillNextTask = secondsTillNextTask * 20;
-                    bukkitTaskId = plugin.getServer().getScheduler()
-                            .runTaskLaterAsynchronously(plugin, this, ticksTillNextTask).getTaskId();
-                }
+        /**
+         * Waits until the next task is due. Must be called holding taskLock.
+         *
+         * @param secondsTillEnd Time till timer end.
+         */
+        private void waitFor(long secondsTillEnd) {
+            if (nextTask == null) {
+                currentRunnable = null;
+                timeout = null;
+            } else {
+                long secondsTillNextTask = secondsTillEnd - nextTask.secondsBeforeEndToExecuteThis;
+                SkyStatic.debug("[Timer] Waiting %s seconds!", secondsTillNextTask);
+                timeout = wheel.schedule(secondsTillNextTask * 20, this);
             }
         }
 
         @Override
         public void run() {
-            start(nextTask.secondsBeforeEndToExecuteThis);
+            long secondsTillEnd;
+            synchronized (taskLock) {
+                if (currentRunnable != this) {
+                    return;
+                }
+                secondsTillEnd = nextTask.secondsBeforeEndToExecuteThis;
+            }
+            while (true) {
+                TaskChainPart part;
+                synchronized (taskLock) {
+                    // A task may have canceled or restarted this timer.
+                    if (currentRunnable != this) {
+                        return;
+                    }
+                    if (nextTask == null || nextTask.secondsBeforeEndToExecuteThis != secondsTillEnd) {
+                        waitFor(secondsTillEnd);
+                        return;
+                    }
+                    part = nextTask;
+                    nextTask = nextTask.nextPart;
+                }
+                part.executeNow();
+            }
         }
     }
 
@@ -145,11 +169,11 @@ public class GenericTimer {
         public void executeNow() {
             if (runnable != null) {
                 SkyStatic.debug("[Timer] Executing task!");
-                BukkitScheduler sc = plugin.getServer().getScheduler();
                 if (runTaskAsync) {
-                    sc.runTaskAsynchronously(plugin, runnable);
+                    plugin.getServer().getScheduler().runTaskAsynchronously(plugin, runnable);
                 } else {
-                    sc.runTask(plugin, runnable);
+                    // Already on the main thread, along with every other task due this tick.
+                    runnable.run();
                 }
             } else {
                 SkyStatic.debug("[Timer] Null runnable!");
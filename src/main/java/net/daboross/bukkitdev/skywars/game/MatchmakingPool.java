@@ -0,0 +1,221 @@
+/*
+ * Copyright (C) 2016 Dabo Ross <http://www.daboross.net/>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.daboross.bukkitdev.skywars.game;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Players waiting to be matched into a game, indexed by score.
+ * <p>
+ * A group is formed from players next to each other in the index whose scores are within the allowed range. The range
+ * starts at the configured initial range and widens the longer the longest-waiting player in the group has waited, so
+ * everyone is matched eventually. Each search only looks at a bounded number of candidate groups, continuing from where
+ * the last one stopped, so searching every tick stays cheap with hundreds of players waiting.
+ */
+public class MatchmakingPool {
+
+    /**
+     * Maximum number of candidate groups checked by one call to {@link #takeMatch(int, int, long)}.
+     */
+    private static final int GROUPS_PER_SEARCH = 64;
+    private final int initialRange;
+    private final int rangeIncrease;
+    // sorted by score, then join time
+    private final List<Entry> index = new ArrayList<>();
+    private final Map<UUID, Entry> entries = new HashMap<>();
+    private int nextSearchStart;
+
+    /**
+     * @param initialRange  largest score difference allowed within a group of players who have just joined.
+     * @param rangeIncrease amount the allowed difference grows by for each second a group's oldest player has waited.
+     */
+    public MatchmakingPool(int initialRange, int rangeIncrease) {
+        this.initialRange = initialRange;
+        this.rangeIncrease = rangeIncrease;
+    }
+
+    public void add(Entry entry) {
+        if (entries.containsKey(entry.uuid)) {
+            return;
+        }
+        entries.put(entry.uuid, entry);
+        index.add(lowerBound(entry.score, entry.joined), entry);
+    }
+
+    public boolean remove(UUID uuid) {
+        Entry entry = entries.remove(uuid);
+        if (entry == null) {
+            return false;
+        }
+        for (int i = lowerBound(entry.score, entry.joined); i < index.size(); i++) {
+            if (index.get(i) == entry) {
+                index.remove(i);
+                break;
+            }
+        }
+        return true;
+    }
+
+    public boolean contains(UUID uuid) {
+        return entries.containsKey(uuid);
+    }
+
+    public boolean isEmpty() {
+        return index.isEmpty();
+    }
+
+    public Collection<UUID> getPlayers() {
+        return entries.keySet();
+    }
+
+    /**
+     * Searches for a new group of players with close scores and removes it from the pool.
+     *
+     * @param maxSize most players the group may have. If fewer players are waiting, all of them need to match.
+     * @param minSize fewest players the group may have.
+     * @param now     current time in milliseconds.
+     * @return the group, or null if none matched within the players checked by this search.
+     */
+    public List<Entry> takeMatch(int maxSize, int minSize, long now) {
+        int size = Math.min(maxSize, index.size());
+        if (size < minSize || size < 1) {
+            return null;
+        }
+        int groups = index.size() - size + 1;
+        for (int checked = 0; checked < groups && checked < GROUPS_PER_SEARCH; checked++) {
+            if (nextSearchStart >= groups) {
+                nextSearchStart = 0;
+            }
+            int start = nextSearchStart++;
+            Entry lowest = index.get(start);
+            Entry highest = index.get(start + size - 1);
+            long oldest = lowest.joined;
+            for (int i = start + 1; i < start + size; i++) {
+                oldest = Math.min(oldest, index.get(i).joined);
+            }
+            if (highest.score - lowest.score <= getAllowedRange(oldest, now)) {
+                return take(start, size);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes the players who can join an existing group, closest in score to the group first.
+     *
+     * @param group players already in the group.
+     * @param slots most players to take.
+     * @param now   current time in milliseconds.
+     * @return the players taken, which may be empty.
+     */
+    public List<Entry> takeNear(Collection<Entry> group, int slots, long now) {
+        if (group.isEmpty() || slots < 1 || index.isEmpty()) {
+            return new ArrayList<>(0);
+        }
+        int groupLow = Integer.MAX_VALUE;
+        int groupHigh = Integer.MIN_VALUE;
+        long oldest = Long.MAX_VALUE;
+        for (Entry entry : group) {
+            groupLow = Math.min(groupLow, entry.score);
+            groupHigh = Math.max(groupHigh, entry.score);
+            oldest = Math.min(oldest, entry.joined);
+        }
+        long allowed = getAllowedRange(oldest, now);
+        // Any player scoring from groupHigh - allowed to groupLow + allowed keeps the group within range.
+        long lowestAllowed = groupHigh - allowed;
+        long highestAllowed = groupLow + allowed;
+        if (lowestAllowed > highestAllowed) {
+            return new ArrayList<>(0);
+        }
+        int low = lowerBound((int) Math.max(Integer.MIN_VALUE, lowestAllowed), Long.MIN_VALUE);
+        int high = low;
+        while (high < index.size() && index.get(high).score <= highestAllowed) {
+            high++;
+        }
+        if (high - low <= slots) {
+            return take(low, high - low);
+        }
+        // More players fit than there are slots: keep the ones nearest the middle of the group.
+        long middle = ((long) groupLow + groupHigh) / 2;
+        while (high - low > slots) {
+            if (middle - index.get(low).score > index.get(high - 1).score - middle) {
+                low++;
+            } else {
+                high--;
+            }
+        }
+        return take(low, slots);
+    }
+
+    private long getAllowedRange(long joined, long now) {
+        return initialRange + rangeIncrease * (Math.max(0, now - joined) / 1000);
+    }
+
+    private List<Entry> take(int start, int size) {
+        List<Entry> subList = index.subList(start, start + size);
+        List<Entry> taken = new ArrayList<>(subList);
+        subList.clear();
+        for (Entry entry : taken) {
+            entries.remove(entry.uuid);
+        }
+        return taken;
+    }
+
+    /**
+     * @return index of the first entry ordered at or after the given score and join time.
+     */
+    private int lowerBound(int score, long joined) {
+        int low = 0;
+        int high = index.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            Entry entry = index.get(middle);
+            if (entry.score < score || (entry.score == score && entry.joined < joined)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    public static class Entry {
+
+        private final UUID uuid;
+        private final int score;
+        private final long joined;
+
+        public Entry(UUID uuid, int score, long joined) {
+            this.uuid = uuid;
+            this.score = score;
+            this.joined = joined;
+        }
+
+        public UUID getUuid() {
+            return uuid;
+        }
+
+        public int getScore() {
+            return score;
+        }
+    }
+}
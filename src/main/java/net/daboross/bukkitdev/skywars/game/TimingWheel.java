@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2016 Dabo Ross <http://www.daboross.net/>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.daboross.bukkitdev.skywars.game;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import org.apache.commons.lang.Validate;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Runs delayed tasks on the main thread from one shared repeating task, instead of one Bukkit task per delay.
+ * <p>
+ * Tasks are kept in a hierarchical timing wheel: level 0 has a bucket for each of the next 64 ticks, level 1 a bucket
+ * for each of the next 64 spans of 64 ticks, and so on. Scheduling and canceling are constant time. Every tick, all
+ * tasks in the current level 0 bucket run together, and whenever a higher level bucket comes due its tasks are moved
+ * down into the finer levels below. The repeating task is only running while tasks are scheduled.
+ */
+public class TimingWheel implements Runnable {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    // 64^4 ticks is over nine days. Longer delays wait in the last bucket of the top level until they fit.
+    private static final int LEVELS = 4;
+    private final Plugin plugin;
+    private final Timeout[][] buckets = new Timeout[LEVELS][SLOTS];
+    private long currentTick;
+    private int pending;
+    private int taskId = -1;
+
+    public TimingWheel(final Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Schedules a task to run on the main thread after the given delay.
+     *
+     * @param delayTicks ticks to wait. Delays shorter than one tick run on the next tick.
+     * @param task       the task to run.
+     * @return a handle which can cancel the task.
+     */
+    public Timeout schedule(long delayTicks, Runnable task) {
+        Validate.notNull(task, "Task cannot be null");
+        synchronized (buckets) {
+            Timeout timeout = new Timeout(currentTick + Math.max(1, delayTicks), task);
+            insert(timeout);
+            pending++;
+            if (taskId == -1) {
+                taskId = plugin.getServer().getScheduler().runTaskTimer(plugin, this, 1, 1).getTaskId();
+            }
+            return timeout;
+        }
+    }
+
+    public int getPendingCount() {
+        synchronized (buckets) {
+            return pending;
+        }
+    }
+
+    @Override
+    public void run() {
+        List<Timeout> due = new ArrayList<>();
+        synchronized (buckets) {
+            currentTick++;
+            // Move tasks down from every level whose current bucket just started, coarsest first, so tasks moved from
+            // one level can be moved again by the next.
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    int slot = (int) (currentTick >>> (SLOT_BITS * level)) & SLOT_MASK;
+                    Timeout timeout = buckets[level][slot];
+                    buckets[level][slot] = null;
+                    while (timeout != null) {
+                        Timeout next = timeout.next;
+                        insert(timeout);
+                        timeout = next;
+                    }
+                }
+            }
+            int slot = (int) currentTick & SLOT_MASK;
+            Timeout timeout = buckets[0][slot];
+            buckets[0][slot] = null;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                timeout.level = -1;
+                timeout.next = null;
+                timeout.previous = null;
+                due.add(timeout);
+                timeout = next;
+            }
+            pending -= due.size();
+            if (pending == 0) {
+                plugin.getServer().getScheduler().cancelTask(taskId);
+                taskId = -1;
+            }
+        }
+        for (Timeout timeout : due) {
+            try {
+                timeout.task.run();
+            } catch (RuntimeException ex) {
+                plugin.getLogger().log(Level.WARNING, "Error running scheduled task", ex);
+            }
+        }
+    }
+
+    private void insert(Timeout timeout) {
+        long deadline = Math.max(timeout.deadline, currentTick);
+        int level = 0;
+        // Use the finest level where the deadline falls within the current rotation of the level above.
+        while (level < LEVELS - 1 && (deadline >>> (SLOT_BITS * (level + 1))) != (currentTick >>> (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        int slot;
+        if (level == LEVELS - 1 && (deadline >>> (SLOT_BITS * level)) - (currentTick >>> (SLOT_BITS * level)) >= SLOTS) {
+            // Too far away: wait in the bucket which is moved down last.
+            slot = (int) ((currentTick >>> (SLOT_BITS * level)) - 1) & SLOT_MASK;
+        } else {
+            slot = (int) (deadline >>> (SLOT_BITS * level)) & SLOT_MASK;
+        }
+        timeout.level = level;
+        timeout.slot = slot;
+        timeout.previous = null;
+        timeout.next = buckets[level][slot];
+        if (timeout.next != null) {
+            timeout.next.previous = timeout;
+        }
+        buckets[level][slot] = timeout;
+    }
+
+    public class Timeout {
+
+        private final long deadline;
+        private final Runnable task;
+        private int level;
+        private int slot;
+        private Timeout previous;
+        private Timeout next;
+
+        private Timeout(final long deadline, final Runnable task) {
+            this.deadline = deadline;
+            this.task = task;
+        }
+
+        /**
+         * @return true if the task hasn't run or been canceled yet.
+         */
+        public boolean isPending() {
+            synchronized (buckets) {
+                return level != -1;
+            }
+        }
+
+        /**
+         * Cancels the task if it hasn't run yet.
+         *
+         * @return true if the task was canceled, false if it had already run or been canceled.
+         */
+        public boolean cancel() {
+            synchronized (buckets) {
+                if (level == -1) {
+                    return false;
+                }
+                if (previous == null) {
+                    buckets[level][slot] = next;
+                } else {
+                    previous.next = next;
+                }
+                if (next != null) {
+                    next.previous = previous;
+                }
+                level = -1;
+                previous = null;
+                next = null;
+                pending--;
+                if (pending == 0 && taskId != -1) {
+                    plugin.getServer().getScheduler().cancelTask(taskId);
+                    taskId = -1;
+                }
+                return true;
+            }
+        }
+    }
+}
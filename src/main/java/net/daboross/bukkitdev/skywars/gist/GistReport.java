@@ -36,11 +36,13 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import net.daboross.bukkitdev.skywars.SkyWarsPlugin;
 import net.daboross.bukkitdev.skywars.api.SkyStatic;
 import net.daboross.bukkitdev.skywars.api.SkyWars;
 import net.daboross.bukkitdev.skywars.api.arenaconfig.SkyArena;
 import net.daboross.bukkitdev.skywars.api.arenaconfig.SkyArenaConfig;
 import net.daboross.bukkitdev.skywars.api.config.SkyConfiguration;
+import net.daboross.bukkitdev.skywars.world.WorldMetrics;
 import net.daboross.jsonserialization.JsonException;
 import net.daboross.jsonserialization.JsonParser;
 import net.daboross.jsonserialization.JsonSerialization;
@@ -77,6 +79,17 @@ public class GistReport {
         for (Plugin otherPlugin : plugin.getServer().getPluginManager().getPlugins()) {
             build.append("|\n|").append(otherPlugin.getName()).append("|").append(otherPlugin.getDescription().getVersion());
         }
+        if (plugin instanceof SkyWarsPlugin && ((SkyWarsPlugin) plugin).getWorldHandler() != null) {
+            WorldMetrics metrics = ((SkyWarsPlugin) plugin).getWorldHandler().getMetrics();
+            build.append("|\n\n|Arena world||\n|---|---")
+                    .append("|\n|Chunks loaded|").append(metrics.getChunkLoads())
+                    .append("|\n|Games measured|").append(metrics.getGamesMeasured())
+                    .append("|\n|Chunks loaded, last game|").append(metrics.getLastGameChunkLoads())
+                    .append("|\n|Chunks loaded, average game|").append(String.format("%.1f", metrics.getAverageGameChunkLoads()))
+                    .append("|\n|Arena locations reused|").append(metrics.getSlotsTurnedAround())
+                    .append("|\n|Location turnaround, last|").append(metrics.getLastSlotTurnaroundMillis()).append("ms")
+                    .append("|\n|Location turnaround, average|").append(String.format("%.0fms", metrics.getAverageSlotTurnaroundMillis()));
+        }
 
         build.append("|\n\n#### main-config.yml\n```\n");
         appendRawConfig(build, plugin);
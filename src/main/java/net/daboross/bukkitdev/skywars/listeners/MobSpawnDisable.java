@@ -35,7 +35,7 @@ public class MobSpawnDisable implements Listener {
             case VILLAGE_INVASION:
             case REINFORCEMENTS:
             case NETHER_PORTAL:
-                if (Statics.ARENA_WORLD_NAME.equals(evt.getLocation().getWorld().getName())) {
+                if (Statics.isArenaWorld(evt.getLocation().getWorld().getName())) {
                     evt.setCancelled(true);
                 }
                 break;
@@ -34,7 +34,7 @@ public class PlayerJoinInArenaWorldListener implements Listener {
 
     @EventHandler
     public void onJoin(PlayerJoinEvent evt) {
-        if (evt.getPlayer().getWorld().getName().equalsIgnoreCase(Statics.ARENA_WORLD_NAME)) {
+        if (Statics.isArenaWorld(evt.getPlayer().getWorld().getName())) {
             String name = evt.getPlayer().getName();
             SkyStatic.log(Level.SEVERE, "A player has logged in and is in the arena world! (%s)", name);
             SkyStatic.log(Level.SEVERE, "This should not happen under normal circumstances, and is likely the result of a server crash, or SkyWars failing to force respawn a player.");
@@ -19,7 +19,9 @@ package net.daboross.bukkitdev.skywars.storage;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import net.daboross.bukkitdev.skywars.api.config.SkyConfigurationException;
 import net.daboross.bukkitdev.skywars.api.location.SkyBlockLocation;
@@ -42,6 +44,7 @@ public class LocationStore implements Listener, SkyLocationStore {
     private final JavaPlugin plugin;
     private final List<SkyBlockLocation> portals = new ArrayList<>();
     private final List<SkyBlockLocation> signs = new ArrayList<>();
+    private final Map<SkyBlockLocation, String> signArenas = new HashMap<>();
     private SkyPlayerLocation lobbyPosition;
     private FileConfiguration storage;
     private Path configFile;
@@ -101,6 +104,15 @@ public class LocationStore implements Listener, SkyLocationStore {
                 }
             }
         }
+        for (Map<?, ?> entry : storage.getMapList("sign-arenas")) {
+            Object location = entry.get("location");
+            Object arena = entry.get("arena");
+            if (location instanceof SkyBlockLocation && arena instanceof String) {
+                signArenas.put((SkyBlockLocation) location, (String) arena);
+            } else {
+                plugin.getLogger().log(Level.WARNING, "Expected location and arena name, found {0} in sign-arenas list in {1}! Removing item from config file.", new Object[]{entry, configFile});
+            }
+        }
     }
 
     @Override
@@ -110,6 +122,14 @@ public class LocationStore implements Listener, SkyLocationStore {
             storage.set("portals", portals);
             storage.set("lobby", lobbyPosition);
             storage.set("signs", signs);
+            List<Map<String, Object>> signArenaList = new ArrayList<>(signArenas.size());
+            for (Map.Entry<SkyBlockLocation, String> entry : signArenas.entrySet()) {
+                Map<String, Object> map = new HashMap<>(2);
+                map.put("location", entry.getKey());
+                map.put("arena", entry.getValue());
+                signArenaList.add(map);
+            }
+            storage.set("sign-arenas", signArenaList);
             storage.set("storage-specification-version", 1);
             try {
                 storage.save(configFile.toFile());
@@ -146,4 +166,14 @@ public class LocationStore implements Listener, SkyLocationStore {
     public List<SkyBlockLocation> getSigns() {
         return signs;
     }
+
+    /**
+     * Gets the arena each join sign which only joins games on one arena is for. Signs not in this map join the default
+     * queue.
+     *
+     * @return a mutable map from sign location to arena name.
+     */
+    public Map<SkyBlockLocation, String> getSignArenas() {
+        return signArenas;
+    }
 }
@@ -18,15 +18,10 @@ package net.daboross.bukkitdev.skywars.util;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.Collection;
 import java.util.logging.Level;
 import net.daboross.bukkitdev.skywars.api.SkyStatic;
 import org.apache.commons.lang.Validate;
-import org.bukkit.Location;
-import org.bukkit.World;
 import org.bukkit.entity.Damageable;
-import org.bukkit.entity.Entity;
-import org.bukkit.entity.EntityType;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.PlayerInventory;
@@ -79,21 +74,6 @@ public class CrossVersion {
         }
     }
 
-    /**
-     * Supports Bukkit earlier than Spigot Bukkit-1.8.4
-     */
-    public static Collection<Entity> getNearbyEntities(Location location, double x, double y, double z) {
-        World world = location.getWorld();
-        try {
-            return world.getNearbyEntities(location, x, y, z);
-        } catch (NoSuchMethodError ignored) {
-            Entity entity = world.spawnEntity(location, EntityType.EXPERIENCE_ORB);
-            Collection<Entity> result = entity.getNearbyEntities(x, y, z);
-            entity.remove();
-            return result;
-        }
-    }
-
     /**
      * Supports Bukkit earlier than Spigot Bukkit-1.8.7
      */
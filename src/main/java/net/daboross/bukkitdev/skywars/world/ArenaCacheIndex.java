@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) 2016 Dabo Ross <http://www.daboross.net/>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.daboross.bukkitdev.skywars.world;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import net.daboross.bukkitdev.skywars.api.SkyStatic;
+import net.daboross.bukkitdev.skywars.api.location.SkyBlockLocationRange;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+/**
+ * Keeps track of which arena uses which blocks cache file.
+ * <p>
+ * Cache files are stored in the "cache" directory, named by the SHA-256 hash of their contents, so arenas built
+ * identically share a single file. The index file maps each arena to its hash and to the origin region the cache was
+ * made from, so a cache can be rebuilt automatically once the arena's origin changes. It also records the size and
+ * modification time each cache file had when its hash was last checked, so unchanged files aren't hashed again on
+ * every startup.
+ */
+public class ArenaCacheIndex {
+
+    private static final int VERSION = 1;
+    private final Path indexFile;
+    private final Path cacheDirectory;
+    private final YamlConfiguration index = new YamlConfiguration();
+
+    public ArenaCacheIndex(final Path arenaDirectory) throws IOException {
+        this.indexFile = arenaDirectory.resolve("blocks-index.yml");
+        this.cacheDirectory = arenaDirectory.resolve("cache");
+        Files.createDirectories(cacheDirectory);
+        if (Files.exists(indexFile)) {
+            try {
+                index.load(indexFile.toFile());
+            } catch (InvalidConfigurationException ex) {
+                throw new IOException("Invalid " + indexFile.getFileName(), ex);
+            }
+        }
+        if (index.getInt("version", VERSION) > VERSION) {
+            throw new IOException("Future version in " + indexFile.getFileName() + "!");
+        }
+        index.set("version", VERSION);
+    }
+
+    public Path getCacheFile(String hash) {
+        return cacheDirectory.resolve(hash + ".blocks");
+    }
+
+    /**
+     * @return a location in the cache directory to write a new cache file to before calling {@link #store(String,
+     * String, Path)}.
+     */
+    public Path getTemporaryFile(String arenaName) {
+        return cacheDirectory.resolve(arenaName + ".new");
+    }
+
+    public synchronized String getHash(String arenaName) {
+        return index.getString("arenas." + arenaName + ".hash");
+    }
+
+    public synchronized String getOrigin(String arenaName) {
+        return index.getString("arenas." + arenaName + ".origin");
+    }
+
+    /**
+     * Moves a newly written cache file to its place in the cache directory, and records it as the given arena's
+     * cache. If the arena's previous cache file is no longer used by any arena, it is deleted.
+     *
+     * @param arenaName the arena the file was made for.
+     * @param origin    origin description from {@link #describeOrigin(SkyBlockLocationRange)}.
+     * @param file      the new file, which will be moved or deleted.
+     * @return the file's hash.
+     */
+    public synchronized String store(String arenaName, String origin, Path file) throws IOException {
+        String hash = hash(file);
+        Path target = getCacheFile(hash);
+        if (Files.exists(target) && verify(hash)) {
+            // Another arena already has identical blocks.
+            Files.delete(file);
+        } else {
+            Files.move(file, target, StandardCopyOption.REPLACE_EXISTING);
+            recordFile(hash, target);
+        }
+        String oldHash = getHash(arenaName);
+        index.set("arenas." + arenaName + ".hash", hash);
+        index.set("arenas." + arenaName + ".origin", origin);
+        index.save(indexFile.toFile());
+        if (oldHash != null && !oldHash.equals(hash) && !isReferenced(oldHash)) {
+            index.set("files." + oldHash, null);
+            index.save(indexFile.toFile());
+            try {
+                Files.deleteIfExists(getCacheFile(oldHash));
+            } catch (IOException ex) {
+                // On some systems, files can't be deleted while mapped.
+                SkyStatic.debug("Couldn't delete unused cache file %s: %s", oldHash, ex);
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Checks that the cache file with the given hash exists and still has that hash. The file is only hashed again if
+     * its size or modification time differ from when it was last checked.
+     *
+     * @return true if the file can be used.
+     */
+    public boolean verify(String hash) throws IOException {
+        Path file = getCacheFile(hash);
+        if (!Files.exists(file)) {
+            return false;
+        }
+        synchronized (this) {
+            if (Files.size(file) == index.getLong("files." + hash + ".size", -1)
+                    && Files.getLastModifiedTime(file).toMillis() == index.getLong("files." + hash + ".modified", -1)) {
+                return true;
+            }
+        }
+        // Hashed outside of the lock, as arenas are loaded in parallel.
+        SkyStatic.debug("Cache file %s changed or wasn't checked before; hashing it.", hash);
+        if (!hash(file).equals(hash)) {
+            return false;
+        }
+        synchronized (this) {
+            recordFile(hash, file);
+        }
+        return true;
+    }
+
+    private void recordFile(String hash, Path file) throws IOException {
+        index.set("files." + hash + ".size", Files.size(file));
+        index.set("files." + hash + ".modified", Files.getLastModifiedTime(file).toMillis());
+        index.save(indexFile.toFile());
+    }
+
+    private boolean isReferenced(String hash) {
+        ConfigurationSection arenas = index.getConfigurationSection("arenas");
+        if (arenas != null) {
+            for (String arenaName : arenas.getKeys(false)) {
+                if (hash.equals(arenas.getString(arenaName + ".hash"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return a string which differs whenever the origin region differs.
+     */
+    public static String describeOrigin(SkyBlockLocationRange origin) {
+        if (origin == null) {
+            return "none";
+        }
+        return origin.world + ":" + origin.min.x + "," + origin.min.y + "," + origin.min.z
+                + ":" + origin.max.x + "," + origin.max.y + "," + origin.max.z;
+    }
+
+    /**
+     * Computes the hex SHA-256 hash of a file's contents.
+     */
+    public static String hash(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not supported", ex);
+        }
+        byte[] buffer = new byte[65536];
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        StringBuilder builder = new StringBuilder(64);
+        for (byte b : digest.digest()) {
+            builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,323 @@
+/*
+ * Copyright (C) 2016 Dabo Ross <http://www.daboross.net/>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.daboross.bukkitdev.skywars.world;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import net.daboross.bukkitdev.skywars.api.SkyStatic;
+import net.daboross.bukkitdev.skywars.api.game.SkyGame;
+import net.daboross.bukkitdev.skywars.api.location.SkyBlockLocation;
+import net.daboross.bukkitdev.skywars.api.location.SkyBlockLocationRange;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.BlockState;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockBurnEvent;
+import org.bukkit.event.block.BlockDispenseEvent;
+import org.bukkit.event.block.BlockFadeEvent;
+import org.bukkit.event.block.BlockFormEvent;
+import org.bukkit.event.block.BlockFromToEvent;
+import org.bukkit.event.block.BlockGrowEvent;
+import org.bukkit.event.block.BlockIgniteEvent;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.block.BlockPistonRetractEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.block.BlockSpreadEvent;
+import org.bukkit.event.block.LeavesDecayEvent;
+import org.bukkit.event.entity.EntityChangeBlockEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.player.PlayerBucketEmptyEvent;
+import org.bukkit.event.player.PlayerBucketFillEvent;
+import org.bukkit.event.world.StructureGrowEvent;
+
+/**
+ * Records every block position changed inside the clearing area of running games, so that only those positions
+ * need to be restored once the game ends. Games stay tracked until their location has been restored.
+ * <p>
+ * Blocks which can be removed as a side effect of a change (torches, doors, beds, ...) are covered by also recording
+ * the neighbours of placed, broken, burnt and exploded blocks.
+ */
+public class ArenaChangeTracker implements Listener {
+
+    private static final BlockFace[] NEIGHBOURS = {BlockFace.UP, BlockFace.DOWN, BlockFace.NORTH, BlockFace.SOUTH, BlockFace.EAST, BlockFace.WEST};
+    private final List<TrackedGame> trackedGames = new ArrayList<>();
+    private final int maxChanges;
+
+    /**
+     * @param maxChanges number of changed positions after which a game stops being tracked.
+     */
+    public ArenaChangeTracker(final int maxChanges) {
+        this.maxChanges = maxChanges;
+    }
+
+    /**
+     * Starts recording changes for a game. The game's min location must already be set.
+     */
+    public void startTracking(SkyGame game) {
+        SkyBlockLocation min = game.getMin();
+        SkyBlockLocationRange clearing = game.getArena().getBoundaries().getClearing();
+        trackedGames.add(new TrackedGame(game.getId(), min, clearing.min.add(min), clearing.max.add(min)));
+    }
+
+    /**
+     * Gets the positions changed in a game since tracking started or since this was last called, and keeps recording
+     * changes. Blocks keep changing after a game ends (liquids flow, fire spreads, sand falls), so a game stays tracked
+     * until its location has been restored.
+     *
+     * @param gameId the game's id.
+     * @return changed positions relative to the game's min location, packed with {@link
+     * PalettedBlockArea#packPosition(int, int, int)}, or null if the game isn't tracked or changed too many blocks.
+     */
+    public long[] takeChanges(int gameId) {
+        TrackedGame tracked = getTrackedGame(gameId);
+        if (tracked == null) {
+            return null;
+        }
+        Set<Long> changes = tracked.changes;
+        tracked.changes = new HashSet<>();
+        if (changes == null) {
+            return null;
+        }
+        long[] result = new long[changes.size()];
+        int i = 0;
+        for (Long position : changes) {
+            result[i++] = position;
+        }
+        return result;
+    }
+
+    public boolean isTracking(int gameId) {
+        return getTrackedGame(gameId) != null;
+    }
+
+    /**
+     * Stops recording changes for a game.
+     */
+    public void stopTracking(int gameId) {
+        TrackedGame tracked = getTrackedGame(gameId);
+        if (tracked != null) {
+            trackedGames.remove(tracked);
+        }
+    }
+
+    /**
+     * Stops recording changes for whichever game was played at the given location, if any.
+     *
+     * @param min the game's min location.
+     */
+    public void stopTrackingAt(SkyBlockLocation min) {
+        for (Iterator<TrackedGame> iterator = trackedGames.iterator(); iterator.hasNext(); ) {
+            TrackedGame tracked = iterator.next();
+            if (tracked.world.equals(min.world) && tracked.min.x == min.x && tracked.min.y == min.y && tracked.min.z == min.z) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Gets a source of the positions changed in a game from now on, for the operation restoring its location. The
+     * source stops tracking the game once it's done.
+     */
+    public LateChangeSource getLateChanges(final int gameId) {
+        return new LateChangeSource() {
+            @Override
+            public long[] takeChanges() {
+                return ArenaChangeTracker.this.takeChanges(gameId);
+            }
+
+            @Override
+            public void stop() {
+                stopTracking(gameId);
+            }
+        };
+    }
+
+    private TrackedGame getTrackedGame(int gameId) {
+        for (TrackedGame tracked : trackedGames) {
+            if (tracked.gameId == gameId) {
+                return tracked;
+            }
+        }
+        return null;
+    }
+
+    private void record(Block block) {
+        if (trackedGames.isEmpty()) {
+            return;
+        }
+        String world = block.getWorld().getName();
+        if (!Statics.isArenaWorld(world)) {
+            return;
+        }
+        int x = block.getX();
+        int y = block.getY();
+        int z = block.getZ();
+        for (TrackedGame tracked : trackedGames) {
+            // Arena worlds reuse the same slot positions, so the world has to match as well
+            if (tracked.world.equals(world)
+                    && x >= tracked.clearingMin.x && x <= tracked.clearingMax.x
+                    && y >= tracked.clearingMin.y && y <= tracked.clearingMax.y
+                    && z >= tracked.clearingMin.z && z <= tracked.clearingMax.z) {
+                if (tracked.changes != null) {
+                    tracked.changes.add(PalettedBlockArea.packPosition(x - tracked.min.x, y - tracked.min.y, z - tracked.min.z));
+                    if (tracked.changes.size() > maxChanges) {
+                        SkyStatic.debug("Game %s changed over %s blocks; its arena will be fully cleared.", tracked.gameId, maxChanges);
+                        tracked.changes = null;
+                    }
+                }
+                return;
+            }
+        }
+    }
+
+    private void recordWithNeighbours(Block block) {
+        record(block);
+        for (BlockFace face : NEIGHBOURS) {
+            record(block.getRelative(face));
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlace(BlockPlaceEvent evt) {
+        recordWithNeighbours(evt.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBreak(BlockBreakEvent evt) {
+        recordWithNeighbours(evt.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBurn(BlockBurnEvent evt) {
+        recordWithNeighbours(evt.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onExplode(EntityExplodeEvent evt) {
+        for (Block block : evt.blockList()) {
+            recordWithNeighbours(block);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onIgnite(BlockIgniteEvent evt) {
+        record(evt.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onSpread(BlockSpreadEvent evt) {
+        record(evt.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onForm(BlockFormEvent evt) {
+        record(evt.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onFade(BlockFadeEvent evt) {
+        record(evt.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onGrow(BlockGrowEvent evt) {
+        record(evt.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onLeavesDecay(LeavesDecayEvent evt) {
+        record(evt.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onFlow(BlockFromToEvent evt) {
+        record(evt.getToBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityChangeBlock(EntityChangeBlockEvent evt) {
+        // Falling blocks starting to fall and landing, endermen, crop trampling
+        record(evt.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonExtend(BlockPistonExtendEvent evt) {
+        record(evt.getBlock().getRelative(evt.getDirection()));
+        for (Block block : evt.getBlocks()) {
+            record(block);
+            record(block.getRelative(evt.getDirection()));
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonRetract(BlockPistonRetractEvent evt) {
+        record(evt.getBlock().getRelative(evt.getDirection()));
+        record(evt.getBlock().getRelative(evt.getDirection().getOppositeFace()));
+        for (Block block : evt.getBlocks()) {
+            record(block);
+            record(block.getRelative(evt.getDirection()));
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBucketEmpty(PlayerBucketEmptyEvent evt) {
+        record(evt.getBlockClicked().getRelative(evt.getBlockFace()));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBucketFill(PlayerBucketFillEvent evt) {
+        record(evt.getBlockClicked());
+        record(evt.getBlockClicked().getRelative(evt.getBlockFace()));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onDispense(BlockDispenseEvent evt) {
+        // Dispensed water, lava and fire are placed in front of the dispenser without a place event.
+        recordWithNeighbours(evt.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onStructureGrow(StructureGrowEvent evt) {
+        for (BlockState state : evt.getBlocks()) {
+            record(state.getBlock());
+        }
+    }
+
+    private static class TrackedGame {
+
+        private final int gameId;
+        private final String world;
+        private final SkyBlockLocation min;
+        private final SkyBlockLocation clearingMin;
+        private final SkyBlockLocation clearingMax;
+        private Set<Long> changes = new HashSet<>();
+
+        private TrackedGame(final int gameId, final SkyBlockLocation min, final SkyBlockLocation clearingMin, final SkyBlockLocation clearingMax) {
+            this.gameId = gameId;
+            this.world = min.world;
+            this.min = min;
+            this.clearingMin = clearingMin;
+            this.clearingMax = clearingMax;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2016 Dabo Ross <http://www.daboross.net/>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.daboross.bukkitdev.skywars.world;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import net.daboross.bukkitdev.skywars.api.arenaconfig.SkyArenaChest;
+import net.daboross.bukkitdev.skywars.api.location.SkyBlockLocation;
+
+/**
+ * Looks up an arena's configured chests by position, keyed by {@link PalettedBlockArea#packPosition(int, int,
+ * int)}.
+ */
+public class ArenaChestIndex {
+
+    private final List<SkyArenaChest> source;
+    private final Map<Long, SkyArenaChest> chests;
+
+    public ArenaChestIndex(final List<SkyArenaChest> source) {
+        this.source = source;
+        this.chests = new HashMap<>(source.size() * 2);
+        for (SkyArenaChest chest : source) {
+            SkyBlockLocation location = chest.getLocation();
+            // If two chests have the same location, the last one is used.
+            chests.put(PalettedBlockArea.packPosition(location.x, location.y, location.z), chest);
+        }
+    }
+
+    /**
+     * @return the chest at the given position relative to the arena, or null if there is no chest configured there.
+     */
+    public SkyArenaChest get(int x, int y, int z) {
+        return chests.get(PalettedBlockArea.packPosition(x, y, z));
+    }
+
+    /**
+     * @return true if this index was built from the given list of chests, and so is still up to date.
+     */
+    public boolean isFor(List<SkyArenaChest> chests) {
+        return source == chests;
+    }
+}
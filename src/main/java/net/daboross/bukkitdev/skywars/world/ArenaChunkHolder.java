@@ -0,0 +1,243 @@
+/*
+ * Copyright (C) 2016 Dabo Ross <http://www.daboross.net/>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.daboross.bukkitdev.skywars.world;
+
+import java.util.HashMap;
+import java.util.Map;
+import net.daboross.bukkitdev.bukkitstorageprotobuf.MultiPartOperation;
+import net.daboross.bukkitdev.skywars.api.location.SkyBlockLocation;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+
+/**
+ * Keeps the chunks of arena locations loaded from when an arena starts being copied there until it has been cleared
+ * again, and loads them ahead of the copy rather than in the middle of it.
+ */
+public class ArenaChunkHolder implements Listener {
+
+    // Arena worlds share the same slot layout, so chunks are held per world.
+    private final Map<String, WorldChunks> worlds = new HashMap<>();
+    private final WorldMetrics metrics;
+
+    public ArenaChunkHolder(final WorldMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Holds all chunks touching the given area, and wraps the operation so that it loads any of those chunks which
+     * aren't loaded yet, one per part, before doing its own parts.
+     * <p>
+     * If the arena's cached blocks are given, chunk columns which are all air in the arena aren't preloaded, as a copy
+     * which skips air never writes to them. They are still held if something else loads them, so that {@link
+     * SectionClearOperation} can skip them while they stay unloaded.
+     *
+     * @param min       minimum block of the area.
+     * @param max       maximum block of the area.
+     * @param area      the cached blocks of the arena being copied to zero, or null to preload every chunk.
+     * @param zero      the location the arena is copied to.
+     * @param operation the operation which will use the area.
+     * @return the wrapped operation.
+     */
+    public MultiPartOperation holdAndPreload(World world, SkyBlockLocation min, SkyBlockLocation max, PalettedBlockArea area, SkyBlockLocation zero, MultiPartOperation operation) {
+        return new PreloadOperation(world, hold(min, max), min, max, area, zero, operation);
+    }
+
+    /**
+     * Holds all chunks touching the given area, keeping them loaded once they are loaded.
+     */
+    public synchronized void holdArea(SkyBlockLocation min, SkyBlockLocation max) {
+        hold(min, max);
+    }
+
+    /**
+     * Stops holding the area starting at the given location, and asks for its chunks to be unloaded.
+     */
+    public void release(World world, SkyBlockLocation min) {
+        HeldRegion region;
+        synchronized (this) {
+            WorldChunks chunks = worlds.get(world.getName());
+            if (chunks == null) {
+                return;
+            }
+            region = chunks.regions.remove(packChunk(min.x >> 4, min.z >> 4));
+            if (region == null) {
+                return;
+            }
+            for (int x = region.minChunkX; x <= region.maxChunkX; x++) {
+                for (int z = region.minChunkZ; z <= region.maxChunkZ; z++) {
+                    chunks.heldChunks.remove(packChunk(x, z));
+                }
+            }
+        }
+        for (int x = region.minChunkX; x <= region.maxChunkX; x++) {
+            for (int z = region.minChunkZ; z <= region.maxChunkZ; z++) {
+                if (world.isChunkLoaded(x, z)) {
+                    world.unloadChunkRequest(x, z);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the number of chunks loaded in the area starting at the given location since it was held or since this
+     * was last called, and resets that number.
+     */
+    public synchronized int takeChunkLoads(SkyBlockLocation min) {
+        WorldChunks chunks = worlds.get(min.world);
+        HeldRegion region = chunks == null ? null : chunks.regions.get(packChunk(min.x >> 4, min.z >> 4));
+        if (region == null) {
+            return 0;
+        }
+        int loads = region.chunkLoads;
+        region.chunkLoads = 0;
+        return loads;
+    }
+
+    private synchronized HeldRegion hold(SkyBlockLocation min, SkyBlockLocation max) {
+        WorldChunks chunks = worlds.get(min.world);
+        if (chunks == null) {
+            chunks = new WorldChunks();
+            worlds.put(min.world, chunks);
+        }
+        long key = packChunk(min.x >> 4, min.z >> 4);
+        HeldRegion region = chunks.regions.get(key);
+        if (region == null) {
+            region = new HeldRegion(min.x >> 4, min.z >> 4, max.x >> 4, max.z >> 4);
+            chunks.regions.put(key, region);
+            for (int x = region.minChunkX; x <= region.maxChunkX; x++) {
+                for (int z = region.minChunkZ; z <= region.maxChunkZ; z++) {
+                    chunks.heldChunks.put(packChunk(x, z), region);
+                }
+            }
+        }
+        return region;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent evt) {
+        if (!Statics.isArenaWorld(evt.getWorld().getName())) {
+            return;
+        }
+        metrics.onChunkLoad();
+        Chunk chunk = evt.getChunk();
+        synchronized (this) {
+            HeldRegion region = getHeldRegion(evt.getWorld().getName(), chunk);
+            if (region != null) {
+                region.chunkLoads++;
+            }
+        }
+    }
+
+    @EventHandler(priority = EventPriority.HIGH)
+    public void onChunkUnload(ChunkUnloadEvent evt) {
+        if (!Statics.isArenaWorld(evt.getWorld().getName())) {
+            return;
+        }
+        Chunk chunk = evt.getChunk();
+        synchronized (this) {
+            if (getHeldRegion(evt.getWorld().getName(), chunk) != null) {
+                evt.setCancelled(true);
+            }
+        }
+    }
+
+    private HeldRegion getHeldRegion(String worldName, Chunk chunk) {
+        WorldChunks chunks = worlds.get(worldName);
+        return chunks == null ? null : chunks.heldChunks.get(packChunk(chunk.getX(), chunk.getZ()));
+    }
+
+    private static long packChunk(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    private static class WorldChunks {
+
+        private final Map<Long, HeldRegion> heldChunks = new HashMap<>();
+        private final Map<Long, HeldRegion> regions = new HashMap<>();
+    }
+
+    private static class HeldRegion {
+
+        private final int minChunkX;
+        private final int minChunkZ;
+        private final int maxChunkX;
+        private final int maxChunkZ;
+        private int chunkLoads;
+
+        private HeldRegion(final int minChunkX, final int minChunkZ, final int maxChunkX, final int maxChunkZ) {
+            this.minChunkX = minChunkX;
+            this.minChunkZ = minChunkZ;
+            this.maxChunkX = maxChunkX;
+            this.maxChunkZ = maxChunkZ;
+        }
+    }
+
+    private static class PreloadOperation implements MultiPartOperation {
+
+        private final World world;
+        private final HeldRegion region;
+        private final SkyBlockLocation min;
+        private final SkyBlockLocation max;
+        private final PalettedBlockArea area;
+        private final SkyBlockLocation zero;
+        private final MultiPartOperation operation;
+        private final int width;
+        private final int chunkCount;
+        private int nextChunk;
+
+        private PreloadOperation(final World world, final HeldRegion region, final SkyBlockLocation min, final SkyBlockLocation max, final PalettedBlockArea area, final SkyBlockLocation zero, final MultiPartOperation operation) {
+            this.world = world;
+            this.region = region;
+            this.min = min;
+            this.max = max;
+            this.area = area;
+            this.zero = zero;
+            this.operation = operation;
+            this.width = region.maxChunkX - region.minChunkX + 1;
+            this.chunkCount = width * (region.maxChunkZ - region.minChunkZ + 1);
+        }
+
+        @Override
+        public void performNextPart() {
+            while (nextChunk < chunkCount) {
+                int x = region.minChunkX + nextChunk % width;
+                int z = region.minChunkZ + nextChunk / width;
+                nextChunk++;
+                if (area != null && SectionClearOperation.isColumnAir(area, zero, min, max, x, z)) {
+                    continue;
+                }
+                if (!world.isChunkLoaded(x, z)) {
+                    world.loadChunk(x, z, true);
+                    return;
+                }
+            }
+            if (operation.getPartsLeft() > 0) {
+                operation.performNextPart();
+            }
+        }
+
+        @Override
+        public int getPartsLeft() {
+            return chunkCount - nextChunk + operation.getPartsLeft();
+        }
+    }
+}
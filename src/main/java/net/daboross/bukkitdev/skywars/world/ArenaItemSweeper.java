@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2016 Dabo Ross <http://www.daboross.net/>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.daboross.bukkitdev.skywars.world;
+
+import net.daboross.bukkitdev.skywars.api.SkyStatic;
+import org.bukkit.World;
+import org.bukkit.entity.Item;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Regularly removes dropped items which have been lying in the arena world for too long, so that items dropped during
+ * long games don't pile up.
+ */
+public class ArenaItemSweeper implements Runnable {
+
+    private static final long SWEEP_INTERVAL_TICKS = 5 * 20;
+    private final World arenaWorld;
+    private final int maxAgeTicks;
+    private int taskId = -1;
+
+    public ArenaItemSweeper(final World arenaWorld, final int maxAgeSeconds) {
+        this.arenaWorld = arenaWorld;
+        this.maxAgeTicks = maxAgeSeconds * 20;
+    }
+
+    public void start(Plugin plugin) {
+        taskId = plugin.getServer().getScheduler().runTaskTimer(plugin, this, SWEEP_INTERVAL_TICKS, SWEEP_INTERVAL_TICKS).getTaskId();
+    }
+
+    public void stop(Plugin plugin) {
+        if (taskId != -1) {
+            plugin.getServer().getScheduler().cancelTask(taskId);
+            taskId = -1;
+        }
+    }
+
+    @Override
+    public void run() {
+        int removed = 0;
+        for (Item item : arenaWorld.getEntitiesByClass(Item.class)) {
+            if (item.getTicksLived() >= maxAgeTicks) {
+                item.remove();
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            SkyStatic.debug("Removed %s old dropped items from the arena world.", removed);
+        }
+    }
+}
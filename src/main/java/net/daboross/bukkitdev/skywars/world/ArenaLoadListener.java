@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2016 Dabo Ross <http://www.daboross.net/>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.daboross.bukkitdev.skywars.world;
+
+import net.daboross.bukkitdev.skywars.api.arenaconfig.SkyArenaConfig;
+
+/**
+ * Notified as an arena is loaded in the background with {@link ParallelArenaLoader#loadInBackground(WorldProvider,
+ * SkyArenaConfig, boolean, ArenaLoadListener)}. All methods are called on the server thread.
+ */
+public interface ArenaLoadListener {
+
+    /**
+     * Called while a new blocks cache is being created for the arena.
+     *
+     * @param percentDone how much of the arena has been encoded, from 0 to 100.
+     */
+    void onProgress(int percentDone);
+
+    void onLoaded(SkyArenaConfig arena);
+
+    void onFailed(SkyArenaConfig arena, Exception ex);
+}
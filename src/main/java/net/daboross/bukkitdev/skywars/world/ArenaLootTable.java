@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2016 Dabo Ross <http://www.daboross.net/>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.daboross.bukkitdev.skywars.world;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import net.daboross.bukkitdev.skywars.api.arenaconfig.SkyArenaChest;
+import net.daboross.bukkitdev.skywars.api.location.SkyBlockLocation;
+import net.daboross.bukkitdev.skywars.config.RandomChestConfiguration;
+import org.bukkit.inventory.ItemStack;
+
+/**
+ * Items rolled ahead of time for every randomly filled chest in one copy of an arena, keyed by {@link
+ * PalettedBlockArea#packPosition(int, int, int)}.
+ * <p>
+ * Each chest's items come from its own Random, seeded from the copy's loot seed and the chest's position, so the same
+ * seed always gives the same items no matter which thread rolls them or in which order.
+ */
+public class ArenaLootTable {
+
+    private final Map<Long, ChestLoot> loot;
+
+    private ArenaLootTable(final Map<Long, ChestLoot> loot) {
+        this.loot = loot;
+    }
+
+    /**
+     * Rolls the items for all chests. Can be called from any thread.
+     */
+    public static ArenaLootTable roll(RandomChestConfiguration configuration, List<SkyArenaChest> chests, long seed) {
+        Map<Long, ChestLoot> loot = new HashMap<>(chests.size() * 2);
+        for (SkyArenaChest chest : chests) {
+            if (chest.isRandomizationEnabled()) {
+                SkyBlockLocation location = chest.getLocation();
+                loot.put(PalettedBlockArea.packPosition(location.x, location.y, location.z), rollChest(configuration, chest, seed));
+            }
+        }
+        return new ArenaLootTable(loot);
+    }
+
+    /**
+     * Rolls the items for a single chest, giving the same result as {@link #roll(RandomChestConfiguration, List,
+     * long)} would for it.
+     */
+    public static ChestLoot rollChest(RandomChestConfiguration configuration, SkyArenaChest chest, long seed) {
+        SkyBlockLocation location = chest.getLocation();
+        long position = PalettedBlockArea.packPosition(location.x, location.y, location.z);
+        Random random = new Random(seed ^ (position * 0x9E3779B97F4A7C15L));
+        List<ItemStack> items = configuration.rollItems(chest.getChestLevel(), chest.getMinItemValue(), chest.getMaxItemValue(), random);
+        return new ChestLoot(items.toArray(new ItemStack[items.size()]), random.nextLong());
+    }
+
+    /**
+     * @return the rolled items for the chest at the given position relative to the arena, or null if there is no
+     * randomly filled chest there.
+     */
+    public ChestLoot get(int x, int y, int z) {
+        return loot.get(PalettedBlockArea.packPosition(x, y, z));
+    }
+
+    public static class ChestLoot {
+
+        private final ItemStack[] items;
+        private final long arrangementSeed;
+
+        private ChestLoot(final ItemStack[] items, final long arrangementSeed) {
+            this.items = items;
+            this.arrangementSeed = arrangementSeed;
+        }
+
+        /**
+         * @return the items placed in the slots of an inventory with the given size. Inventories copy the stacks they
+         * are given, so this may be installed more than once.
+         */
+        public ItemStack[] install(int size) {
+            return RandomChestConfiguration.arrange(Arrays.asList(items), size, new Random(arrangementSeed));
+        }
+    }
+}
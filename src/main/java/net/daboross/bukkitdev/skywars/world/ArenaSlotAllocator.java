@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2016 Dabo Ross <http://www.daboross.net/>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.daboross.bukkitdev.skywars.world;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import net.daboross.bukkitdev.skywars.api.arenaconfig.SkyArena;
+import net.daboross.bukkitdev.skywars.api.location.SkyBlockLocation;
+import net.daboross.bukkitdev.skywars.api.location.SkyBlockLocationRange;
+import net.daboross.bukkitdev.skywars.util.ReusableIdHandler;
+
+/**
+ * Places arena copies in the arena world, packing them as closely around the world's origin as possible.
+ * <p>
+ * Each location ("slot") is a rectangle of whole chunks sized to fit the arena's own clearing area, plus spacing.
+ * New slots are put in the first free place found searching outwards from chunk 0,0, so space freed close to the
+ * origin is always reused before the arena world grows.
+ */
+public class ArenaSlotAllocator {
+
+    private final ReusableIdHandler idHandler = new ReusableIdHandler();
+    private final Map<Integer, Slot> slots = new HashMap<>();
+    private final Set<Long> usedChunks = new HashSet<>();
+    private final int spacingChunks;
+    private final String worldName;
+
+    /**
+     * @param spacingChunks number of empty chunks to leave between slots.
+     * @param worldName     name of the world the slots are in.
+     */
+    public ArenaSlotAllocator(final int spacingChunks, final String worldName) {
+        this.spacingChunks = Math.max(0, spacingChunks);
+        this.worldName = worldName;
+    }
+
+    /**
+     * Finds and reserves a slot big enough for the given arena.
+     *
+     * @param arena the arena which will be copied into the slot.
+     * @return the new slot's location id.
+     */
+    public synchronized int allocate(SkyArena arena) {
+        SkyBlockLocationRange clearing = arena.getBoundaries().getClearing();
+        // The spacing is kept on the positive side of each slot: the slot before it on either axis will have spacing
+        // on its positive side too.
+        int widthChunks = chunksFor(clearing.max.x - clearing.min.x + 1) + spacingChunks;
+        int depthChunks = chunksFor(clearing.max.z - clearing.min.z + 1) + spacingChunks;
+        for (int radius = 0; ; radius++) {
+            // Walk the square ring of chunks at this distance from the origin.
+            for (int chunkX = -radius; chunkX <= radius; chunkX++) {
+                int step = (chunkX == -radius || chunkX == radius) ? 1 : radius * 2;
+                for (int chunkZ = -radius; chunkZ <= radius; chunkZ += Math.max(1, step)) {
+                    if (isFree(chunkX, chunkZ, widthChunks, depthChunks)) {
+                        int id = idHandler.getNextId();
+                        Slot slot = new Slot(chunkX, chunkZ, widthChunks, depthChunks, new SkyBlockLocation(
+                                (chunkX << 4) - clearing.min.x, arena.getPlacementY(), (chunkZ << 4) - clearing.min.z, worldName));
+                        setUsed(slot, true);
+                        slots.put(id, slot);
+                        return id;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the location an arena should be copied to for a slot given by {@link #allocate(SkyArena)}.
+     *
+     * @param id the slot's location id.
+     * @return the arena's zero / min location, or null if the slot isn't allocated.
+     */
+    public synchronized SkyBlockLocation getMinLocation(int id) {
+        Slot slot = slots.get(id);
+        return slot == null ? null : slot.min;
+    }
+
+    /**
+     * Frees a slot. This should only be done once the arena in it has been fully cleared.
+     *
+     * @param id the slot's location id.
+     */
+    public synchronized void free(int id) {
+        Slot slot = slots.remove(id);
+        if (slot != null) {
+            setUsed(slot, false);
+            idHandler.recycleId(id);
+        }
+    }
+
+    public synchronized int getAllocatedCount() {
+        return slots.size();
+    }
+
+    private boolean isFree(int chunkX, int chunkZ, int widthChunks, int depthChunks) {
+        for (int x = chunkX; x < chunkX + widthChunks; x++) {
+            for (int z = chunkZ; z < chunkZ + depthChunks; z++) {
+                if (usedChunks.contains(packChunk(x, z))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void setUsed(Slot slot, boolean used) {
+        for (int x = slot.chunkX; x < slot.chunkX + slot.widthChunks; x++) {
+            for (int z = slot.chunkZ; z < slot.chunkZ + slot.depthChunks; z++) {
+                if (used) {
+                    usedChunks.add(packChunk(x, z));
+                } else {
+                    usedChunks.remove(packChunk(x, z));
+                }
+            }
+        }
+    }
+
+    private static int chunksFor(int blocks) {
+        return (blocks + 15) >> 4;
+    }
+
+    private static long packChunk(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    private static class Slot {
+
+        private final int chunkX;
+        private final int chunkZ;
+        private final int widthChunks;
+        private final int depthChunks;
+        private final SkyBlockLocation min;
+
+        private Slot(final int chunkX, final int chunkZ, final int widthChunks, final int depthChunks, final SkyBlockLocation min) {
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+            this.widthChunks = widthChunks;
+            this.depthChunks = depthChunks;
+            this.min = min;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright (C) 2016 Dabo Ross <http://www.daboross.net/>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.daboross.bukkitdev.skywars.world;
+
+import java.util.HashMap;
+import java.util.Map;
+import net.daboross.bukkitdev.bukkitstorageprotobuf.MemoryBlockArea;
+import net.daboross.bukkitdev.bukkitstorageprotobuf.ProtobufStorage;
+import net.daboross.bukkitdev.bukkitstorageprotobuf.compiled.BlockStorage;
+import net.daboross.bukkitdev.skywars.api.location.SkyBlockLocation;
+import net.daboross.bukkitdev.skywars.api.location.SkyBlockLocationRange;
+import org.apache.commons.lang.Validate;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.World;
+import org.bukkit.block.BlockState;
+import org.bukkit.inventory.InventoryHolder;
+
+/**
+ * A copy of the blocks in part of a world, which can be read from any thread.
+ * <p>
+ * Taking the snapshot is the only part which needs the server thread: it copies each chunk with {@link
+ * Chunk#getChunkSnapshot(boolean, boolean, boolean)}, and encodes the few blocks which hold an inventory, since chunk
+ * snapshots don't include block contents. Trimming and encoding the area can then happen on a worker thread.
+ */
+public class ArenaSnapshot {
+
+    private final String worldName;
+    private final int minX;
+    private final int minY;
+    private final int minZ;
+    private final int maxX;
+    private final int maxY;
+    private final int maxZ;
+    private final int minChunkX;
+    private final int minChunkZ;
+    private final int chunksZ;
+    private final ChunkSnapshot[] chunks;
+    // Inventory blocks by position relative to the snapshot's minimum.
+    private final Map<Long, BlockStorage.Block> inventoryBlocks;
+
+    private ArenaSnapshot(final String worldName, final SkyBlockLocation min, final SkyBlockLocation max,
+                          final ChunkSnapshot[] chunks, final Map<Long, BlockStorage.Block> inventoryBlocks) {
+        this.worldName = worldName;
+        this.minX = min.x;
+        this.minY = min.y;
+        this.minZ = min.z;
+        this.maxX = max.x;
+        this.maxY = max.y;
+        this.maxZ = max.z;
+        this.minChunkX = min.x >> 4;
+        this.minChunkZ = min.z >> 4;
+        this.chunksZ = (max.z >> 4) - minChunkZ + 1;
+        this.chunks = chunks;
+        this.inventoryBlocks = inventoryBlocks;
+    }
+
+    /**
+     * Takes a snapshot of all blocks between min and max, inclusive. Must be called from the server thread.
+     */
+    public static ArenaSnapshot take(World world, SkyBlockLocation min, SkyBlockLocation max) {
+        Validate.isTrue(Bukkit.isPrimaryThread(), "Snapshots can only be taken from the server thread");
+        int minChunkX = min.x >> 4;
+        int minChunkZ = min.z >> 4;
+        int chunksX = (max.x >> 4) - minChunkX + 1;
+        int chunksZ = (max.z >> 4) - minChunkZ + 1;
+        ChunkSnapshot[] chunks = new ChunkSnapshot[chunksX * chunksZ];
+        Map<Long, BlockStorage.Block> inventoryBlocks = new HashMap<>();
+        for (int chunkX = 0; chunkX < chunksX; chunkX++) {
+            for (int chunkZ = 0; chunkZ < chunksZ; chunkZ++) {
+                Chunk chunk = world.getChunkAt(minChunkX + chunkX, minChunkZ + chunkZ);
+                chunks[chunkX * chunksZ + chunkZ] = chunk.getChunkSnapshot(false, false, false);
+                for (BlockState state : chunk.getTileEntities()) {
+                    int x = state.getX();
+                    int y = state.getY();
+                    int z = state.getZ();
+                    if (state instanceof InventoryHolder
+                            && x >= min.x && x <= max.x && y >= min.y && y <= max.y && z >= min.z && z <= max.z) {
+                        BlockStorage.Block block = new MemoryBlockArea(ProtobufStorage.encode(world, x, y, z, 1, 1, 1, true)).blocks[0][0][0];
+                        inventoryBlocks.put(PalettedBlockArea.packPosition(x - min.x, y - min.y, z - min.z), block);
+                    }
+                }
+            }
+        }
+        return new ArenaSnapshot(world.getName(), min, max, chunks, inventoryBlocks);
+    }
+
+    @SuppressWarnings("deprecation")
+    private int getTypeId(int x, int y, int z) {
+        ChunkSnapshot chunk = chunks[((x >> 4) - minChunkX) * chunksZ + ((z >> 4) - minChunkZ)];
+        return chunk.getBlockTypeId(x & 15, y, z & 15);
+    }
+
+    @SuppressWarnings("deprecation")
+    private int getData(int x, int y, int z) {
+        ChunkSnapshot chunk = chunks[((x >> 4) - minChunkX) * chunksZ + ((z >> 4) - minChunkZ)];
+        return chunk.getBlockData(x & 15, y, z & 15);
+    }
+
+    /**
+     * Finds the smallest range within this snapshot which contains all of its non-air blocks.
+     */
+    public SkyBlockLocationRange trim() {
+        int minX = this.minX;
+        int minY = this.minY;
+        int minZ = this.minZ;
+        int maxX = this.maxX;
+        int maxY = this.maxY;
+        int maxZ = this.maxZ;
+
+        // Each of these loops will reduce the empty space around the chosen area,
+        //  by checking each plane of space and reducing the min/max of that direction if the space is clear.
+        // Reducing minX
+        while (minX < maxX
+                && isClear(minX, minY, minZ, minX, maxY, maxZ)) {
+            minX += 1;
+        }
+        // Reducing minY
+        while (minY < maxY
+                && isClear(minX, minY, minZ, maxX, minY, maxZ)) {
+            minY += 1;
+        }
+        // Reducing minZ
+        while (minZ < maxZ
+                && isClear(minX, minY, minZ, maxX, maxY, minZ)) {
+            minZ += 1;
+        }
+        // Reducing maxX
+        while (maxX > minX
+                && isClear(maxX, minY, minZ, maxX, maxY, maxZ)) {
+            maxX -= 1;
+        }
+        // Reducing maxY
+        while (maxY > minY
+                && isClear(minX, maxY, minZ, maxX, maxY, maxZ)) {
+            maxY -= 1;
+        }
+        // Reducing maxZ
+        while (maxZ > minZ
+                && isClear(minX, minY, maxZ, maxX, maxY, maxZ)) {
+            maxZ -= 1;
+        }
+        return new SkyBlockLocationRange(new SkyBlockLocation(minX, minY, minZ, worldName), new SkyBlockLocation(maxX, maxY, maxZ, worldName), worldName);
+    }
+
+    private boolean isClear(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        for (int x = minX; x <= maxX; x++) {
+            for (int y = minY; y <= maxY; y++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    if (getTypeId(x, y, z) != 0) { // Material.AIR.getId() == 0
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Encodes the blocks in the given range, which must be within this snapshot.
+     *
+     * @param range    range to encode.
+     * @param progress notified each time another tenth of the area has been encoded, or null.
+     * @return the packed area.
+     */
+    public PalettedBlockArea encode(SkyBlockLocationRange range, ArenaLoadListener progress) {
+        Validate.isTrue(range.min.x >= minX && range.min.y >= minY && range.min.z >= minZ
+                && range.max.x <= maxX && range.max.y <= maxY && range.max.z <= maxZ, "Range is outside of snapshot");
+        int lengthX = range.max.x - range.min.x + 1;
+        int lengthY = range.max.y - range.min.y + 1;
+        int lengthZ = range.max.z - range.min.z + 1;
+        PalettedBlockArea.Builder builder = new PalettedBlockArea.Builder(lengthX, lengthY, lengthZ);
+        // Most arenas only use a few hundred distinct blocks, so build each one once.
+        Map<Integer, BlockStorage.Block> blocks = new HashMap<>();
+        int lastTenth = 0;
+        for (int y = 0; y < lengthY; y++) {
+            for (int x = 0; x < lengthX; x++) {
+                for (int z = 0; z < lengthZ; z++) {
+                    int worldX = range.min.x + x;
+                    int worldY = range.min.y + y;
+                    int worldZ = range.min.z + z;
+                    int id = getTypeId(worldX, worldY, worldZ);
+                    if (id == 0) {
+                        continue;
+                    }
+                    BlockStorage.Block block = inventoryBlocks.get(PalettedBlockArea.packPosition(worldX - minX, worldY - minY, worldZ - minZ));
+                    if (block == null) {
+                        int data = getData(worldX, worldY, worldZ);
+                        Integer key = id << 4 | data;
+                        block = blocks.get(key);
+                        if (block == null) {
+                            block = BlockStorage.Block.newBuilder().setId(id).setData(data).build();
+                            blocks.put(key, block);
+                        }
+                    }
+                    builder.setBlock(x, y, z, block);
+                }
+            }
+            int tenth = (y + 1) * 10 / lengthY;
+            if (progress != null && tenth != lastTenth) {
+                lastTenth = tenth;
+                progress.onProgress(tenth * 10);
+            }
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2016 Dabo Ross <http://www.daboross.net/>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.daboross.bukkitdev.skywars.world;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import net.daboross.bukkitdev.skywars.api.arenaconfig.SkyArena;
+import net.daboross.bukkitdev.skywars.api.location.SkyBlockLocation;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.WorldCreator;
+import org.bukkit.WorldType;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * The set of void worlds arena copies are placed in.
+ * <p>
+ * Each world has its own {@link ArenaSlotAllocator}, and new slots go to the world with the fewest games currently
+ * running in it, so that entities, tile entities and chunk ticking are spread evenly between the worlds. On servers
+ * which tick worlds in parallel, this spreads games over multiple threads.
+ * <p>
+ * Location ids handed out here encode which world the slot is in, so any location id can be turned back into its
+ * world.
+ */
+public class ArenaWorlds {
+
+    private final List<World> worlds = new ArrayList<>();
+    private final ArenaSlotAllocator[] allocators;
+    private final int[] activeGames;
+
+    /**
+     * @param count         number of arena worlds to use.
+     * @param spacingChunks number of empty chunks to leave between slots.
+     */
+    public ArenaWorlds(final int count, final int spacingChunks) {
+        int worldCount = Math.max(1, count);
+        this.allocators = new ArenaSlotAllocator[worldCount];
+        this.activeGames = new int[worldCount];
+        for (int i = 0; i < worldCount; i++) {
+            allocators[i] = new ArenaSlotAllocator(spacingChunks, Statics.getArenaWorldName(i));
+        }
+    }
+
+    /**
+     * Loads or creates every arena world. Must be called on the server thread before any slots are used.
+     */
+    public void create(Plugin plugin, Map<String, String> gamerules) {
+        for (int i = 0; i < allocators.length; i++) {
+            String name = Statics.getArenaWorldName(i);
+            World world = plugin.getServer().getWorld(name);
+            if (world == null) {
+                plugin.getLogger().info("Loading world '" + name + "'.");
+                WorldCreator arenaWorldCreator = new WorldCreator(name);
+                arenaWorldCreator.generateStructures(false);
+                arenaWorldCreator.generator(new VoidGenerator());
+                arenaWorldCreator.type(WorldType.FLAT);
+                arenaWorldCreator.seed(0);
+                world = arenaWorldCreator.createWorld();
+                plugin.getLogger().info("Done loading world '" + name + "'.");
+            } else {
+                plugin.getLogger().info("The world '" + name + "' was already loaded.");
+            }
+            world.setAutoSave(false);
+            world.getBlockAt(-5000, 45, -5000).setType(Material.STONE);
+            world.setSpawnLocation(-5000, 50, -5000);
+            for (Map.Entry<String, String> entry : gamerules.entrySet()) {
+                world.setGameRuleValue(entry.getKey(), entry.getValue());
+            }
+            world.setTime(4000);
+            worlds.add(world);
+        }
+    }
+
+    /**
+     * @return all arena worlds, in order.
+     */
+    public List<World> getWorlds() {
+        return Collections.unmodifiableList(worlds);
+    }
+
+    /**
+     * Forgets all loaded worlds. Slots which are still allocated are kept, but must not be used until
+     * {@link #create(Plugin, Map)} is called again.
+     */
+    public void clearWorlds() {
+        worlds.clear();
+    }
+
+    /**
+     * Finds and reserves a slot for the arena in the arena world with the fewest running games. Ties go to the world
+     * with the fewest allocated slots, so ready copies made before any game starts are spread out too.
+     *
+     * @param arena the arena which will be copied into the slot.
+     * @return the new slot's location id.
+     */
+    public synchronized int allocate(SkyArena arena) {
+        int best = 0;
+        for (int i = 1; i < allocators.length; i++) {
+            if (activeGames[i] < activeGames[best] || (activeGames[i] == activeGames[best]
+                    && allocators[i].getAllocatedCount() < allocators[best].getAllocatedCount())) {
+                best = i;
+            }
+        }
+        return allocators[best].allocate(arena) * allocators.length + best;
+    }
+
+    /**
+     * @param locationId a location id given by {@link #allocate(SkyArena)}.
+     * @return the arena's zero / min location, or null if the slot isn't allocated.
+     */
+    public SkyBlockLocation getMinLocation(int locationId) {
+        return allocators[worldIndex(locationId)].getMinLocation(locationId / allocators.length);
+    }
+
+    /**
+     * @param locationId a location id given by {@link #allocate(SkyArena)}.
+     * @return the world the slot is in.
+     */
+    public World getWorld(int locationId) {
+        return worlds.get(worldIndex(locationId));
+    }
+
+    /**
+     * Frees a slot. This should only be done once the arena in it has been fully cleared.
+     *
+     * @param locationId the slot's location id.
+     */
+    public void free(int locationId) {
+        allocators[worldIndex(locationId)].free(locationId / allocators.length);
+    }
+
+    /**
+     * Records that a game has started in the given slot.
+     */
+    public synchronized void gameStarted(int locationId) {
+        activeGames[worldIndex(locationId)]++;
+    }
+
+    /**
+     * Records that the game in the given slot has ended.
+     */
+    public synchronized void gameEnded(int locationId) {
+        int index = worldIndex(locationId);
+        if (activeGames[index] > 0) {
+            activeGames[index]--;
+        }
+    }
+
+    private int worldIndex(int locationId) {
+        return locationId % allocators.length;
+    }
+}
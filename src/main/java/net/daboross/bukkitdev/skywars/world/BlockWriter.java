@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2016 Dabo Ross <http://www.daboross.net/>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.daboross.bukkitdev.skywars.world;
+
+import net.daboross.bukkitdev.bukkitstorageprotobuf.compiled.BlockStorage;
+import org.bukkit.World;
+
+/**
+ * Sets single blocks in a world. This is what lets a {@link PalettedBlockArea} be applied both through the Bukkit API
+ * and through WorldEdit.
+ */
+public interface BlockWriter {
+
+    /**
+     * Gets the world this writer sets blocks in.
+     *
+     * @return the world.
+     */
+    World getWorld();
+
+    /**
+     * Sets the type and data of the block at the given location. Inventory contents are not set by this method.
+     *
+     * @param x     absolute x coordinate.
+     * @param y     absolute y coordinate.
+     * @param z     absolute z coordinate.
+     * @param block the stored block to set.
+     */
+    void setBlock(int x, int y, int z, BlockStorage.Block block);
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2016 Dabo Ross <http://www.daboross.net/>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.daboross.bukkitdev.skywars.world;
+
+import net.daboross.bukkitdev.bukkitstorageprotobuf.compiled.BlockStorage;
+import org.bukkit.World;
+
+public class BukkitBlockWriter implements BlockWriter {
+
+    private final World world;
+
+    public BukkitBlockWriter(final World world) {
+        this.world = world;
+    }
+
+    @Override
+    public World getWorld() {
+        return world;
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public void setBlock(final int x, final int y, final int z, final BlockStorage.Block block) {
+        world.getBlockAt(x, y, z).setTypeIdAndData(block.getId(), (byte) block.getData(), false);
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2016 Dabo Ross <http://www.daboross.net/>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.daboross.bukkitdev.skywars.world;
+
+import net.daboross.bukkitdev.bukkitstorageprotobuf.MultiPartOperation;
+import net.daboross.bukkitdev.skywars.api.location.SkyBlockLocation;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+
+/**
+ * Runs another operation, then removes all entities other than players from an area, one chunk per part.
+ * <p>
+ * Only the chunks intersecting the area are visited, and only if they are loaded: entities in unloaded chunks can't be
+ * removed, and arena chunks are held loaded until they are cleared anyway.
+ */
+public class ClearEntitiesOperation implements MultiPartOperation {
+
+    private final World world;
+    private final SkyBlockLocation min;
+    private final SkyBlockLocation max;
+    private final MultiPartOperation operation;
+    private final int minChunkX;
+    private final int minChunkZ;
+    private final int width;
+    private final int chunkCount;
+    private int nextChunk;
+
+    /**
+     * @param operation operation to finish before clearing entities, or null.
+     */
+    public ClearEntitiesOperation(final World world, final SkyBlockLocation min, final SkyBlockLocation max, final MultiPartOperation operation) {
+        this.world = world;
+        this.min = min;
+        this.max = max;
+        this.operation = operation;
+        this.minChunkX = min.x >> 4;
+        this.minChunkZ = min.z >> 4;
+        this.width = (max.x >> 4) - minChunkX + 1;
+        this.chunkCount = width * ((max.z >> 4) - minChunkZ + 1);
+    }
+
+    /**
+     * Removes all entities other than players from an area immediately.
+     */
+    public static void clearNow(World world, SkyBlockLocation min, SkyBlockLocation max) {
+        ClearEntitiesOperation operation = new ClearEntitiesOperation(world, min, max, null);
+        while (operation.getPartsLeft() > 0) {
+            operation.performNextPart();
+        }
+    }
+
+    @Override
+    public void performNextPart() {
+        if (operation != null && operation.getPartsLeft() > 0) {
+            operation.performNextPart();
+            return;
+        }
+        while (nextChunk < chunkCount) {
+            int x = minChunkX + nextChunk % width;
+            int z = minChunkZ + nextChunk / width;
+            nextChunk++;
+            if (world.isChunkLoaded(x, z)) {
+                clearChunk(world.getChunkAt(x, z));
+                return;
+            }
+        }
+    }
+
+    private void clearChunk(Chunk chunk) {
+        for (Entity entity : chunk.getEntities()) {
+            if (entity instanceof Player) {
+                continue;
+            }
+            Location location = entity.getLocation();
+            if (location.getX() >= min.x && location.getX() < max.x + 1
+                    && location.getY() >= min.y && location.getY() < max.y + 1
+                    && location.getZ() >= min.z && location.getZ() < max.z + 1) {
+                entity.remove();
+            }
+        }
+    }
+
+    @Override
+    public int getPartsLeft() {
+        return chunkCount - nextChunk + (operation == null ? 0 : operation.getPartsLeft());
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2016 Dabo Ross <http://www.daboross.net/>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.daboross.bukkitdev.skywars.world;
+
+import net.daboross.bukkitdev.bukkitstorageprotobuf.ChestProvider;
+import net.daboross.bukkitdev.bukkitstorageprotobuf.MultiPartOperation;
+import net.daboross.bukkitdev.skywars.api.location.SkyBlockLocation;
+
+/**
+ * Runs a restore operation, then restores the positions which changed while it ran, until a pass finds nothing new
+ * or {@link #MAX_PASSES} follow-up passes have been made. Tracking is stopped once done.
+ * <p>
+ * Liquids, fire and falling blocks keep changing the arena after its game ends, and the first pass is spread out over
+ * up to a couple of minutes. Each follow-up pass removes what was left flowing or burning, so they quickly run out.
+ */
+public class LateChangeRestoreOperation implements MultiPartOperation {
+
+    private static final int MAX_PASSES = 4;
+    private final BlockWriter writer;
+    private final PalettedBlockArea area;
+    private final SkyBlockLocation zero;
+    private final SkyBlockLocation min;
+    private final SkyBlockLocation max;
+    private final ChestProvider chestProvider;
+    private final int blocksPerPart;
+    private final LateChangeSource lateChanges;
+    private MultiPartOperation operation;
+    private int passes;
+    private boolean done;
+
+    /**
+     * @param operation     the first restore pass.
+     * @param zero          the location the arena was copied to.
+     * @param min           the absolute minimum corner of the arena's clearing area.
+     * @param max           the absolute maximum corner of the arena's clearing area.
+     * @param blocksPerPart how many changed positions to restore per part.
+     */
+    public LateChangeRestoreOperation(final MultiPartOperation operation, final BlockWriter writer, final PalettedBlockArea area,
+                                      final SkyBlockLocation zero, final SkyBlockLocation min, final SkyBlockLocation max,
+                                      final ChestProvider chestProvider, final int blocksPerPart, final LateChangeSource lateChanges) {
+        this.operation = operation;
+        this.writer = writer;
+        this.area = area;
+        this.zero = zero;
+        this.min = min;
+        this.max = max;
+        this.chestProvider = chestProvider;
+        this.blocksPerPart = blocksPerPart;
+        this.lateChanges = lateChanges;
+    }
+
+    @Override
+    public void performNextPart() {
+        if (operation.getPartsLeft() > 0) {
+            operation.performNextPart();
+            return;
+        }
+        long[] changed = lateChanges.takeChanges();
+        if (passes >= MAX_PASSES || (changed != null && changed.length == 0)) {
+            lateChanges.stop();
+            done = true;
+            return;
+        }
+        passes++;
+        if (changed == null) {
+            operation = new SectionRestoreOperation(writer, area, zero, min, max, chestProvider, blocksPerPart);
+        } else {
+            operation = area.restorePositionsMultiPart(writer, zero.x, zero.y, zero.z, chestProvider, changed, blocksPerPart);
+        }
+    }
+
+    @Override
+    public int getPartsLeft() {
+        // One more part to check for late changes once the current pass is done.
+        return done ? 0 : operation.getPartsLeft() + 1;
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2016 Dabo Ross <http://www.daboross.net/>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.daboross.bukkitdev.skywars.world;
+
+/**
+ * Positions which keep changing in an arena copy after its game has ended, while the copy is being restored.
+ */
+public interface LateChangeSource {
+
+    /**
+     * Gets the positions changed since the restore started or since this was last called.
+     *
+     * @return changed positions relative to the copy's zero location, packed with {@link
+     * PalettedBlockArea#packPosition(int, int, int)}, or null if too many changed to track.
+     */
+    long[] takeChanges();
+
+    /**
+     * Stops tracking changes. Called once the restore is done.
+     */
+    void stop();
+}
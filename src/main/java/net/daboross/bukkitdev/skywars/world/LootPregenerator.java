@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2016 Dabo Ross <http://www.daboross.net/>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.daboross.bukkitdev.skywars.world;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import net.daboross.bukkitdev.skywars.SkyWarsPlugin;
+import net.daboross.bukkitdev.skywars.api.arenaconfig.SkyArena;
+import net.daboross.bukkitdev.skywars.api.arenaconfig.SkyArenaChest;
+import net.daboross.bukkitdev.skywars.config.RandomChestConfiguration;
+
+/**
+ * Rolls chest contents for arena copies on a worker thread, so copying an arena only has to put the items in place.
+ */
+public class LootPregenerator {
+
+    private final SkyWarsPlugin plugin;
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            Thread thread = new Thread(runnable, "SkyWars loot generator");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    public LootPregenerator(final SkyWarsPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Starts rolling the contents of every randomly filled chest in the arena.
+     *
+     * @param seed the seed for this copy's loot. The same seed always gives the same items.
+     * @return the loot table, once rolled.
+     */
+    public Future<ArenaLootTable> pregenerate(SkyArena arena, final long seed) {
+        final RandomChestConfiguration configuration = plugin.getChestRandomizer();
+        final List<SkyArenaChest> chests = new ArrayList<>(arena.getChests());
+        return worker.submit(new Callable<ArenaLootTable>() {
+            @Override
+            public ArenaLootTable call() {
+                return ArenaLootTable.roll(configuration, chests, seed);
+            }
+        });
+    }
+
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+}
@@ -36,6 +36,14 @@ public interface OperationHandle {
      */
     void completeOperationNow();
 
+    /**
+     * Moves the operation's deadline so that it finishes within the given number of ticks. Deadlines are only ever
+     * moved closer: if the operation was already due sooner, nothing changes.
+     *
+     * @param ticksTillCompletion Time (in server ticks) the operation should now finish within.
+     */
+    void finishWithin(long ticksTillCompletion);
+
     /**
      * Sets the value to return with getTargetLocationId(). Value is not used internally at all.
      *
@@ -50,6 +58,20 @@ public interface OperationHandle {
      */
     int getTargetLocationId();
 
+    /**
+     * Sets the value to return with getLootSeed(). Value is not used internally at all.
+     *
+     * @param lootSeed the seed the copy's chest contents were rolled with.
+     */
+    void setLootSeed(long lootSeed);
+
+    /**
+     * Gets the seed set by setLootSeed(long).
+     *
+     * @return the loot seed.
+     */
+    long getLootSeed();
+
     /**
      * Gets the "zero location," or the operation target.
      *
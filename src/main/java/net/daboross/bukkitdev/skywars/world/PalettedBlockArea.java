@@ -0,0 +1,961 @@
+/*
+ * Copyright (C) 2016 Dabo Ross <http://www.daboross.net/>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.daboross.bukkitdev.skywars.world;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import net.daboross.bukkitdev.bukkitstorageprotobuf.ChestProvider;
+import net.daboross.bukkitdev.bukkitstorageprotobuf.MemoryBlockArea;
+import net.daboross.bukkitdev.bukkitstorageprotobuf.MultiPartOperation;
+import net.daboross.bukkitdev.bukkitstorageprotobuf.ProtobufStorage;
+import net.daboross.bukkitdev.bukkitstorageprotobuf.compiled.BlockStorage;
+import org.apache.commons.lang.Validate;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.BlockState;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+import org.bukkit.inventory.ItemStack;
+
+/**
+ * In-memory storage for an arena's blocks, packed the same way Minecraft packs chunk sections.
+ * <p>
+ * The area is split into 16x16x16 sections. All distinct blocks are stored once in a palette, and each section stores
+ * a small local palette plus an array of bit-packed indices into it. Sections which are entirely air aren't stored at
+ * all, so the mostly-empty space around sky islands costs next to nothing.
+ * <p>
+ * For copying into an already-cleared location, the area can also be applied sparsely: only runs of non-air blocks
+ * along the z axis are visited, so the work done is proportional to the number of real blocks in the arena.
+ * <p>
+ * Areas can be saved with {@link #write(Path)} and loaded again with {@link #map(Path)}, which reads the packed
+ * indices directly from a memory-mapped file.
+ * <p>
+ * Single positions relative to the area are passed around packed into a long with {@link #packPosition(int, int,
+ * int)}.
+ */
+public class PalettedBlockArea {
+
+    /**
+     * Palette index which always refers to air.
+     */
+    public static final int AIR = 0;
+    public static final int SECTION_SHIFT = 4;
+    public static final int SECTION_SIZE = 1 << SECTION_SHIFT;
+    private static final int SECTION_MASK = SECTION_SIZE - 1;
+    private static final int SECTION_VOLUME = SECTION_SIZE * SECTION_SIZE * SECTION_SIZE;
+    // Rough per-object sizes on a 64-bit JVM with compressed oops, used for memory reports.
+    private static final int OBJECT_HEADER_SIZE = 12;
+    private static final int ARRAY_HEADER_SIZE = 16;
+    private static final int REFERENCE_SIZE = 4;
+    private static final int STORED_BLOCK_SIZE = 40;
+    private static final int FILE_MAGIC = 0x41505753; // "SWPA"
+    private static final int FILE_VERSION = 1;
+    private static final EnumSet<Material> INVENTORY_HOLDERS = EnumSet.of(Material.CHEST, Material.TRAPPED_CHEST,
+            Material.FURNACE, Material.BURNING_FURNACE, Material.DISPENSER, Material.DROPPER, Material.HOPPER,
+            Material.BREWING_STAND);
+
+    public final int lengthX;
+    public final int lengthY;
+    public final int lengthZ;
+    private final int sectionsX;
+    private final int sectionsY;
+    private final int sectionsZ;
+    private final BlockStorage.Block[] palette;
+    private final boolean[] paletteHasInventory;
+    private final Section[] sections;
+    private final long[] inventoryPositions;
+    private final Object nonAirRunsLock = new Object();
+    private NonAirRuns nonAirRuns;
+
+    private PalettedBlockArea(final int lengthX, final int lengthY, final int lengthZ, final BlockStorage.Block[] palette, final Section[] sections) {
+        this.lengthX = lengthX;
+        this.lengthY = lengthY;
+        this.lengthZ = lengthZ;
+        this.sectionsX = sectionCount(lengthX);
+        this.sectionsY = sectionCount(lengthY);
+        this.sectionsZ = sectionCount(lengthZ);
+        this.palette = palette;
+        this.sections = sections;
+        this.paletteHasInventory = new boolean[palette.length];
+        for (int i = 0; i < palette.length; i++) {
+            paletteHasInventory[i] = hasInventory(palette[i]);
+        }
+        this.inventoryPositions = findInventoryPositions();
+    }
+
+    /**
+     * Checks whether the file at the given path is in the format written by {@link #write(Path)}.
+     */
+    public static boolean isAreaFile(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    return false;
+                }
+            }
+            return header.getInt(0) == FILE_MAGIC;
+        }
+    }
+
+    /**
+     * Maps an area file written by {@link #write(Path)} into memory. The packed block indices are read straight from
+     * the mapped file, so only the palette and section headers are loaded onto the heap.
+     *
+     * @param path the file to map.
+     * @return the mapped area.
+     * @throws IOException if the file can't be read or isn't a valid area file.
+     */
+    public static PalettedBlockArea map(Path path) throws IOException {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        ByteBuffer buffer = mapped.order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            if (buffer.getInt() != FILE_MAGIC) {
+                throw new IOException("Not a SkyWars arena file: " + path);
+            }
+            int version = buffer.getInt();
+            if (version != FILE_VERSION) {
+                throw new IOException("Unsupported arena file version " + version + ": " + path);
+            }
+            int lengthX = buffer.getInt();
+            int lengthY = buffer.getInt();
+            int lengthZ = buffer.getInt();
+            BlockStorage.Block[] palette = new BlockStorage.Block[buffer.getInt()];
+            for (int i = 0; i < palette.length; i++) {
+                byte[] encoded = new byte[buffer.getInt()];
+                buffer.get(encoded);
+                palette[i] = BlockStorage.Block.parseFrom(encoded);
+            }
+            Section[] sections = new Section[buffer.getInt()];
+            Validate.isTrue(sections.length == sectionCount(lengthX) * sectionCount(lengthY) * sectionCount(lengthZ), "Section count doesn't match lengths");
+            for (int i = 0; i < sections.length; i++) {
+                int localPaletteSize = buffer.getInt();
+                if (localPaletteSize == 0) {
+                    continue;
+                }
+                int[] localPalette = new int[localPaletteSize];
+                for (int j = 0; j < localPaletteSize; j++) {
+                    localPalette[j] = buffer.getInt();
+                    Validate.isTrue(localPalette[j] >= 0 && localPalette[j] < palette.length, "Palette index out of range");
+                }
+                LongBuffer data = null;
+                int dataLength = Section.dataLength(localPaletteSize);
+                if (dataLength > 0) {
+                    buffer.position(align8(buffer.position()));
+                    ByteBuffer slice = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+                    slice.limit(dataLength * 8);
+                    data = slice.asLongBuffer();
+                    buffer.position(buffer.position() + dataLength * 8);
+                }
+                sections[i] = new Section(localPalette, data);
+            }
+            return new PalettedBlockArea(lengthX, lengthY, lengthZ, palette, sections);
+        } catch (BufferUnderflowException | IllegalArgumentException ex) {
+            throw new IOException("Corrupt arena file: " + path, ex);
+        }
+    }
+
+    /**
+     * Writes this area to a file which can later be loaded with {@link #map(Path)}. The file is written next to the
+     * target and then moved over it.
+     * <p>
+     * The format is little-endian: a header of magic, version and the three lengths, then the palette as
+     * length-prefixed protobuf blocks, then every section's local palette (size 0 for a missing section) followed by
+     * its packed indices aligned to 8 bytes.
+     */
+    public void write(Path path) throws IOException {
+        List<byte[]> encodedPalette = new ArrayList<>(palette.length);
+        long size = 4 * 6;
+        for (BlockStorage.Block block : palette) {
+            byte[] encoded = block.toByteArray();
+            encodedPalette.add(encoded);
+            size += 4 + encoded.length;
+        }
+        size += 4;
+        for (Section section : sections) {
+            size += 4;
+            if (section != null) {
+                size += 4L * section.localPalette.length;
+                if (section.data != null) {
+                    size = align8(size) + 8L * section.data.capacity();
+                }
+            }
+        }
+        Validate.isTrue(size <= Integer.MAX_VALUE, "Area too large to write");
+        ByteBuffer buffer = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(FILE_MAGIC).putInt(FILE_VERSION).putInt(lengthX).putInt(lengthY).putInt(lengthZ);
+        buffer.putInt(palette.length);
+        for (byte[] encoded : encodedPalette) {
+            buffer.putInt(encoded.length).put(encoded);
+        }
+        buffer.putInt(sections.length);
+        for (Section section : sections) {
+            if (section == null) {
+                buffer.putInt(0);
+                continue;
+            }
+            buffer.putInt(section.localPalette.length);
+            for (int globalIndex : section.localPalette) {
+                buffer.putInt(globalIndex);
+            }
+            if (section.data != null) {
+                buffer.position(align8(buffer.position()));
+                for (int i = 0; i < section.data.capacity(); i++) {
+                    buffer.putLong(section.data.get(i));
+                }
+            }
+        }
+        buffer.flip();
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static int align8(int position) {
+        return (position + 7) & ~7;
+    }
+
+    private static long align8(long position) {
+        return (position + 7) & ~7L;
+    }
+
+    /**
+     * Packs an unpacked protobuf area. The given area can be discarded afterwards.
+     *
+     * @param area area to pack.
+     * @return the packed area.
+     */
+    public static PalettedBlockArea pack(MemoryBlockArea area) {
+        Builder builder = new Builder(area.lengthX, area.lengthY, area.lengthZ);
+        for (int y = 0; y < area.lengthY; y++) {
+            for (int x = 0; x < area.lengthX; x++) {
+                for (int z = 0; z < area.lengthZ; z++) {
+                    builder.setBlock(x, y, z, area.blocks[y][x][z]);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Gets the index into the palette of the block at the given relative location.
+     *
+     * @return the palette index, or {@link #AIR}.
+     */
+    public int getPaletteIndex(int x, int y, int z) {
+        Section section = sections[sectionIndex(x >> SECTION_SHIFT, y >> SECTION_SHIFT, z >> SECTION_SHIFT)];
+        if (section == null) {
+            return AIR;
+        }
+        return section.get(indexInSection(x & SECTION_MASK, y & SECTION_MASK, z & SECTION_MASK));
+    }
+
+    public BlockStorage.Block getBlock(int x, int y, int z) {
+        return palette[getPaletteIndex(x, y, z)];
+    }
+
+    public BlockStorage.Block getPaletteEntry(int index) {
+        return palette[index];
+    }
+
+    public int getPaletteSize() {
+        return palette.length;
+    }
+
+    /**
+     * Checks whether a box, given relative to this area, is known to be all air. Only whole sections are checked, so
+     * this may answer false for a box which happens to be all air. Parts of the box outside of this area count as air.
+     */
+    public boolean isAllAir(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        int fromX = Math.max(0, minX), toX = Math.min(lengthX - 1, maxX);
+        int fromY = Math.max(0, minY), toY = Math.min(lengthY - 1, maxY);
+        int fromZ = Math.max(0, minZ), toZ = Math.min(lengthZ - 1, maxZ);
+        if (fromX > toX || fromY > toY || fromZ > toZ) {
+            return true;
+        }
+        for (int sectionY = fromY >> SECTION_SHIFT; sectionY <= toY >> SECTION_SHIFT; sectionY++) {
+            for (int sectionX = fromX >> SECTION_SHIFT; sectionX <= toX >> SECTION_SHIFT; sectionX++) {
+                for (int sectionZ = fromZ >> SECTION_SHIFT; sectionZ <= toZ >> SECTION_SHIFT; sectionZ++) {
+                    if (sections[sectionIndex(sectionX, sectionY, sectionZ)] != null) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Packs a position into a long. Each coordinate may be negative: x and z are stored in 26 bits, and y in 12 bits.
+     */
+    public static long packPosition(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    public static int unpackX(long position) {
+        return (int) (position >> 38);
+    }
+
+    public static int unpackY(long position) {
+        return (int) (position << 52 >> 52);
+    }
+
+    public static int unpackZ(long position) {
+        return (int) (position << 26 >> 38);
+    }
+
+    /**
+     * Gets the packed positions of every block in this area which holds an inventory, such as chests.
+     *
+     * @return a new array of packed positions.
+     */
+    public long[] getInventoryPositions() {
+        return inventoryPositions.clone();
+    }
+
+    public int getStoredSectionCount() {
+        int count = 0;
+        for (Section section : sections) {
+            if (section != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Estimates how many bytes of heap this area uses.
+     *
+     * @return estimated memory usage, in bytes.
+     */
+    public long getMemoryUsage() {
+        long total = OBJECT_HEADER_SIZE + 9 * REFERENCE_SIZE;
+        total += ARRAY_HEADER_SIZE + (long) palette.length * (REFERENCE_SIZE + STORED_BLOCK_SIZE + 1);
+        total += ARRAY_HEADER_SIZE + (long) sections.length * REFERENCE_SIZE;
+        total += ARRAY_HEADER_SIZE + 8L * inventoryPositions.length;
+        for (Section section : sections) {
+            if (section != null) {
+                total += section.getMemoryUsage();
+            }
+        }
+        synchronized (nonAirRunsLock) {
+            if (nonAirRuns != null) {
+                total += nonAirRuns.getMemoryUsage();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Estimates how many bytes of heap this area would use unpacked into a MemoryBlockArea: a full grid of
+     * references, and one stored block object per position.
+     *
+     * @return estimated memory usage, in bytes.
+     */
+    public long estimateUnpackedMemoryUsage() {
+        long zRows = (long) lengthY * lengthX;
+        long volume = zRows * lengthZ;
+        return ARRAY_HEADER_SIZE + lengthY * (ARRAY_HEADER_SIZE + (long) REFERENCE_SIZE)
+                + zRows * (ARRAY_HEADER_SIZE + (long) REFERENCE_SIZE)
+                + volume * (REFERENCE_SIZE + STORED_BLOCK_SIZE);
+    }
+
+    /**
+     * Gets how many bytes of this area are read from a mapped file rather than stored on the heap.
+     */
+    public long getMappedSize() {
+        long total = 0;
+        for (Section section : sections) {
+            if (section != null && section.data != null && section.data.isDirect()) {
+                total += 8L * section.data.capacity();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Gets the number of blocks in this area which aren't air.
+     */
+    public int getNonAirBlockCount() {
+        return getNonAirRuns().blockCount;
+    }
+
+    public void apply(BlockWriter writer, int zeroX, int zeroY, int zeroZ, ChestProvider chestProvider) {
+        CopyOperation operation = new CopyOperation(writer, zeroX, zeroY, zeroZ, chestProvider, Integer.MAX_VALUE);
+        while (operation.getPartsLeft() > 0) {
+            operation.performNextPart();
+        }
+    }
+
+    /**
+     * Creates an operation which copies this area into the world, blocksPerPart blocks at a time.
+     */
+    public MultiPartOperation applyMultiPart(BlockWriter writer, int zeroX, int zeroY, int zeroZ, ChestProvider chestProvider, int blocksPerPart) {
+        Validate.isTrue(blocksPerPart > 0, "Blocks per part must be positive");
+        return new CopyOperation(writer, zeroX, zeroY, zeroZ, chestProvider, blocksPerPart);
+    }
+
+    /**
+     * Copies only the non-air blocks of this area into the world. The target location must already be clear.
+     */
+    public void applySparse(BlockWriter writer, int zeroX, int zeroY, int zeroZ, ChestProvider chestProvider) {
+        SparseCopyOperation operation = new SparseCopyOperation(writer, zeroX, zeroY, zeroZ, chestProvider, Integer.MAX_VALUE);
+        while (operation.getPartsLeft() > 0) {
+            operation.performNextPart();
+        }
+    }
+
+    /**
+     * Creates an operation which copies only the non-air blocks of this area into the world, blocksPerPart non-air
+     * blocks at a time. The target location must already be clear.
+     */
+    public MultiPartOperation applySparseMultiPart(BlockWriter writer, int zeroX, int zeroY, int zeroZ, ChestProvider chestProvider, int blocksPerPart) {
+        Validate.isTrue(blocksPerPart > 0, "Blocks per part must be positive");
+        return new SparseCopyOperation(writer, zeroX, zeroY, zeroZ, chestProvider, blocksPerPart);
+    }
+
+    /**
+     * Creates an operation which restores the given positions to how they are in this area, blocksPerPart positions
+     * at a time. Positions outside of this area are set to air. Every block holding an inventory is restored as well,
+     * whether or not it was listed.
+     *
+     * @param positions positions relative to the zero location, packed with {@link #packPosition(int, int, int)}.
+     */
+    public MultiPartOperation restoreMultiPart(BlockWriter writer, int zeroX, int zeroY, int zeroZ, ChestProvider chestProvider, long[] positions, int blocksPerPart) {
+        long[] all = new long[positions.length + inventoryPositions.length];
+        System.arraycopy(positions, 0, all, 0, positions.length);
+        System.arraycopy(inventoryPositions, 0, all, positions.length, inventoryPositions.length);
+        return restorePositionsMultiPart(writer, zeroX, zeroY, zeroZ, chestProvider, all, blocksPerPart);
+    }
+
+    /**
+     * Like {@link #restoreMultiPart(BlockWriter, int, int, int, ChestProvider, long[], int)}, but only restores the
+     * listed positions. Used for positions changed after a restore has already refilled the inventories.
+     */
+    public MultiPartOperation restorePositionsMultiPart(BlockWriter writer, int zeroX, int zeroY, int zeroZ, ChestProvider chestProvider, long[] positions, int blocksPerPart) {
+        Validate.isTrue(blocksPerPart > 0, "Blocks per part must be positive");
+        long[] all = positions.clone();
+        // Sorting groups nearby positions together, and lets duplicates be dropped.
+        Arrays.sort(all);
+        int unique = 0;
+        for (int i = 0; i < all.length; i++) {
+            if (i == 0 || all[i] != all[i - 1]) {
+                all[unique++] = all[i];
+            }
+        }
+        return new RestoreOperation(writer, zeroX, zeroY, zeroZ, chestProvider, Arrays.copyOf(all, unique), blocksPerPart);
+    }
+
+    private long[] findInventoryPositions() {
+        long[] result = new long[0];
+        int count = 0;
+        for (int sectionY = 0; sectionY < sectionsY; sectionY++) {
+            for (int sectionX = 0; sectionX < sectionsX; sectionX++) {
+                for (int sectionZ = 0; sectionZ < sectionsZ; sectionZ++) {
+                    Section section = sections[sectionIndex(sectionX, sectionY, sectionZ)];
+                    if (section == null || !section.containsAny(paletteHasInventory)) {
+                        continue;
+                    }
+                    int minX = sectionX << SECTION_SHIFT, minY = sectionY << SECTION_SHIFT, minZ = sectionZ << SECTION_SHIFT;
+                    int maxX = Math.min(lengthX, minX + SECTION_SIZE), maxY = Math.min(lengthY, minY + SECTION_SIZE), maxZ = Math.min(lengthZ, minZ + SECTION_SIZE);
+                    for (int y = minY; y < maxY; y++) {
+                        for (int x = minX; x < maxX; x++) {
+                            for (int z = minZ; z < maxZ; z++) {
+                                if (paletteHasInventory[getPaletteIndex(x, y, z)]) {
+                                    if (count >= result.length) {
+                                        result = Arrays.copyOf(result, Math.max(16, result.length * 2));
+                                    }
+                                    result[count++] = packPosition(x, y, z);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private NonAirRuns getNonAirRuns() {
+        synchronized (nonAirRunsLock) {
+            if (nonAirRuns == null) {
+                nonAirRuns = new NonAirRuns();
+            }
+            return nonAirRuns;
+        }
+    }
+
+    private void applyBlock(BlockWriter writer, int zeroX, int zeroY, int zeroZ, ChestProvider chestProvider, int x, int y, int z) {
+        int index = getPaletteIndex(x, y, z);
+        BlockStorage.Block block = palette[index];
+        writer.setBlock(zeroX + x, zeroY + y, zeroZ + z, block);
+        if (paletteHasInventory[index]) {
+            applyInventory(writer.getWorld(), zeroX + x, zeroY + y, zeroZ + z, block, chestProvider, x, y, z);
+        }
+    }
+
+    private static void applyInventory(World world, int x, int y, int z, BlockStorage.Block block, ChestProvider chestProvider, int relX, int relY, int relZ) {
+        BlockState state = world.getBlockAt(x, y, z).getState();
+        if (!(state instanceof InventoryHolder)) {
+            return;
+        }
+        Inventory inventory = ((InventoryHolder) state).getInventory();
+        ItemStack[] contents = null;
+        if (chestProvider != null) {
+            contents = chestProvider.getInventory(inventory.getSize(), relX, relY, relZ);
+        }
+        if (contents == null && block.hasInventory()) {
+            contents = ProtobufStorage.decodeInventory(block.getInventory());
+        }
+        if (contents != null) {
+            inventory.setContents(contents);
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private static boolean hasInventory(BlockStorage.Block block) {
+        if (block.hasInventory()) {
+            return true;
+        }
+        Material material = Material.getMaterial(block.getId());
+        return material != null && INVENTORY_HOLDERS.contains(material);
+    }
+
+    private int sectionIndex(int sectionX, int sectionY, int sectionZ) {
+        return (sectionY * sectionsX + sectionX) * sectionsZ + sectionZ;
+    }
+
+    private static int indexInSection(int x, int y, int z) {
+        return (y << (SECTION_SHIFT * 2)) | (z << SECTION_SHIFT) | x;
+    }
+
+    private static int sectionCount(int length) {
+        return (length + SECTION_MASK) >> SECTION_SHIFT;
+    }
+
+    private static boolean isAir(BlockStorage.Block block) {
+        return block == null || block.getId() == 0;
+    }
+
+    private class CopyOperation implements MultiPartOperation {
+
+        private final BlockWriter writer;
+        private final int zeroX;
+        private final int zeroY;
+        private final int zeroZ;
+        private final ChestProvider chestProvider;
+        private final int blocksPerPart;
+        private final long volume;
+        private long next;
+
+        private CopyOperation(final BlockWriter writer, final int zeroX, final int zeroY, final int zeroZ, final ChestProvider chestProvider, final int blocksPerPart) {
+            this.writer = writer;
+            this.zeroX = zeroX;
+            this.zeroY = zeroY;
+            this.zeroZ = zeroZ;
+            this.chestProvider = chestProvider;
+            this.blocksPerPart = blocksPerPart;
+            this.volume = (long) lengthX * lengthY * lengthZ;
+        }
+
+        @Override
+        public void performNextPart() {
+            long end = Math.min(volume, next + blocksPerPart);
+            for (; next < end; next++) {
+                // Same y, x, z order as MemoryBlockArea.
+                int z = (int) (next % lengthZ);
+                long rest = next / lengthZ;
+                int x = (int) (rest % lengthX);
+                int y = (int) (rest / lengthX);
+                applyBlock(writer, zeroX, zeroY, zeroZ, chestProvider, x, y, z);
+            }
+        }
+
+        @Override
+        public int getPartsLeft() {
+            return (int) ((volume - next + blocksPerPart - 1) / blocksPerPart);
+        }
+    }
+
+    private class SparseCopyOperation implements MultiPartOperation {
+
+        private final BlockWriter writer;
+        private final int zeroX;
+        private final int zeroY;
+        private final int zeroZ;
+        private final ChestProvider chestProvider;
+        private final int blocksPerPart;
+        private final NonAirRuns runs;
+        private int nextRun;
+        private int doneInRun;
+        private int blocksLeft;
+
+        private SparseCopyOperation(final BlockWriter writer, final int zeroX, final int zeroY, final int zeroZ, final ChestProvider chestProvider, final int blocksPerPart) {
+            this.writer = writer;
+            this.zeroX = zeroX;
+            this.zeroY = zeroY;
+            this.zeroZ = zeroZ;
+            this.chestProvider = chestProvider;
+            this.blocksPerPart = blocksPerPart;
+            this.runs = getNonAirRuns();
+            this.blocksLeft = runs.blockCount;
+        }
+
+        @Override
+        public void performNextPart() {
+            int budget = blocksPerPart;
+            while (budget > 0 && nextRun < runs.count) {
+                long run = runs.runs[nextRun];
+                int row = (int) (run >>> 32);
+                int startZ = (int) ((run >>> 16) & 0xFFFF);
+                int length = (int) (run & 0xFFFF);
+                int y = row / lengthX;
+                int x = row % lengthX;
+                int toDo = Math.min(budget, length - doneInRun);
+                for (int z = startZ + doneInRun, end = z + toDo; z < end; z++) {
+                    applyBlock(writer, zeroX, zeroY, zeroZ, chestProvider, x, y, z);
+                }
+                budget -= toDo;
+                blocksLeft -= toDo;
+                doneInRun += toDo;
+                if (doneInRun >= length) {
+                    nextRun++;
+                    doneInRun = 0;
+                }
+            }
+        }
+
+        @Override
+        public int getPartsLeft() {
+            return (int) (((long) blocksLeft + blocksPerPart - 1) / blocksPerPart);
+        }
+    }
+
+    private class RestoreOperation implements MultiPartOperation {
+
+        private final BlockWriter writer;
+        private final int zeroX;
+        private final int zeroY;
+        private final int zeroZ;
+        private final ChestProvider chestProvider;
+        private final long[] positions;
+        private final int blocksPerPart;
+        private int next;
+
+        private RestoreOperation(final BlockWriter writer, final int zeroX, final int zeroY, final int zeroZ, final ChestProvider chestProvider, final long[] positions, final int blocksPerPart) {
+            this.writer = writer;
+            this.zeroX = zeroX;
+            this.zeroY = zeroY;
+            this.zeroZ = zeroZ;
+            this.chestProvider = chestProvider;
+            this.positions = positions;
+            this.blocksPerPart = blocksPerPart;
+        }
+
+        @Override
+        public void performNextPart() {
+            int end = (int) Math.min(positions.length, (long) next + blocksPerPart);
+            for (; next < end; next++) {
+                int x = unpackX(positions[next]);
+                int y = unpackY(positions[next]);
+                int z = unpackZ(positions[next]);
+                if (x >= 0 && y >= 0 && z >= 0 && x < lengthX && y < lengthY && z < lengthZ) {
+                    applyBlock(writer, zeroX, zeroY, zeroZ, chestProvider, x, y, z);
+                } else {
+                    writer.setBlock(zeroX + x, zeroY + y, zeroZ + z, palette[AIR]);
+                }
+            }
+        }
+
+        @Override
+        public int getPartsLeft() {
+            return (int) (((long) positions.length - next + blocksPerPart - 1) / blocksPerPart);
+        }
+    }
+
+    /**
+     * Run-length encoding of where the non-air blocks are: each run is a row (y, x) together with a start z and a
+     * length, packed as {@code row << 32 | startZ << 16 | length}.
+     */
+    private class NonAirRuns {
+
+        private final long[] runs;
+        private final int count;
+        private final int blockCount;
+
+        private NonAirRuns() {
+            Validate.isTrue(lengthZ <= 0xFFFF, "Area too long to encode runs");
+            long[] result = new long[16];
+            int resultCount = 0;
+            int blocks = 0;
+            for (int y = 0; y < lengthY; y++) {
+                for (int x = 0; x < lengthX; x++) {
+                    int row = y * lengthX + x;
+                    int runStart = -1;
+                    for (int z = 0; z < lengthZ; z++) {
+                        if (sections[sectionIndex(x >> SECTION_SHIFT, y >> SECTION_SHIFT, z >> SECTION_SHIFT)] == null) {
+                            // Skip the rest of an all-air section.
+                            if (runStart != -1) {
+                                result = addRun(result, resultCount++, row, runStart, z - runStart);
+                                blocks += z - runStart;
+                                runStart = -1;
+                            }
+                            z |= SECTION_MASK;
+                            continue;
+                        }
+                        boolean air = getPaletteIndex(x, y, z) == AIR;
+                        if (!air && runStart == -1) {
+                            runStart = z;
+                        } else if (air && runStart != -1) {
+                            result = addRun(result, resultCount++, row, runStart, z - runStart);
+                            blocks += z - runStart;
+                            runStart = -1;
+                        }
+                    }
+                    if (runStart != -1) {
+                        result = addRun(result, resultCount++, row, runStart, lengthZ - runStart);
+                        blocks += lengthZ - runStart;
+                    }
+                }
+            }
+            this.runs = result;
+            this.count = resultCount;
+            this.blockCount = blocks;
+        }
+
+        private long[] addRun(long[] array, int index, int row, int startZ, int length) {
+            if (index >= array.length) {
+                long[] newArray = new long[array.length * 2];
+                System.arraycopy(array, 0, newArray, 0, array.length);
+                array = newArray;
+            }
+            array[index] = ((long) row << 32) | ((long) startZ << 16) | length;
+            return array;
+        }
+
+        private long getMemoryUsage() {
+            return OBJECT_HEADER_SIZE + REFERENCE_SIZE + 8 + ARRAY_HEADER_SIZE + 8L * runs.length;
+        }
+    }
+
+    private static class Section {
+
+        private final int[] localPalette;
+        private final int bitsPerEntry;
+        private final int entriesPerLong;
+        private final long mask;
+        private final LongBuffer data;
+
+        private Section(final int[] globalIndices, final int[] localPalette, final int localPaletteSize) {
+            this(Arrays.copyOf(localPalette, localPaletteSize), null);
+            if (bitsPerEntry == 0) {
+                return;
+            }
+            Map<Integer, Integer> toLocal = new HashMap<>(localPaletteSize * 2);
+            for (int i = 0; i < localPaletteSize; i++) {
+                toLocal.put(localPalette[i], i);
+            }
+            for (int i = 0; i < SECTION_VOLUME; i++) {
+                long local = toLocal.get(globalIndices[i]);
+                int longIndex = i / entriesPerLong;
+                data.put(longIndex, data.get(longIndex) | local << ((i % entriesPerLong) * bitsPerEntry));
+            }
+        }
+
+        /**
+         * @param data packed indices, or null to allocate new zeroed indices.
+         */
+        private Section(final int[] localPalette, final LongBuffer data) {
+            this.localPalette = localPalette;
+            if (localPalette.length == 1) {
+                // Section made entirely of a single block: no need to store indices at all.
+                bitsPerEntry = 0;
+                entriesPerLong = 0;
+                mask = 0;
+                this.data = null;
+                return;
+            }
+            bitsPerEntry = 32 - Integer.numberOfLeadingZeros(localPalette.length - 1);
+            entriesPerLong = 64 / bitsPerEntry;
+            mask = (1L << bitsPerEntry) - 1;
+            this.data = data != null ? data : LongBuffer.allocate(dataLength(localPalette.length));
+        }
+
+        private static int dataLength(int localPaletteSize) {
+            if (localPaletteSize <= 1) {
+                return 0;
+            }
+            int entriesPerLong = 64 / (32 - Integer.numberOfLeadingZeros(localPaletteSize - 1));
+            return (SECTION_VOLUME + entriesPerLong - 1) / entriesPerLong;
+        }
+
+        private boolean containsAny(boolean[] paletteFlags) {
+            for (int globalIndex : localPalette) {
+                if (paletteFlags[globalIndex]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private int get(int index) {
+            if (data == null) {
+                return localPalette[0];
+            }
+            long packed = data.get(index / entriesPerLong);
+            return localPalette[(int) ((packed >>> ((index % entriesPerLong) * bitsPerEntry)) & mask)];
+        }
+
+        private long getMemoryUsage() {
+            long total = OBJECT_HEADER_SIZE + 3 * 4 + 8 + 2 * REFERENCE_SIZE;
+            total += ARRAY_HEADER_SIZE + 4L * localPalette.length;
+            if (data != null) {
+                // Indices in a mapped file aren't on the heap.
+                total += OBJECT_HEADER_SIZE + 4 * 4 + (data.isDirect() ? 0 : ARRAY_HEADER_SIZE + 8L * data.capacity());
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Builds a PalettedBlockArea one block at a time. Only sections which contain a non-air block are ever
+     * allocated, and a layer of sections can be packed early with {@link #finishLayer(int)} once all of its blocks
+     * are set.
+     */
+    public static class Builder {
+
+        private final int lengthX;
+        private final int lengthY;
+        private final int lengthZ;
+        private final int sectionsX;
+        private final int sectionsZ;
+        private final List<BlockStorage.Block> palette = new ArrayList<>();
+        private final Map<BlockStorage.Block, Integer> paletteIndices = new HashMap<>();
+        private final int[][] sectionData;
+        private final Section[] sections;
+        private final int[] localPalette = new int[SECTION_VOLUME];
+        private boolean[] seen = new boolean[0];
+
+        public Builder(final int lengthX, final int lengthY, final int lengthZ) {
+            Validate.isTrue(lengthX > 0 && lengthY > 0 && lengthZ > 0, "Area lengths must be positive");
+            this.lengthX = lengthX;
+            this.lengthY = lengthY;
+            this.lengthZ = lengthZ;
+            this.sectionsX = sectionCount(lengthX);
+            this.sectionsZ = sectionCount(lengthZ);
+            this.sectionData = new int[sectionCount(lengthY) * sectionsX * sectionsZ][];
+            this.sections = new Section[sectionData.length];
+            palette.add(BlockStorage.Block.newBuilder().setId(0).build());
+        }
+
+        public void setBlock(int x, int y, int z, BlockStorage.Block block) {
+            int sectionIndex = ((y >> SECTION_SHIFT) * sectionsX + (x >> SECTION_SHIFT)) * sectionsZ + (z >> SECTION_SHIFT);
+            int[] data = sectionData[sectionIndex];
+            Validate.isTrue(sections[sectionIndex] == null, "Layer already finished");
+            if (isAir(block)) {
+                if (data != null) {
+                    data[indexInSection(x & SECTION_MASK, y & SECTION_MASK, z & SECTION_MASK)] = AIR;
+                }
+                return;
+            }
+            if (data == null) {
+                data = new int[SECTION_VOLUME];
+                sectionData[sectionIndex] = data;
+            }
+            data[indexInSection(x & SECTION_MASK, y & SECTION_MASK, z & SECTION_MASK)] = getOrAddPaletteIndex(block);
+        }
+
+        private int getOrAddPaletteIndex(BlockStorage.Block block) {
+            Integer index = paletteIndices.get(block);
+            if (index == null) {
+                index = palette.size();
+                palette.add(block);
+                paletteIndices.put(block, index);
+            }
+            return index;
+        }
+
+        /**
+         * Packs all sections in the given layer, freeing the memory used while building them. Blocks in that layer
+         * can't be set afterwards.
+         *
+         * @param sectionY the layer, which covers y from sectionY * 16 to sectionY * 16 + 15.
+         */
+        public void finishLayer(int sectionY) {
+            int layerSize = sectionsX * sectionsZ;
+            for (int i = sectionY * layerSize; i < (sectionY + 1) * layerSize; i++) {
+                packSection(i);
+            }
+        }
+
+        private void packSection(int i) {
+            int[] data = sectionData[i];
+            if (data == null) {
+                return;
+            }
+            sectionData[i] = null;
+            if (seen.length < palette.size()) {
+                seen = new boolean[palette.size()];
+            }
+            int localPaletteSize = 0;
+            for (int globalIndex : data) {
+                if (!seen[globalIndex]) {
+                    seen[globalIndex] = true;
+                    localPalette[localPaletteSize++] = globalIndex;
+                }
+            }
+            for (int j = 0; j < localPaletteSize; j++) {
+                seen[localPalette[j]] = false;
+            }
+            if (localPaletteSize == 1 && localPalette[0] == AIR) {
+                // Every block set in this section was later replaced with air.
+                return;
+            }
+            sections[i] = new Section(data, localPalette, localPaletteSize);
+        }
+
+        public PalettedBlockArea build() {
+            for (int i = 0; i < sectionData.length; i++) {
+                packSection(i);
+            }
+            return new PalettedBlockArea(lengthX, lengthY, lengthZ,
+                    palette.toArray(new BlockStorage.Block[palette.size()]), sections);
+        }
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright (C) 2016 Dabo Ross <http://www.daboross.net/>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.daboross.bukkitdev.skywars.world;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import net.daboross.bukkitdev.skywars.SkyWarsPlugin;
+import net.daboross.bukkitdev.skywars.api.arenaconfig.SkyArenaConfig;
+import org.bukkit.Bukkit;
+
+/**
+ * Loads arena caches on a pool of worker threads.
+ * <p>
+ * Anything the providers need to do with the Bukkit API during loading goes through {@link
+ * #runOnMainThread(Callable)}. While {@link #loadAll(WorldProvider, List)} is waiting for workers, the main thread
+ * runs these tasks itself, so it never blocks on a worker which is waiting for it.
+ * <p>
+ * Single arenas created or updated by commands are loaded with {@link #loadInBackground(WorldProvider,
+ * SkyArenaConfig, boolean, ArenaLoadListener)}, so the server keeps running while their blocks are encoded.
+ */
+public class ParallelArenaLoader {
+
+    private final SkyWarsPlugin plugin;
+    private final BlockingQueue<Runnable> mainThreadTasks = new LinkedBlockingQueue<>();
+    private final ExecutorService backgroundPool = Executors.newCachedThreadPool(new LoaderThreadFactory());
+    private volatile boolean mainThreadWaiting;
+
+    public ParallelArenaLoader(final SkyWarsPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Runs a task on the server thread and waits for its result. If called from the server thread, the task is run
+     * immediately.
+     *
+     * @throws ExecutionException if the task throws an exception.
+     */
+    public <T> T runOnMainThread(Callable<T> callable) throws ExecutionException {
+        if (Bukkit.isPrimaryThread()) {
+            try {
+                return callable.call();
+            } catch (Exception ex) {
+                throw new ExecutionException(ex);
+            }
+        }
+        Future<T> future;
+        if (mainThreadWaiting) {
+            FutureTask<T> task = new FutureTask<>(callable);
+            mainThreadTasks.add(task);
+            future = task;
+        } else {
+            future = Bukkit.getScheduler().callSyncMethod(plugin, callable);
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ExecutionException(ex);
+        }
+    }
+
+    /**
+     * Loads all given arenas, spread over a bounded number of worker threads, and waits for them to finish. Must be
+     * called from the server thread.
+     *
+     * @return the names of arenas which failed to load. Errors will already have been logged.
+     */
+    public List<String> loadAll(final WorldProvider provider, List<SkyArenaConfig> arenas) {
+        List<String> failed = new ArrayList<>();
+        if (arenas.isEmpty()) {
+            return failed;
+        }
+        long startTime = System.nanoTime();
+        int threads = Math.max(1, Math.min(arenas.size(), Runtime.getRuntime().availableProcessors()));
+        ExecutorService pool = Executors.newFixedThreadPool(threads, new LoaderThreadFactory());
+        CompletionService<Long> completion = new ExecutorCompletionService<>(pool);
+        List<Future<Long>> futures = new ArrayList<>(arenas.size());
+        mainThreadWaiting = true;
+        try {
+            for (final SkyArenaConfig arena : arenas) {
+                futures.add(completion.submit(new Callable<Long>() {
+                    @Override
+                    public Long call() throws Exception {
+                        long arenaStart = System.nanoTime();
+                        provider.loadArena(arena, false, null);
+                        return System.nanoTime() - arenaStart;
+                    }
+                }));
+            }
+            int remaining = arenas.size();
+            while (remaining > 0) {
+                Runnable task = mainThreadTasks.poll(5, TimeUnit.MILLISECONDS);
+                if (task != null) {
+                    task.run();
+                }
+                Future<Long> done;
+                while ((done = completion.poll()) != null) {
+                    remaining--;
+                    SkyArenaConfig arena = arenas.get(futures.indexOf(done));
+                    try {
+                        plugin.getLogger().log(Level.INFO, "Loaded arena ''{0}'' in {1}ms.",
+                                new Object[]{arena.getArenaName(), TimeUnit.NANOSECONDS.toMillis(done.get())});
+                    } catch (ExecutionException ex) {
+                        plugin.getLogger().log(Level.SEVERE, "Failed to load arena '" + arena.getArenaName() + "':", ex.getCause());
+                        failed.add(arena.getArenaName());
+                    }
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            plugin.getLogger().log(Level.SEVERE, "Interrupted while loading arenas", ex);
+            pool.shutdownNow();
+        } finally {
+            mainThreadWaiting = false;
+            // Anything left was queued by a worker which is still waiting for it.
+            Runnable task;
+            while ((task = mainThreadTasks.poll()) != null) {
+                task.run();
+            }
+            pool.shutdown();
+        }
+        plugin.getLogger().log(Level.INFO, "Loaded {0} arenas in {1}ms using {2} threads.",
+                new Object[]{arenas.size() - failed.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime), threads});
+        return failed;
+    }
+
+    /**
+     * Loads a single arena on a worker thread and returns immediately. The listener is called on the server thread.
+     */
+    public void loadInBackground(final WorldProvider provider, final SkyArenaConfig arena, final boolean forceReload, ArenaLoadListener listener) {
+        final ArenaLoadListener mainThreadListener = onMainThread(listener);
+        runInBackground(arena, new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                provider.loadArena(arena, forceReload, mainThreadListener);
+                return null;
+            }
+        }, mainThreadListener);
+    }
+
+    /**
+     * Stores imported blocks as an arena's cache on a worker thread and returns immediately. The listener is called
+     * on the server thread.
+     */
+    public void importInBackground(final WorldProvider provider, final SkyArenaConfig arena, final PalettedBlockArea blocks, ArenaLoadListener listener) {
+        runInBackground(arena, new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                provider.importArena(arena, blocks);
+                return null;
+            }
+        }, onMainThread(listener));
+    }
+
+    private void runInBackground(final SkyArenaConfig arena, final Callable<Void> load, final ArenaLoadListener mainThreadListener) {
+        backgroundPool.execute(new Runnable() {
+            @Override
+            public void run() {
+                long startTime = System.nanoTime();
+                try {
+                    load.call();
+                } catch (Exception ex) {
+                    mainThreadListener.onFailed(arena, ex);
+                    return;
+                }
+                plugin.getLogger().log(Level.INFO, "Loaded arena ''{0}'' in {1}ms.",
+                        new Object[]{arena.getArenaName(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime)});
+                mainThreadListener.onLoaded(arena);
+            }
+        });
+    }
+
+    /**
+     * Wraps a listener so that each call is passed on to the server thread.
+     */
+    private ArenaLoadListener onMainThread(final ArenaLoadListener listener) {
+        return new ArenaLoadListener() {
+            @Override
+            public void onProgress(final int percentDone) {
+                runLater(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.onProgress(percentDone);
+                    }
+                });
+            }
+
+            @Override
+            public void onLoaded(final SkyArenaConfig arena) {
+                runLater(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.onLoaded(arena);
+                    }
+                });
+            }
+
+            @Override
+            public void onFailed(final SkyArenaConfig arena, final Exception ex) {
+                runLater(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.onFailed(arena, ex);
+                    }
+                });
+            }
+        };
+    }
+
+    private void runLater(Runnable runnable) {
+        if (plugin.isEnabled()) {
+            plugin.getServer().getScheduler().runTask(plugin, runnable);
+        }
+    }
+
+    /**
+     * Stops any background loads. Called when the plugin is disabled.
+     */
+    public void shutdown() {
+        backgroundPool.shutdownNow();
+    }
+
+    private static class LoaderThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger nextId = new AtomicInteger();
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            Thread thread = new Thread(runnable, "SkyWars arena loader #" + nextId.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -16,32 +16,38 @@
  */
 package net.daboross.bukkitdev.skywars.world;
 
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
 import net.daboross.bukkitdev.bukkitstorageprotobuf.ChestProvider;
 import net.daboross.bukkitdev.skywars.api.SkyStatic;
-import net.daboross.bukkitdev.skywars.api.arenaconfig.SkyArena;
 import net.daboross.bukkitdev.skywars.api.arenaconfig.SkyArenaChest;
-import net.daboross.bukkitdev.skywars.api.config.RandomChests;
-import net.daboross.bukkitdev.skywars.api.location.SkyBlockLocation;
+import net.daboross.bukkitdev.skywars.config.RandomChestConfiguration;
 import org.bukkit.inventory.ItemStack;
 
+/**
+ * Fills chests from a loot table rolled ahead of time by {@link LootPregenerator}. Chests reached before the table is
+ * ready are rolled on the spot from the same seed, so they get the same items either way.
+ */
 public class RandomChestProvider implements ChestProvider {
 
-    private final RandomChests configuration;
-    private final SkyArena arena;
+    private final RandomChestConfiguration configuration;
+    private final ArenaChestIndex chests;
+    private final Future<ArenaLootTable> pregenerated;
+    private final long lootSeed;
+    private ArenaLootTable lootTable;
+    private boolean pregenerationFailed;
 
-    public RandomChestProvider(final RandomChests configuration, final SkyArena arena) {
+    public RandomChestProvider(final RandomChestConfiguration configuration, final ArenaChestIndex chests, final Future<ArenaLootTable> pregenerated, final long lootSeed) {
         this.configuration = configuration;
-        this.arena = arena;
+        this.chests = chests;
+        this.pregenerated = pregenerated;
+        this.lootSeed = lootSeed;
     }
 
     @Override
     public ItemStack[] getInventory(final int size, final int x, final int y, final int z) {
-        SkyArenaChest chest = null;
-        for (SkyArenaChest testChest : arena.getChests()) {
-            if (testChest.getLocation().equals(new SkyBlockLocation(x, y, z, null))) {
-                chest = testChest;
-            }
-        }
+        SkyArenaChest chest = chests.get(x, y, z);
         // Note: this occurs if things are deleted from the configuration, or a new chest is added via the update-arena
         // command, or a non-chest storage item is placed in the arena, like a dispenser or hopper.
         if (chest == null) {
@@ -51,7 +57,28 @@ public class RandomChestProvider implements ChestProvider {
             SkyStatic.debug("Not randomly filling chest at x: %s, y: %s, z: %s", x, y, z);
             return null;
         }
+        ArenaLootTable table = getLootTable();
+        ArenaLootTable.ChestLoot loot = table == null ? null : table.get(x, y, z);
+        if (loot == null) {
+            SkyStatic.debug("Rolling loot for chest at x: %s, y: %s, z: %s on the main thread", x, y, z);
+            loot = ArenaLootTable.rollChest(configuration, chest, lootSeed);
+        }
         SkyStatic.debug("Filling chest at x: %s, y: %s, z: %s", x, y, z);
-        return configuration.getItems(size, chest.getChestLevel(), chest.getMinItemValue(), chest.getMaxItemValue());
+        return loot.install(size);
+    }
+
+    /**
+     * @return the pregenerated loot table, or null if it isn't ready yet.
+     */
+    private ArenaLootTable getLootTable() {
+        if (lootTable == null && !pregenerationFailed && pregenerated != null && pregenerated.isDone()) {
+            try {
+                lootTable = pregenerated.get();
+            } catch (InterruptedException | ExecutionException ex) {
+                SkyStatic.getLogger().log(Level.WARNING, "Failed to roll chest loot in the background", ex);
+                pregenerationFailed = true;
+            }
+        }
+        return lootTable;
     }
 }
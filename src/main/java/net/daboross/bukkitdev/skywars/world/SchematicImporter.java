@@ -0,0 +1,279 @@
+/*
+ * Copyright (C) 2016 Dabo Ross <http://www.daboross.net/>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.daboross.bukkitdev.skywars.world;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import net.daboross.bukkitdev.bukkitstorageprotobuf.compiled.BlockStorage;
+import net.daboross.bukkitdev.skywars.api.location.SkyBlockLocation;
+
+/**
+ * Reads MCEdit / WorldEdit .schematic files straight into a {@link PalettedBlockArea}, without loading a world.
+ * <p>
+ * Schematics store their blocks as one large NBT byte array, with block data values in a second array and, for ids
+ * above 255, the upper bits in a third. Rather than reading these into memory, each array is read through its own
+ * stream, and all of them are walked in step. Blocks arrive in y, z, x order, so each layer of sections is packed as
+ * soon as it is complete: at most one layer of unpacked sections is held in memory, however large the schematic is.
+ * <p>
+ * Block entity data, such as chest contents, isn't imported. Chests are still found and filled by the arena's chest
+ * configuration as usual.
+ */
+public class SchematicImporter {
+
+    private static final int TAG_END = 0;
+    private static final int TAG_BYTE = 1;
+    private static final int TAG_SHORT = 2;
+    private static final int TAG_INT = 3;
+    private static final int TAG_LONG = 4;
+    private static final int TAG_FLOAT = 5;
+    private static final int TAG_DOUBLE = 6;
+    private static final int TAG_BYTE_ARRAY = 7;
+    private static final int TAG_STRING = 8;
+    private static final int TAG_LIST = 9;
+    private static final int TAG_COMPOUND = 10;
+    private static final int TAG_INT_ARRAY = 11;
+
+    private final Path file;
+    private final int spawnMarkerId;
+    private int width;
+    private int height;
+    private int length;
+    private boolean hasAddBlocks;
+    private final List<SkyBlockLocation> spawns = new ArrayList<>();
+
+    /**
+     * @param file          schematic file to read.
+     * @param spawnMarkerId id of the block which marks spawn points. Markers are replaced with air.
+     */
+    public SchematicImporter(final Path file, final int spawnMarkerId) {
+        this.file = file;
+        this.spawnMarkerId = spawnMarkerId;
+    }
+
+    /**
+     * Reads the schematic. May be called from any thread.
+     *
+     * @throws IOException if the file can't be read, or isn't a valid schematic.
+     */
+    public PalettedBlockArea read() throws IOException {
+        readHeader();
+        PalettedBlockArea.Builder builder = new PalettedBlockArea.Builder(width, height, length);
+        Map<Integer, BlockStorage.Block> blocks = new HashMap<>();
+        try (DataInputStream blockIds = openArray("Blocks");
+             DataInputStream blockData = openArray("Data");
+             DataInputStream addBlocks = hasAddBlocks ? openArray("AddBlocks") : null) {
+            int index = 0;
+            int addByte = 0;
+            for (int y = 0; y < height; y++) {
+                for (int z = 0; z < length; z++) {
+                    for (int x = 0; x < width; x++, index++) {
+                        int id = blockIds.readUnsignedByte();
+                        int data = blockData.readUnsignedByte() & 0xF;
+                        if (addBlocks != null) {
+                            // Two 4-bit values per byte, the first in the low bits.
+                            if ((index & 1) == 0) {
+                                addByte = addBlocks.readUnsignedByte();
+                                id |= (addByte & 0x0F) << 8;
+                            } else {
+                                id |= (addByte & 0xF0) << 4;
+                            }
+                        }
+                        if (id == 0) {
+                            continue;
+                        }
+                        if (id == spawnMarkerId) {
+                            spawns.add(new SkyBlockLocation(x, y, z, null));
+                            continue;
+                        }
+                        Integer key = id << 4 | data;
+                        BlockStorage.Block block = blocks.get(key);
+                        if (block == null) {
+                            block = BlockStorage.Block.newBuilder().setId(id).setData(data).build();
+                            blocks.put(key, block);
+                        }
+                        builder.setBlock(x, y, z, block);
+                    }
+                }
+                if ((y & (PalettedBlockArea.SECTION_SIZE - 1)) == PalettedBlockArea.SECTION_SIZE - 1) {
+                    builder.finishLayer(y >> PalettedBlockArea.SECTION_SHIFT);
+                }
+            }
+        } catch (EOFException ex) {
+            throw new IOException("Schematic " + file + " ends before all of its blocks", ex);
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return the positions of the spawn markers found by {@link #read()}, relative to the schematic's minimum, in
+     * the order they were found.
+     */
+    public List<SkyBlockLocation> getSpawns() {
+        return spawns;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    private DataInputStream open() throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file), 65536), 65536));
+        if (in.readUnsignedByte() != TAG_COMPOUND) {
+            in.close();
+            throw new IOException(file + " isn't a schematic file: root tag isn't a compound");
+        }
+        in.readUTF(); // Root tag name, "Schematic"
+        return in;
+    }
+
+    private void readHeader() throws IOException {
+        boolean foundBlocks = false;
+        boolean foundData = false;
+        String materials = null;
+        try (DataInputStream in = open()) {
+            int type;
+            while ((type = in.readUnsignedByte()) != TAG_END) {
+                String name = in.readUTF();
+                if (type == TAG_SHORT && name.equals("Width")) {
+                    width = in.readUnsignedShort();
+                } else if (type == TAG_SHORT && name.equals("Height")) {
+                    height = in.readUnsignedShort();
+                } else if (type == TAG_SHORT && name.equals("Length")) {
+                    length = in.readUnsignedShort();
+                } else if (type == TAG_STRING && name.equals("Materials")) {
+                    materials = in.readUTF();
+                } else {
+                    if (type == TAG_BYTE_ARRAY) {
+                        foundBlocks |= name.equals("Blocks");
+                        foundData |= name.equals("Data");
+                        hasAddBlocks |= name.equals("AddBlocks");
+                    }
+                    skip(in, type);
+                }
+            }
+        }
+        if (!"Alpha".equals(materials)) {
+            throw new IOException("Unsupported schematic materials '" + materials + "' in " + file + ": only 'Alpha' schematics can be imported");
+        }
+        if (!foundBlocks || !foundData || width <= 0 || height <= 0 || length <= 0) {
+            throw new IOException(file + " isn't a complete schematic: missing Width, Height, Length, Blocks or Data");
+        }
+    }
+
+    /**
+     * Opens a new stream positioned at the start of the contents of the given byte array tag in the root compound.
+     */
+    private DataInputStream openArray(String arrayName) throws IOException {
+        DataInputStream in = open();
+        try {
+            int type;
+            while ((type = in.readUnsignedByte()) != TAG_END) {
+                String name = in.readUTF();
+                if (type == TAG_BYTE_ARRAY && name.equals(arrayName)) {
+                    int arrayLength = in.readInt();
+                    long expected = arrayName.equals("AddBlocks") ? ((long) width * height * length + 1) >> 1 : (long) width * height * length;
+                    if (arrayLength < expected) {
+                        throw new IOException(arrayName + " in " + file + " is too short: expected " + expected + " bytes, found " + arrayLength);
+                    }
+                    return in;
+                }
+                skip(in, type);
+            }
+            throw new IOException(arrayName + " not found in " + file);
+        } catch (IOException | RuntimeException ex) {
+            in.close();
+            throw ex;
+        }
+    }
+
+    private static void skip(DataInputStream in, int type) throws IOException {
+        switch (type) {
+            case TAG_END:
+                break;
+            case TAG_BYTE:
+                skipFully(in, 1);
+                break;
+            case TAG_SHORT:
+                skipFully(in, 2);
+                break;
+            case TAG_INT:
+            case TAG_FLOAT:
+                skipFully(in, 4);
+                break;
+            case TAG_LONG:
+            case TAG_DOUBLE:
+                skipFully(in, 8);
+                break;
+            case TAG_BYTE_ARRAY:
+                skipFully(in, in.readInt());
+                break;
+            case TAG_STRING:
+                skipFully(in, in.readUnsignedShort());
+                break;
+            case TAG_LIST:
+                int elementType = in.readUnsignedByte();
+                int size = in.readInt();
+                for (int i = 0; i < size; i++) {
+                    skip(in, elementType);
+                }
+                break;
+            case TAG_COMPOUND:
+                int childType;
+                while ((childType = in.readUnsignedByte()) != TAG_END) {
+                    skipFully(in, in.readUnsignedShort());
+                    skip(in, childType);
+                }
+                break;
+            case TAG_INT_ARRAY:
+                skipFully(in, 4L * in.readInt());
+                break;
+            default:
+                throw new IOException("Unknown NBT tag type " + type);
+        }
+    }
+
+    private static void skipFully(DataInputStream in, long bytes) throws IOException {
+        while (bytes > 0) {
+            long skipped = in.skip(bytes);
+            if (skipped <= 0) {
+                // skip() may return 0 before the end of the stream; read() tells the two apart.
+                if (in.read() == -1) {
+                    throw new EOFException();
+                }
+                skipped = 1;
+            }
+            bytes -= skipped;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2016 Dabo Ross <http://www.daboross.net/>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.daboross.bukkitdev.skywars.world;
+
+import net.daboross.bukkitdev.bukkitstorageprotobuf.MultiPartOperation;
+import net.daboross.bukkitdev.bukkitstorageprotobuf.compiled.BlockStorage;
+import net.daboross.bukkitdev.skywars.api.location.SkyBlockLocation;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.World;
+
+/**
+ * Clears an area to air one 16x16x16 chunk section per part, skipping sections which are already empty.
+ * <p>
+ * Almost all of an arena's clearing area is empty space which was never touched. Rather than setting every block in
+ * it, each chunk column is read once with a chunk snapshot: sections the snapshot reports as empty are skipped without
+ * touching the world, and in the remaining sections only the blocks which aren't already air are set.
+ * <p>
+ * If the arena's cached blocks are given, chunk columns which aren't loaded and which are all air in the arena are
+ * skipped without being loaded at all. Copies only preload the columns which aren't all air, and arena chunks are held
+ * loaded from the copy until they're cleared, so such a column can't have been built in.
+ */
+public class SectionClearOperation implements MultiPartOperation {
+
+    private static final BlockStorage.Block AIR = BlockStorage.Block.newBuilder().setId(0).build();
+    private final BlockWriter writer;
+    private final SkyBlockLocation min;
+    private final SkyBlockLocation max;
+    private final PalettedBlockArea area;
+    private final SkyBlockLocation zero;
+    private final int minChunkX;
+    private final int minChunkZ;
+    private final int width;
+    private final int minSectionY;
+    private final int sectionsY;
+    private final int sectionCount;
+    private int nextSection;
+    private ChunkSnapshot snapshot;
+
+    public SectionClearOperation(final BlockWriter writer, final SkyBlockLocation min, final SkyBlockLocation max) {
+        this(writer, min, max, null, null);
+    }
+
+    /**
+     * @param area the cached blocks of the arena copied to zero, or null to check every chunk column.
+     * @param zero the location the arena was copied to.
+     */
+    public SectionClearOperation(final BlockWriter writer, final SkyBlockLocation min, final SkyBlockLocation max, final PalettedBlockArea area, final SkyBlockLocation zero) {
+        this.writer = writer;
+        this.min = min;
+        this.max = max;
+        this.area = area;
+        this.zero = zero;
+        this.minChunkX = min.x >> 4;
+        this.minChunkZ = min.z >> 4;
+        this.width = (max.x >> 4) - minChunkX + 1;
+        int maxHeight = writer.getWorld().getMaxHeight();
+        this.minSectionY = Math.max(0, min.y) >> 4;
+        int maxSectionY = Math.min(maxHeight - 1, max.y) >> 4;
+        this.sectionsY = Math.max(0, maxSectionY - minSectionY + 1);
+        this.sectionCount = width * ((max.z >> 4) - minChunkZ + 1) * sectionsY;
+    }
+
+    /**
+     * Clears the whole area immediately.
+     */
+    public static void clearNow(BlockWriter writer, SkyBlockLocation min, SkyBlockLocation max, PalettedBlockArea area, SkyBlockLocation zero) {
+        SectionClearOperation operation = new SectionClearOperation(writer, min, max, area, zero);
+        while (operation.getPartsLeft() > 0) {
+            operation.performNextPart();
+        }
+    }
+
+    @Override
+    public void performNextPart() {
+        World world = writer.getWorld();
+        while (nextSection < sectionCount) {
+            int chunk = nextSection / sectionsY;
+            int sectionY = minSectionY + nextSection % sectionsY;
+            int chunkX = minChunkX + chunk % width;
+            int chunkZ = minChunkZ + chunk / width;
+            if (sectionY == minSectionY) {
+                if (area != null && !world.isChunkLoaded(chunkX, chunkZ) && isColumnAirInArena(chunkX, chunkZ)) {
+                    nextSection += sectionsY;
+                    continue;
+                }
+                snapshot = world.getChunkAt(chunkX, chunkZ).getChunkSnapshot(false, false, false);
+            }
+            nextSection++;
+            if (!snapshot.isSectionEmpty(sectionY)) {
+                clearSection(chunkX, sectionY, chunkZ);
+                return;
+            }
+        }
+    }
+
+    private boolean isColumnAirInArena(int chunkX, int chunkZ) {
+        return isColumnAir(area, zero, min, max, chunkX, chunkZ);
+    }
+
+    /**
+     * Checks whether the part of a chunk column inside the given area is all air in an arena copied to zero.
+     */
+    static boolean isColumnAir(PalettedBlockArea area, SkyBlockLocation zero, SkyBlockLocation min, SkyBlockLocation max, int chunkX, int chunkZ) {
+        int fromX = Math.max(min.x, chunkX << 4);
+        int toX = Math.min(max.x, (chunkX << 4) + 15);
+        int fromZ = Math.max(min.z, chunkZ << 4);
+        int toZ = Math.min(max.z, (chunkZ << 4) + 15);
+        return area.isAllAir(fromX - zero.x, min.y - zero.y, fromZ - zero.z, toX - zero.x, max.y - zero.y, toZ - zero.z);
+    }
+
+    @SuppressWarnings("deprecation")
+    private void clearSection(int chunkX, int sectionY, int chunkZ) {
+        int fromX = Math.max(min.x, chunkX << 4);
+        int toX = Math.min(max.x, (chunkX << 4) + 15);
+        int fromY = Math.max(min.y, sectionY << 4);
+        int toY = Math.min(max.y, (sectionY << 4) + 15);
+        int fromZ = Math.max(min.z, chunkZ << 4);
+        int toZ = Math.min(max.z, (chunkZ << 4) + 15);
+        for (int y = fromY; y <= toY; y++) {
+            for (int x = fromX; x <= toX; x++) {
+                for (int z = fromZ; z <= toZ; z++) {
+                    if (snapshot.getBlockTypeId(x & 15, y, z & 15) != 0) {
+                        writer.setBlock(x, y, z, AIR);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public int getPartsLeft() {
+        return sectionCount - nextSection;
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2016 Dabo Ross <http://www.daboross.net/>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.daboross.bukkitdev.skywars.world;
+
+import net.daboross.bukkitdev.bukkitstorageprotobuf.ChestProvider;
+import net.daboross.bukkitdev.bukkitstorageprotobuf.MultiPartOperation;
+import net.daboross.bukkitdev.bukkitstorageprotobuf.compiled.BlockStorage;
+import net.daboross.bukkitdev.skywars.api.location.SkyBlockLocation;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.World;
+
+/**
+ * Restores an area holding a played-in copy of an arena back to the cached arena, one 16x16x16 chunk section per
+ * part, without knowing which blocks were changed.
+ * <p>
+ * Like {@link SectionClearOperation}, each chunk column is read once with a chunk snapshot. Sections which are empty
+ * both in the world and in the cached arena are skipped, and in the rest only blocks which differ from the cached
+ * arena are set. Positions in the area outside of the cached arena are expected to be air. Once all sections are
+ * done, every block holding an inventory is restored so that chests are refilled.
+ */
+public class SectionRestoreOperation implements MultiPartOperation {
+
+    private final BlockWriter writer;
+    private final PalettedBlockArea area;
+    private final SkyBlockLocation zero;
+    private final SkyBlockLocation min;
+    private final SkyBlockLocation max;
+    private final MultiPartOperation inventoryRestore;
+    private final int minChunkX;
+    private final int minChunkZ;
+    private final int width;
+    private final int minSectionY;
+    private final int sectionsY;
+    private final int sectionCount;
+    private int nextSection;
+    private ChunkSnapshot snapshot;
+
+    /**
+     * @param zero          the location the arena was copied to.
+     * @param min           the absolute minimum corner of the area to restore.
+     * @param max           the absolute maximum corner of the area to restore.
+     * @param blocksPerPart how many inventory blocks to restore per part once all sections are done.
+     */
+    public SectionRestoreOperation(final BlockWriter writer, final PalettedBlockArea area, final SkyBlockLocation zero,
+                                   final SkyBlockLocation min, final SkyBlockLocation max, final ChestProvider chestProvider, final int blocksPerPart) {
+        this.writer = writer;
+        this.area = area;
+        this.zero = zero;
+        this.min = min;
+        this.max = max;
+        this.inventoryRestore = area.restoreMultiPart(writer, zero.x, zero.y, zero.z, chestProvider, new long[0], blocksPerPart);
+        this.minChunkX = min.x >> 4;
+        this.minChunkZ = min.z >> 4;
+        this.width = (max.x >> 4) - minChunkX + 1;
+        int maxHeight = writer.getWorld().getMaxHeight();
+        this.minSectionY = Math.max(0, min.y) >> 4;
+        int maxSectionY = Math.min(maxHeight - 1, max.y) >> 4;
+        this.sectionsY = Math.max(0, maxSectionY - minSectionY + 1);
+        this.sectionCount = width * ((max.z >> 4) - minChunkZ + 1) * sectionsY;
+    }
+
+    @Override
+    public void performNextPart() {
+        World world = writer.getWorld();
+        while (nextSection < sectionCount) {
+            int chunk = nextSection / sectionsY;
+            int sectionY = minSectionY + nextSection % sectionsY;
+            int chunkX = minChunkX + chunk % width;
+            int chunkZ = minChunkZ + chunk / width;
+            if (sectionY == minSectionY) {
+                snapshot = world.getChunkAt(chunkX, chunkZ).getChunkSnapshot(false, false, false);
+            }
+            nextSection++;
+            int fromX = Math.max(min.x, chunkX << 4);
+            int fromY = Math.max(min.y, sectionY << 4);
+            int fromZ = Math.max(min.z, chunkZ << 4);
+            int toX = Math.min(max.x, (chunkX << 4) + 15);
+            int toY = Math.min(max.y, (sectionY << 4) + 15);
+            int toZ = Math.min(max.z, (chunkZ << 4) + 15);
+            if (!snapshot.isSectionEmpty(sectionY) || !area.isAllAir(fromX - zero.x, fromY - zero.y, fromZ - zero.z,
+                    toX - zero.x, toY - zero.y, toZ - zero.z)) {
+                restoreSection(fromX, fromY, fromZ, toX, toY, toZ);
+                return;
+            }
+        }
+        if (inventoryRestore.getPartsLeft() > 0) {
+            inventoryRestore.performNextPart();
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private void restoreSection(int fromX, int fromY, int fromZ, int toX, int toY, int toZ) {
+        for (int y = fromY; y <= toY; y++) {
+            int relY = y - zero.y;
+            for (int x = fromX; x <= toX; x++) {
+                int relX = x - zero.x;
+                for (int z = fromZ; z <= toZ; z++) {
+                    int relZ = z - zero.z;
+                    BlockStorage.Block expected;
+                    if (relX >= 0 && relY >= 0 && relZ >= 0 && relX < area.lengthX && relY < area.lengthY && relZ < area.lengthZ) {
+                        expected = area.getBlock(relX, relY, relZ);
+                    } else {
+                        expected = area.getPaletteEntry(PalettedBlockArea.AIR);
+                    }
+                    if (snapshot.getBlockTypeId(x & 15, y, z & 15) != expected.getId()
+                            || snapshot.getBlockData(x & 15, y, z & 15) != expected.getData()) {
+                        writer.setBlock(x, y, z, expected);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public int getPartsLeft() {
+        return sectionCount - nextSection + inventoryRestore.getPartsLeft();
+    }
+}
@@ -23,45 +23,93 @@ import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.LinkOption;
 import java.nio.file.Path;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.Set;
 import java.util.UUID;
 import java.util.logging.Level;
+import net.daboross.bukkitdev.skywars.SkyWarsPlugin;
 import net.daboross.bukkitdev.skywars.api.SkyStatic;
-import net.daboross.bukkitdev.skywars.api.SkyWars;
 import net.daboross.bukkitdev.skywars.api.arenaconfig.SkyArena;
 import net.daboross.bukkitdev.skywars.api.arenaconfig.SkyArenaConfig;
-import net.daboross.bukkitdev.skywars.api.game.SkyGame;
 import net.daboross.bukkitdev.skywars.api.location.SkyBlockLocation;
 import net.daboross.bukkitdev.skywars.api.location.SkyPlayerLocation;
 import net.daboross.bukkitdev.skywars.events.events.GameEndInfo;
 import net.daboross.bukkitdev.skywars.events.events.GameStartInfo;
 import net.daboross.bukkitdev.skywars.game.ArenaGame;
-import net.daboross.bukkitdev.skywars.util.ReusableIdHandler;
+import net.daboross.bukkitdev.skywars.game.GameQueue;
+import net.daboross.bukkitdev.skywars.game.GameQueueManager;
 import net.daboross.bukkitdev.skywars.world.providers.ProtobufStorageProvider;
 import net.daboross.bukkitdev.skywars.world.providers.WorldEditProtobufStorageProvider;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
-import org.bukkit.Material;
 import org.bukkit.World;
-import org.bukkit.WorldCreator;
-import org.bukkit.WorldType;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 
 public class SkyWorldHandler {
 
-    private final SkyWars plugin;
+    /**
+     * Time given to copy, restore and destroy operations which no game is waiting on, while the server keeps up.
+     */
+    private static final long BACKGROUND_OPERATION_TICKS = 2 * 60 * 20;
+    /**
+     * Time given to operations preparing an arena the queue is waiting for.
+     */
+    private static final long DEMANDED_OPERATION_TICKS = 10 * 20;
+    /**
+     * Lowest tick headroom used when stretching deadlines, so a very slow server still finishes operations eventually.
+     */
+    private static final double MIN_TICK_HEADROOM = 0.25;
+    private final SkyWarsPlugin plugin;
     private final WorldProvider provider;
-    private final HashMap<SkyArena, OperationHandle> currentlyCopyingArenas = new HashMap<>();
-    private final ReusableIdHandler locationIdHandler = new ReusableIdHandler();
-    private World arenaWorld;
+    private final WorldOperationExecutor operationExecutor;
+    /**
+     * Copies being made for the next game of each queue, by queue. Each queue has its own, so queues whose next games
+     * are on the same arena don't take each other's copy.
+     */
+    private final HashMap<GameQueue, OperationHandle> currentlyCopyingArenas = new HashMap<>();
+    /**
+     * Locations, by arena name, which hold (or are being made to hold) a fresh copy of an arena ready for a new game.
+     */
+    private final HashMap<String, Deque<OperationHandle>> readyArenas = new HashMap<>();
+    private final ArenaChangeTracker changeTracker;
+    private final WorldMetrics metrics = new WorldMetrics();
+    private final ArenaChunkHolder chunkHolder = new ArenaChunkHolder(metrics);
+    private final ParallelArenaLoader arenaLoader;
+    private final LootPregenerator lootPregenerator;
+    // Seeds for the chest contents of each arena copy, so a game's loot can be reproduced.
+    private final Random lootSeeds = new Random();
+    // Names of arenas being loaded by loadNewArenaInBackground. Only accessed from the server thread.
+    private final Set<String> backgroundLoads = new HashSet<>();
+    // Evicted arenas waiting to be loaded again. They are loaded one at a time, so that each load only evicts arenas
+    // whose copies have already started. Only accessed from the server thread.
+    private final Deque<SkyArenaConfig> evictedReloads = new ArrayDeque<>();
+    private boolean reloadingEvicted;
+    // Copies requested for evicted arenas, by the queue which requested them, with the time (in milliseconds) they
+    // should be done by.
+    private final Map<GameQueue, Long> pendingCopies = new HashMap<>();
+    // Queues whose next game is waiting for its evicted arena to be loaded again before starting.
+    private final Set<GameQueue> delayedStarts = new HashSet<>();
+    private final List<ArenaItemSweeper> itemSweepers = new ArrayList<>();
+    private final ArenaWorlds arenaWorlds;
+    private boolean arenasLoaded;
 
-    public SkyWorldHandler(SkyWars plugin) {
+    public SkyWorldHandler(SkyWarsPlugin plugin) {
         this.plugin = plugin;
+        this.operationExecutor = new WorldOperationExecutor(plugin);
+        this.arenaLoader = new ParallelArenaLoader(plugin);
+        this.lootPregenerator = new LootPregenerator(plugin);
+        this.arenaWorlds = new ArenaWorlds(plugin.getConfiguration().getArenaWorldCount(), plugin.getConfiguration().getArenaSpacingChunks());
+        this.changeTracker = new ArenaChangeTracker(plugin.getConfiguration().getArenaCopyingMaxTrackedChanges());
         boolean useWorldEdit = false;
         if (plugin.getConfiguration().isWorldeditHookEnabled() && plugin.getServer().getPluginManager().isPluginEnabled("WorldEdit")) {
             useWorldEdit = true;
@@ -100,21 +148,21 @@ public class SkyWorldHandler {
         }
         if (useWorldEdit) {
             plugin.getLogger().info("Using WorldEdit backend for arena creation.");
-            this.provider = new WorldEditProtobufStorageProvider(plugin);
+            this.provider = new WorldEditProtobufStorageProvider(plugin, operationExecutor, chunkHolder, arenaLoader, lootPregenerator);
         } else {
             plugin.getLogger().info("Using internal (non-WorldEdit) backend for arena creation.");
-            this.provider = new ProtobufStorageProvider(plugin);
+            this.provider = new ProtobufStorageProvider(plugin, operationExecutor, chunkHolder, arenaLoader, lootPregenerator);
         }
     }
 
     public void loadArenas() {
+        if (!arenaLoader.loadAll(provider, plugin.getConfiguration().getEnabledArenas()).isEmpty()) {
+            plugin.getServer().getPluginManager().disablePlugin(plugin);
+            return;
+        }
+        arenasLoaded = true;
         for (SkyArenaConfig arena : plugin.getConfiguration().getEnabledArenas()) {
-            try {
-                provider.loadArena(arena, false);
-            } catch (IOException e) {
-                plugin.getLogger().log(Level.SEVERE, "Failed to load arena '" + arena.getArenaName() + "':", e);
-                plugin.getServer().getPluginManager().disablePlugin(plugin);
-            }
+            fillReadyArenas(arena);
         }
     }
 
@@ -123,80 +171,391 @@ public class SkyWorldHandler {
      * .yml files.
      */
     public void loadNewArena(SkyArenaConfig arena, boolean forceReload) throws IOException {
-        provider.loadArena(arena, forceReload);
+        provider.loadArena(arena, forceReload, null);
+        arenaLoaded(arena, forceReload);
     }
 
-    public void create() {
-        arenaWorld = plugin.getServer().getWorld(Statics.ARENA_WORLD_NAME);
-        if (arenaWorld == null) {
-            plugin.getLogger().info("Loading world '" + Statics.ARENA_WORLD_NAME + "'.");
-            WorldCreator arenaWorldCreator = new WorldCreator(Statics.ARENA_WORLD_NAME);
-            arenaWorldCreator.generateStructures(false);
-            arenaWorldCreator.generator(new VoidGenerator());
-            arenaWorldCreator.type(WorldType.FLAT);
-            arenaWorldCreator.seed(0);
-            arenaWorld = arenaWorldCreator.createWorld();
-            plugin.getLogger().info("Done loading world '" + Statics.ARENA_WORLD_NAME + "'.");
+    /**
+     * Like {@link #loadNewArena(SkyArenaConfig, boolean)}, but creates the cache on a worker thread so that large
+     * arenas don't freeze the server. The listener is called on the server thread.
+     *
+     * @return false if the arena is already being loaded in the background, in which case nothing is done.
+     */
+    public boolean loadNewArenaInBackground(SkyArenaConfig arena, boolean forceReload, ArenaLoadListener listener) {
+        if (!backgroundLoads.add(arena.getArenaName())) {
+            return false;
+        }
+        arenaLoader.loadInBackground(provider, arena, forceReload, backgroundLoadFinisher(forceReload, listener));
+        return true;
+    }
+
+    /**
+     * Stores blocks imported from a schematic as a new arena's cache on a worker thread, then loads the arena. The
+     * listener is called on the server thread.
+     *
+     * @return false if the arena is already being loaded in the background, in which case nothing is done.
+     */
+    public boolean importArenaInBackground(SkyArenaConfig arena, PalettedBlockArea blocks, ArenaLoadListener listener) {
+        if (!backgroundLoads.add(arena.getArenaName())) {
+            return false;
+        }
+        arenaLoader.importInBackground(provider, arena, blocks, backgroundLoadFinisher(true, listener));
+        return true;
+    }
+
+    private ArenaLoadListener backgroundLoadFinisher(final boolean forceReload, final ArenaLoadListener listener) {
+        return new ArenaLoadListener() {
+            @Override
+            public void onProgress(final int percentDone) {
+                listener.onProgress(percentDone);
+            }
+
+            @Override
+            public void onLoaded(final SkyArenaConfig arena) {
+                backgroundLoads.remove(arena.getArenaName());
+                arenaLoaded(arena, forceReload);
+                listener.onLoaded(arena);
+            }
+
+            @Override
+            public void onFailed(final SkyArenaConfig arena, final Exception ex) {
+                backgroundLoads.remove(arena.getArenaName());
+                listener.onFailed(arena, ex);
+            }
+        };
+    }
+
+    private void arenaLoaded(SkyArenaConfig arena, boolean forceReload) {
+        if (forceReload) {
+            // Ready copies were made from the old cache.
+            discardReadyArenas(arena);
+        }
+        if (plugin.getConfiguration().getEnabledArenas().contains(arena)) {
+            fillReadyArenas(arena);
+        }
+    }
+
+    /**
+     * Loads an arena's blocks again in the background if they have been evicted from the cache, and hurries a ready
+     * copy for each queue whose next game is on the arena. Called when an arena is chosen for a queue's next game.
+     */
+    public void prepareArena(SkyArena arena) {
+        if (!arenasLoaded) {
+            return;
+        }
+        if (!provider.isLoaded(arena)) {
+            reloadEvicted(arena, true);
         } else {
-            plugin.getLogger().info("The world '" + Statics.ARENA_WORLD_NAME + "' was already loaded.");
+            // Another queue may already be planning a game on this arena, and need a ready copy of its own.
+            fillReadyArenas(arena);
+        }
+        int planning = getQueuesPlanning(arena);
+        synchronized (readyArenas) {
+            Deque<OperationHandle> ready = readyArenas.get(arena.getArenaName());
+            if (ready != null) {
+                Iterator<OperationHandle> iterator = ready.iterator();
+                for (int i = 0; i < planning && iterator.hasNext(); i++) {
+                    iterator.next().finishWithin(DEMANDED_OPERATION_TICKS);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the number of queues whose next game is on the given arena, or 1 before the queues exist.
+     */
+    private int getQueuesPlanning(SkyArena arena) {
+        GameQueueManager queues = plugin.getGameQueue();
+        if (queues == null) {
+            return 1;
         }
-        arenaWorld.setAutoSave(false);
-        arenaWorld.getBlockAt(-5000, 45, -5000).setType(Material.STONE);
-        arenaWorld.setSpawnLocation(-5000, 50, -5000);
-        for (Map.Entry<String, String> entry : plugin.getConfiguration().getArenaGamerules().entrySet()) {
-            arenaWorld.setGameRuleValue(entry.getKey(), entry.getValue());
+        int planning = 0;
+        for (GameQueue queue : queues.getQueues()) {
+            SkyArena planned = queue.getPlannedArena();
+            if (planned != null && planned.getArenaName().equals(arena.getArenaName())) {
+                planning++;
+            }
+        }
+        return planning;
+    }
+
+    /**
+     * @return how many ready copies to keep of the given arena: the configured number, but at least one for each
+     * queue whose next game is on it unless ready copies are turned off.
+     */
+    private int getReadyTarget(SkyArena arena) {
+        int configured = plugin.getConfiguration().getArenaCopyingReadyArenas();
+        return configured <= 0 ? 0 : Math.max(configured, getQueuesPlanning(arena));
+    }
+
+    /**
+     * Loads an evicted arena again on a worker thread, after the other evicted arenas waiting to be loaded. Copies of
+     * the arena which were waiting for it are started once it's loaded.
+     *
+     * @param urgent whether to load it before the other waiting arenas, because a game will use it soon.
+     */
+    private void reloadEvicted(SkyArena arena, boolean urgent) {
+        if (!(arena instanceof SkyArenaConfig) || backgroundLoads.contains(arena.getArenaName())) {
+            return;
+        }
+        SkyArenaConfig config = (SkyArenaConfig) arena;
+        if (urgent) {
+            evictedReloads.remove(config);
+            evictedReloads.addFirst(config);
+        } else if (!evictedReloads.contains(config)) {
+            evictedReloads.addLast(config);
+        }
+        reloadNextEvicted();
+    }
+
+    private void reloadNextEvicted() {
+        if (reloadingEvicted) {
+            return;
+        }
+        final SkyArenaConfig arena = evictedReloads.pollFirst();
+        if (arena == null) {
+            return;
+        }
+        reloadingEvicted = true;
+        backgroundLoads.add(arena.getArenaName());
+        SkyStatic.debug("Loading evicted arena %s in the background.", arena.getArenaName());
+        arenaLoader.loadInBackground(provider, arena, false, new ArenaLoadListener() {
+            @Override
+            public void onProgress(final int percentDone) {
+            }
+
+            @Override
+            public void onLoaded(final SkyArenaConfig arena) {
+                backgroundLoads.remove(arena.getArenaName());
+                reloadingEvicted = false;
+                for (Map.Entry<GameQueue, Long> pending : new ArrayList<>(pendingCopies.entrySet())) {
+                    if (pending.getKey().getPlannedArena().getArenaName().equals(arena.getArenaName())) {
+                        pendingCopies.remove(pending.getKey());
+                        startCopyingArena(pending.getKey(), arena, Math.max(1, (pending.getValue() - System.currentTimeMillis()) / 50));
+                    }
+                }
+                if (plugin.getConfiguration().getEnabledArenas().contains(arena)) {
+                    fillReadyArenas(arena);
+                }
+                for (GameQueue queue : new ArrayList<>(delayedStarts)) {
+                    if (queue.getPlannedArena().getArenaName().equals(arena.getArenaName())) {
+                        delayedStarts.remove(queue);
+                        if (queue.areMinPlayersPresent()) {
+                            SkyStatic.debug("Starting game delayed until %s was loaded.", arena.getArenaName());
+                            plugin.getGameHandler().startNewGame(queue);
+                        }
+                    }
+                }
+                reloadNextEvicted();
+            }
+
+            @Override
+            public void onFailed(final SkyArenaConfig arena, final Exception ex) {
+                backgroundLoads.remove(arena.getArenaName());
+                reloadingEvicted = false;
+                for (Iterator<GameQueue> iterator = pendingCopies.keySet().iterator(); iterator.hasNext(); ) {
+                    if (iterator.next().getPlannedArena().getArenaName().equals(arena.getArenaName())) {
+                        iterator.remove();
+                    }
+                }
+                for (Iterator<GameQueue> iterator = delayedStarts.iterator(); iterator.hasNext(); ) {
+                    if (iterator.next().getPlannedArena().getArenaName().equals(arena.getArenaName())) {
+                        iterator.remove();
+                    }
+                }
+                plugin.getLogger().log(Level.SEVERE, "Failed to load arena '" + arena.getArenaName() + "':", ex);
+                reloadNextEvicted();
+            }
+        });
+    }
+
+    public void create() {
+        arenaWorlds.create(plugin, plugin.getConfiguration().getArenaGamerules());
+        int itemLifetime = plugin.getConfiguration().getArenaItemLifetime();
+        if (itemLifetime > 0) {
+            for (World arenaWorld : arenaWorlds.getWorlds()) {
+                ArenaItemSweeper itemSweeper = new ArenaItemSweeper(arenaWorld, itemLifetime);
+                itemSweeper.start(plugin);
+                itemSweepers.add(itemSweeper);
+            }
         }
-        arenaWorld.setTime(4000);
     }
 
     public void destroyArenaWorld() {
-        Path worldFolder = arenaWorld.getWorldFolder().toPath();
-        Bukkit.unloadWorld(arenaWorld, false);
-        arenaWorld = null;
-        if (Files.exists(worldFolder)) {
-            plugin.getLogger().info("Cleaning up: Deleting " + worldFolder);
-            try {
-                deletePath(worldFolder);
-            } catch (IOException e) {
-                plugin.getLogger().log(Level.SEVERE, "Failed to delete " + worldFolder, e);
+        arenaLoader.shutdown();
+        lootPregenerator.shutdown();
+        for (ArenaItemSweeper itemSweeper : itemSweepers) {
+            itemSweeper.stop(plugin);
+        }
+        itemSweepers.clear();
+        for (World arenaWorld : arenaWorlds.getWorlds()) {
+            Path worldFolder = arenaWorld.getWorldFolder().toPath();
+            Bukkit.unloadWorld(arenaWorld, false);
+            if (Files.exists(worldFolder)) {
+                plugin.getLogger().info("Cleaning up: Deleting " + worldFolder);
+                try {
+                    deletePath(worldFolder);
+                } catch (IOException e) {
+                    plugin.getLogger().log(Level.SEVERE, "Failed to delete " + worldFolder, e);
+                }
             }
         }
+        arenaWorlds.clearWorlds();
     }
 
-    public void startCopyingArena(SkyArena arena, final long ticksTillCompletion) {
+    /**
+     * Starts making the copy of an arena which a queue's next game will be played in, taking one of the arena's ready
+     * copies if there is one. Does nothing if the queue already has a copy being made.
+     */
+    public void startCopyingArena(GameQueue queue, SkyArena arena, final long ticksTillCompletion) {
         synchronized (currentlyCopyingArenas) {
-            OperationHandle handle = currentlyCopyingArenas.get(arena);
+            OperationHandle handle = currentlyCopyingArenas.get(queue);
             if (handle == null) {
-                int newLocationId = locationIdHandler.getNextId();
-                handle = provider.startCopyOperation(arenaWorld, arena, getMinLocation(newLocationId, arena), ticksTillCompletion);
+                handle = pollReadyArena(arena);
+                if (handle != null) {
+                    SkyStatic.debug("Using ready location %s for %s.", handle.getTargetLocationId(), arena.getArenaName());
+                    handle.finishWithin(ticksTillCompletion);
+                    currentlyCopyingArenas.put(queue, handle);
+                    return;
+                }
+                if (!provider.isLoaded(arena)) {
+                    // Copied once the arena is loaded again, rather than loading it on the server thread.
+                    pendingCopies.put(queue, System.currentTimeMillis() + ticksTillCompletion * 50);
+                    reloadEvicted(arena, true);
+                    return;
+                }
+                int newLocationId = arenaWorlds.allocate(arena);
+                long lootSeed = lootSeeds.nextLong();
+                handle = provider.startCopyOperation(arenaWorlds.getWorld(newLocationId), arena, arenaWorlds.getMinLocation(newLocationId), ticksTillCompletion, lootSeed);
                 handle.setTargetLocationId(newLocationId);
-                currentlyCopyingArenas.put(arena, handle);
+                handle.setLootSeed(lootSeed);
+                currentlyCopyingArenas.put(queue, handle);
             }
         }
     }
 
+    /**
+     * Checks whether a queue's next game can start right away. It can't if its arena has been evicted and no copy of
+     * it is being made: the arena is then loaded again in the background, and the game is started once it's loaded
+     * rather than loading the arena on the server thread.
+     *
+     * @return true if the game can start now, false if it will be started once its arena is loaded.
+     */
+    public boolean readyToStart(GameQueue queue) {
+        SkyArena arena = queue.getPlannedArena();
+        if (arena == null || provider.isLoaded(arena)) {
+            return true;
+        }
+        synchronized (currentlyCopyingArenas) {
+            if (currentlyCopyingArenas.containsKey(queue)) {
+                return true;
+            }
+        }
+        synchronized (readyArenas) {
+            Deque<OperationHandle> ready = readyArenas.get(arena.getArenaName());
+            if (ready != null && !ready.isEmpty()) {
+                return true;
+            }
+        }
+        SkyStatic.debug("Delaying game start until %s is loaded.", arena.getArenaName());
+        delayedStarts.add(queue);
+        reloadEvicted(arena, true);
+        return false;
+    }
+
     public void onGameStart0(GameStartInfo info) {
         // Copy arena *first* before doing anything else.
         ArenaGame game = info.getGame();
         SkyArena arena = game.getArena();
-        if (currentlyCopyingArenas.containsKey(arena)) {
+        OperationHandle copyOperation;
+        synchronized (currentlyCopyingArenas) {
+            copyOperation = currentlyCopyingArenas.remove(game.getQueue());
+        }
+        // Games only start before their evicted arena is loaded again if a copy of it exists already.
+        pendingCopies.remove(game.getQueue());
+        delayedStarts.remove(game.getQueue());
+        if (copyOperation == null) {
+            copyOperation = pollReadyArena(arena);
+        }
+        if (copyOperation != null) {
             SkyStatic.debug("Finishing existing arena copy operation for %s.", arena.getArenaName());
-            OperationHandle copyOperation = currentlyCopyingArenas.remove(arena);
             copyOperation.completeOperationNow();
             game.setLocationId(copyOperation.getTargetLocationId());
             game.setMin(copyOperation.getZeroLocation());
+            game.setLootSeed(copyOperation.getLootSeed());
         } else {
             SkyStatic.debug("Didn't find an already-running copy operation for %s!", arena.getArenaName());
-            game.setLocationId(locationIdHandler.getNextId());
-            SkyBlockLocation min = getMinLocation(game);
+            game.setLocationId(arenaWorlds.allocate(arena));
+            SkyBlockLocation min = arenaWorlds.getMinLocation(game.getLocationId());
             game.setMin(min);
-            provider.copyArena(arenaWorld, game.getArena(), min);
+            game.setLootSeed(lootSeeds.nextLong());
+            provider.copyArena(arenaWorlds.getWorld(game.getLocationId()), game.getArena(), min, game.getLootSeed());
+        }
+        SkyStatic.debug("Game %s uses loot seed %s.", game.getId(), game.getLootSeed());
+        arenaWorlds.gameStarted(game.getLocationId());
+        if (plugin.getConfiguration().isArenaCopyingResetChangedOnly()) {
+            changeTracker.startTracking(game);
+        }
+        fillReadyArenas(arena);
+    }
+
+    private OperationHandle pollReadyArena(SkyArena arena) {
+        synchronized (readyArenas) {
+            Deque<OperationHandle> ready = readyArenas.get(arena.getArenaName());
+            return ready == null ? null : ready.pollFirst();
+        }
+    }
+
+    private Deque<OperationHandle> getReadyArenas(SkyArena arena) {
+        Deque<OperationHandle> ready = readyArenas.get(arena.getArenaName());
+        if (ready == null) {
+            ready = new ArrayDeque<>();
+            readyArenas.put(arena.getArenaName(), ready);
+        }
+        return ready;
+    }
+
+    /**
+     * Starts background copies of the arena until the number of ready copies from {@link #getReadyTarget(SkyArena)}
+     * exist.
+     */
+    private void fillReadyArenas(SkyArena arena) {
+        int target = getReadyTarget(arena);
+        synchronized (readyArenas) {
+            Deque<OperationHandle> ready = getReadyArenas(arena);
+            if (ready.size() < target && !provider.isLoaded(arena)) {
+                // Filled once the arena is loaded again.
+                reloadEvicted(arena, false);
+                return;
+            }
+            while (ready.size() < target) {
+                int locationId = arenaWorlds.allocate(arena);
+                SkyStatic.debug("Starting background copy of %s to location %s.", arena.getArenaName(), locationId);
+                long lootSeed = lootSeeds.nextLong();
+                OperationHandle handle = provider.startCopyOperation(arenaWorlds.getWorld(locationId), arena, arenaWorlds.getMinLocation(locationId), getReadyCopyTicks(arena), lootSeed);
+                handle.setTargetLocationId(locationId);
+                handle.setLootSeed(lootSeed);
+                ready.addLast(handle);
+            }
+        }
+    }
+
+    private void discardReadyArenas(SkyArena arena) {
+        synchronized (readyArenas) {
+            Deque<OperationHandle> ready = readyArenas.remove(arena.getArenaName());
+            if (ready == null) {
+                return;
+            }
+            for (OperationHandle handle : ready) {
+                handle.cancelOperation();
+                destroyLocation(arena, handle.getZeroLocation(), handle.getTargetLocationId());
+            }
         }
     }
 
     public void onGameStart1(GameStartInfo info) {
         ArenaGame game = info.getGame();
-        SkyBlockLocation min = getMinLocation(game);
+        SkyBlockLocation min = game.getMin();
         List<SkyPlayerLocation> spawns = new ArrayList<>(game.getArena().getSpawns());
         Collections.shuffle(spawns);
         if (game.areTeamsEnabled()) {
@@ -228,29 +587,102 @@ public class SkyWorldHandler {
 
     public void onGameEnd(GameEndInfo info) {
         ArenaGame game = info.getGame();
-        final int locationId = info.getGame().getId();
+        final int locationId = game.getLocationId();
+        arenaWorlds.gameEnded(locationId);
+        int chunkLoads = chunkHolder.takeChunkLoads(game.getMin().add(game.getArena().getBoundaries().getClearing().min));
+        metrics.recordGameChunkLoads(chunkLoads);
+        SkyStatic.debug("Game %s loaded %s chunks in the arena world.", game.getId(), chunkLoads);
+        int target = getReadyTarget(game.getArena());
+        synchronized (readyArenas) {
+            // Once enough copies are ready, the location is given back rather than kept for this arena. The same goes
+            // for evicted arenas, as restoring them would load them on the server thread.
+            if (getReadyArenas(game.getArena()).size() >= target || !provider.isLoaded(game.getArena())) {
+                destroyLocation(game.getArena(), game.getMin(), locationId);
+                return;
+            }
+        }
+        // The game stays tracked while its location is restored, so that blocks still changing get restored as well.
+        long[] changedPositions = changeTracker.takeChanges(game.getId());
+        LateChangeSource lateChanges = changeTracker.isTracking(game.getId()) ? changeTracker.getLateChanges(game.getId()) : null;
+        if (changedPositions != null) {
+            SkyStatic.debug("Starting restore operation of %s changed blocks for arena at %s.", changedPositions.length, locationId);
+        } else {
+            // Comparing against the cached arena is cheaper than clearing the location and copying the arena again.
+            SkyStatic.debug("Starting restore operation of untracked changes for arena at %s.", locationId);
+        }
+        // The location keeps its id, and is used for the next game in the same arena.
+        long lootSeed = lootSeeds.nextLong();
+        OperationHandle handle = provider.startRestoreOperation(arenaWorlds.getWorld(locationId), game.getArena(), game.getMin(), changedPositions, getReadyCopyTicks(game.getArena()), lootSeed, lateChanges);
+        handle.setTargetLocationId(locationId);
+        handle.setLootSeed(lootSeed);
+        final long gameEndTime = System.currentTimeMillis();
+        handle.runOnFinish(new Runnable() {
+            @Override
+            public void run() {
+                long turnaround = System.currentTimeMillis() - gameEndTime;
+                SkyStatic.debug("Location %s was ready again %sms after its game ended.", locationId, turnaround);
+                metrics.recordSlotTurnaround(turnaround);
+            }
+        });
+        synchronized (readyArenas) {
+            getReadyArenas(game.getArena()).addLast(handle);
+        }
+    }
+
+    /**
+     * Picks how long a background operation making a ready copy of an arena may take. Operations are due sooner the
+     * fewer ready copies the arena already has, and as soon as possible if players are queued for the arena.
+     */
+    private long getReadyCopyTicks(SkyArena arena) {
+        GameQueueManager queues = plugin.getGameQueue();
+        if (queues != null && queues.isQueuedFor(arena)) {
+            return stretchForLoad(DEMANDED_OPERATION_TICKS);
+        }
+        int target = getReadyTarget(arena);
+        int ready;
+        synchronized (readyArenas) {
+            Deque<OperationHandle> readyCopies = readyArenas.get(arena.getArenaName());
+            ready = readyCopies == null ? 0 : readyCopies.size();
+        }
+        double fullness = target <= 0 ? 1 : Math.min(1, (double) ready / target);
+        return stretchForLoad(DEMANDED_OPERATION_TICKS + (long) ((BACKGROUND_OPERATION_TICKS - DEMANDED_OPERATION_TICKS) * fullness));
+    }
+
+    /**
+     * Gives operations proportionally longer while the server isn't keeping up with 20 ticks per second.
+     */
+    private long stretchForLoad(long ticks) {
+        return (long) (ticks / Math.max(MIN_TICK_HEADROOM, operationExecutor.getTickHeadroom()));
+    }
+
+    private void destroyLocation(SkyArena arena, SkyBlockLocation min, final int locationId) {
+        // Clearing the whole area doesn't need to know what changed.
+        changeTracker.stopTrackingAt(min);
         SkyStatic.debug("Starting destroy operation for arena at %s.", locationId);
-        // TODO: 2 minutes for destroying each arena is currently hardcoded.
-        OperationHandle handle = provider.startDestroyOperation(arenaWorld, game.getArena(), game.getMin(), 2 * 60 * 20); // nice delayed execution.
+        OperationHandle handle = provider.startDestroyOperation(arenaWorlds.getWorld(locationId), arena, min, stretchForLoad(BACKGROUND_OPERATION_TICKS));
         handle.runOnFinish(new Runnable() {
             @Override
             public void run() {
                 SkyStatic.debug("Finished destroying arena at %s.", locationId);
-                locationIdHandler.recycleId(locationId);
+                arenaWorlds.free(locationId);
             }
         });
     }
 
-    private SkyBlockLocation getMinLocation(SkyGame game) {
-        return getMinLocation(game.getLocationId(), game.getArena());
+    public LootPregenerator getLootPregenerator() {
+        return lootPregenerator;
+    }
+
+    public ArenaChangeTracker getChangeTracker() {
+        return changeTracker;
+    }
+
+    public ArenaChunkHolder getChunkHolder() {
+        return chunkHolder;
     }
 
-    private SkyBlockLocation getMinLocation(int id, SkyArena arena) {
-        int distanceApart = plugin.getConfiguration().getArenaDistanceApart();
-        int modX = (id % 2) * distanceApart;
-        int modZ = (id / 2) * distanceApart;
-        int modY = arena.getPlacementY();
-        return new SkyBlockLocation(modX, modY, modZ, Statics.ARENA_WORLD_NAME);
+    public WorldMetrics getMetrics() {
+        return metrics;
     }
 
     public static void deletePath(final Path path) throws IOException {
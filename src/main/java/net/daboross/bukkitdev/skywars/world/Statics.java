@@ -20,6 +20,30 @@ public class Statics {
 
     public static final String ARENA_WORLD_NAME = "SkyWarsArenaWorld";
 
+    /**
+     * @param index index of the arena world, starting at 0.
+     * @return the name of that arena world: the first is {@link #ARENA_WORLD_NAME}, and the rest are numbered from 2.
+     */
+    public static String getArenaWorldName(int index) {
+        return index == 0 ? ARENA_WORLD_NAME : ARENA_WORLD_NAME + (index + 1);
+    }
+
+    /**
+     * @param worldName the name of any world.
+     * @return true if the world is, or was created as, one of the arena worlds.
+     */
+    public static boolean isArenaWorld(String worldName) {
+        if (!worldName.regionMatches(true, 0, ARENA_WORLD_NAME, 0, ARENA_WORLD_NAME.length())) {
+            return false;
+        }
+        for (int i = ARENA_WORLD_NAME.length(); i < worldName.length(); i++) {
+            if (!Character.isDigit(worldName.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private Statics() {
     }
 }
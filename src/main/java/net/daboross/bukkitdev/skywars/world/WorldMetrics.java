@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2016 Dabo Ross <http://www.daboross.net/>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.daboross.bukkitdev.skywars.world;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters describing how much work the arena world is doing, for reports and debugging.
+ */
+public class WorldMetrics {
+
+    private final AtomicLong chunkLoads = new AtomicLong();
+    private final AtomicLong gamesMeasured = new AtomicLong();
+    private final AtomicLong gameChunkLoads = new AtomicLong();
+    private final AtomicLong lastGameChunkLoads = new AtomicLong();
+    private final AtomicLong slotsTurnedAround = new AtomicLong();
+    private final AtomicLong slotTurnaroundMillis = new AtomicLong();
+    private final AtomicLong lastSlotTurnaroundMillis = new AtomicLong();
+
+    public void onChunkLoad() {
+        chunkLoads.incrementAndGet();
+    }
+
+    /**
+     * Records the number of chunks loaded for a game's arena location, from its copy operation starting to the game
+     * ending.
+     */
+    public void recordGameChunkLoads(int loads) {
+        gamesMeasured.incrementAndGet();
+        gameChunkLoads.addAndGet(loads);
+        lastGameChunkLoads.set(loads);
+    }
+
+    /**
+     * Records how long an arena location took to be ready for another game after its game ended.
+     */
+    public void recordSlotTurnaround(long millis) {
+        slotsTurnedAround.incrementAndGet();
+        slotTurnaroundMillis.addAndGet(millis);
+        lastSlotTurnaroundMillis.set(millis);
+    }
+
+    /**
+     * @return total chunks loaded in the arena world since startup.
+     */
+    public long getChunkLoads() {
+        return chunkLoads.get();
+    }
+
+    public long getGamesMeasured() {
+        return gamesMeasured.get();
+    }
+
+    public long getLastGameChunkLoads() {
+        return lastGameChunkLoads.get();
+    }
+
+    public double getAverageGameChunkLoads() {
+        long games = gamesMeasured.get();
+        return games == 0 ? 0 : (double) gameChunkLoads.get() / games;
+    }
+
+    public long getSlotsTurnedAround() {
+        return slotsTurnedAround.get();
+    }
+
+    public long getLastSlotTurnaroundMillis() {
+        return lastSlotTurnaroundMillis.get();
+    }
+
+    public double getAverageSlotTurnaroundMillis() {
+        long slots = slotsTurnedAround.get();
+        return slots == 0 ? 0 : (double) slotTurnaroundMillis.get() / slots;
+    }
+}
@@ -0,0 +1,283 @@
+/*
+ * Copyright (C) 2016 Dabo Ross <http://www.daboross.net/>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.daboross.bukkitdev.skywars.world;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import net.daboross.bukkitdev.bukkitstorageprotobuf.MultiPartOperation;
+import net.daboross.bukkitdev.skywars.SkyWarsPlugin;
+import net.daboross.bukkitdev.skywars.api.SkyStatic;
+import net.daboross.bukkitdev.skywars.api.location.SkyBlockLocation;
+import org.apache.commons.lang.Validate;
+
+/**
+ * Runs every pending arena copy and destroy operation from a single repeating task.
+ * <p>
+ * Each tick, every operation first performs the parts it needs to still finish by its deadline. The rest of the
+ * shared per-tick block budget (and time budget, if configured) then goes to operations in priority order: copies for
+ * games which are about to start come before restoring played arenas, which come before destroy operations, and earlier deadlines come first.
+ * <p>
+ * The executor also measures how long server ticks are taking. While the server can't keep up with 20 ticks per
+ * second, the spare budget shrinks in proportion, so only work which is due is done.
+ */
+public class WorldOperationExecutor implements Runnable {
+
+    private static final Comparator<ScheduledOperation> PRIORITY_ORDER = new Comparator<ScheduledOperation>() {
+        @Override
+        public int compare(final ScheduledOperation first, final ScheduledOperation second) {
+            int priorityDiff = first.priority.compareTo(second.priority);
+            if (priorityDiff != 0) {
+                return priorityDiff;
+            }
+            long deadlineDiff = first.deadlineTick - second.deadlineTick;
+            return deadlineDiff == 0 ? 0 : deadlineDiff < 0 ? -1 : 1;
+        }
+    };
+    private static final long TICK_NANOS = 50000000L;
+    private final SkyWarsPlugin plugin;
+    private final List<ScheduledOperation> operations = new ArrayList<>();
+    private long currentTick;
+    private long lastRunNanos;
+    // Moving average of the time between runs, in nanoseconds.
+    private double averageTickNanos = TICK_NANOS;
+    private int taskId = -1;
+
+    public WorldOperationExecutor(final SkyWarsPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Schedules an operation to be completed in around ticksTillCompletion ticks.
+     *
+     * @param operation           the operation to run.
+     * @param priority            priority for spare budget.
+     * @param ticksTillCompletion deadline, in ticks from now.
+     * @param blocksPerPart       number of blocks each part of the operation changes, for budgeting.
+     * @param zeroLocation        location to return from getZeroLocation() (no internal usage).
+     * @return a handle for the operation.
+     */
+    public OperationHandle schedule(MultiPartOperation operation, Priority priority, long ticksTillCompletion, int blocksPerPart, SkyBlockLocation zeroLocation) {
+        Validate.notNull(operation, "Operation cannot be null");
+        Validate.notNull(priority, "Priority cannot be null");
+        synchronized (operations) {
+            // Don't plan on doing any work in the last tick available.
+            ScheduledOperation scheduled = new ScheduledOperation(operation, priority,
+                    currentTick + Math.max(1, ticksTillCompletion - 1), Math.max(1, blocksPerPart), zeroLocation);
+            operations.add(scheduled);
+            Collections.sort(operations, PRIORITY_ORDER);
+            if (taskId == -1) {
+                taskId = plugin.getServer().getScheduler().runTaskTimer(plugin, this, 1, 1).getTaskId();
+            }
+            return scheduled;
+        }
+    }
+
+    /**
+     * Gets how well the server is keeping up, measured while operations are running.
+     *
+     * @return 1 if ticks take no longer than they should, otherwise the fraction of the expected ticks per second
+     * the server is reaching.
+     */
+    public double getTickHeadroom() {
+        synchronized (operations) {
+            return Math.min(1, TICK_NANOS / averageTickNanos);
+        }
+    }
+
+    public int getPendingOperationCount() {
+        synchronized (operations) {
+            return operations.size();
+        }
+    }
+
+    @Override
+    public void run() {
+        List<ScheduledOperation> finished = new ArrayList<>();
+        synchronized (operations) {
+            currentTick++;
+            long startTime = System.nanoTime();
+            if (lastRunNanos != 0) {
+                // Long pauses (the task was idle in between) say nothing about the current load.
+                averageTickNanos = averageTickNanos * 0.95 + Math.min(startTime - lastRunNanos, 20 * TICK_NANOS) * 0.05;
+            }
+            lastRunNanos = startTime;
+            long budgetNanos = plugin.getConfiguration().getArenaCopyingTickBudget() * 1000000L;
+            long blockBudget = (long) (plugin.getConfiguration().getArenaCopyingBlocksPerTick() * Math.min(1, TICK_NANOS / averageTickNanos));
+            // Deadlines first: these parts are done no matter the budget.
+            for (ScheduledOperation scheduled : operations) {
+                long ticksLeft = scheduled.deadlineTick - currentTick + 1;
+                int partsLeft = scheduled.operation.getPartsLeft();
+                long requiredParts = ticksLeft <= 0 ? partsLeft : (partsLeft + ticksLeft - 1) / ticksLeft;
+                for (long i = 0; i < requiredParts && scheduled.operation.getPartsLeft() > 0; i++) {
+                    scheduled.operation.performNextPart();
+                    blockBudget -= scheduled.blocksPerPart;
+                }
+            }
+            // Then spare budget, in priority order.
+            for (ScheduledOperation scheduled : operations) {
+                while (scheduled.operation.getPartsLeft() > 0 && blockBudget >= scheduled.blocksPerPart
+                        && (budgetNanos <= 0 || System.nanoTime() - startTime < budgetNanos)) {
+                    scheduled.operation.performNextPart();
+                    blockBudget -= scheduled.blocksPerPart;
+                }
+            }
+            for (ScheduledOperation scheduled : operations) {
+                if (scheduled.operation.getPartsLeft() <= 0) {
+                    finished.add(scheduled);
+                }
+            }
+            operations.removeAll(finished);
+            if (operations.isEmpty()) {
+                plugin.getServer().getScheduler().cancelTask(taskId);
+                taskId = -1;
+                lastRunNanos = 0;
+            }
+        }
+        for (ScheduledOperation scheduled : finished) {
+            scheduled.finish();
+        }
+    }
+
+    private void moveDeadline(ScheduledOperation scheduled, long ticksTillCompletion) {
+        synchronized (operations) {
+            long deadlineTick = currentTick + Math.max(1, ticksTillCompletion - 1);
+            if (deadlineTick < scheduled.deadlineTick) {
+                scheduled.deadlineTick = deadlineTick;
+                Collections.sort(operations, PRIORITY_ORDER);
+            }
+        }
+    }
+
+    private boolean remove(ScheduledOperation scheduled) {
+        synchronized (operations) {
+            return operations.remove(scheduled);
+        }
+    }
+
+    public enum Priority {
+        /**
+         * Copying an arena for a game which will start soon.
+         */
+        COPY,
+        /**
+         * Restoring the changed blocks of an arena after a game has ended, so it can be used again.
+         */
+        RESTORE,
+        /**
+         * Clearing an arena after a game has ended.
+         */
+        DESTROY
+    }
+
+    private class ScheduledOperation implements OperationHandle {
+
+        private final MultiPartOperation operation;
+        private final Priority priority;
+        private long deadlineTick;
+        private final int blocksPerPart;
+        private final SkyBlockLocation zeroLocation;
+        private final List<Runnable> runOnCompletion = new ArrayList<>(2);
+        private boolean finished;
+        private int locationId;
+        private long lootSeed;
+
+        private ScheduledOperation(final MultiPartOperation operation, final Priority priority, final long deadlineTick, final int blocksPerPart, final SkyBlockLocation zeroLocation) {
+            this.operation = operation;
+            this.priority = priority;
+            this.deadlineTick = deadlineTick;
+            this.blocksPerPart = blocksPerPart;
+            this.zeroLocation = zeroLocation;
+        }
+
+        private void finish() {
+            synchronized (this) {
+                if (finished) {
+                    return;
+                }
+                finished = true;
+                for (Runnable runnable : runOnCompletion) {
+                    runnable.run();
+                }
+            }
+        }
+
+        @Override
+        public void cancelOperation() {
+            remove(this);
+        }
+
+        @Override
+        public void completeOperationNow() {
+            synchronized (this) {
+                if (finished) {
+                    return;
+                }
+                // Taking this operation out of the queue means the executor won't touch it again, and all other
+                // operations keep running as normal.
+                remove(this);
+                SkyStatic.debug("[Executor] completeOperationNow performing %s parts in one tick.", operation.getPartsLeft());
+                while (operation.getPartsLeft() > 0) {
+                    operation.performNextPart();
+                }
+                finish();
+            }
+        }
+
+        @Override
+        public void finishWithin(final long ticksTillCompletion) {
+            moveDeadline(this, ticksTillCompletion);
+        }
+
+        @Override
+        public void setTargetLocationId(final int locationId) {
+            this.locationId = locationId;
+        }
+
+        @Override
+        public int getTargetLocationId() {
+            return locationId;
+        }
+
+        @Override
+        public void setLootSeed(final long lootSeed) {
+            this.lootSeed = lootSeed;
+        }
+
+        @Override
+        public long getLootSeed() {
+            return lootSeed;
+        }
+
+        @Override
+        public SkyBlockLocation getZeroLocation() {
+            return zeroLocation;
+        }
+
+        @Override
+        public void runOnFinish(final Runnable runnable) {
+            synchronized (this) {
+                if (finished) {
+                    runnable.run();
+                } else {
+                    runOnCompletion.add(runnable);
+                }
+            }
+        }
+    }
+}
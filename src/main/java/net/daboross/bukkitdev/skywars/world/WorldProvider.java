@@ -24,10 +24,28 @@ import org.bukkit.World;
 
 public interface WorldProvider {
 
-    void loadArena(SkyArenaConfig arena, boolean forceReload) throws IOException;
+    /**
+     * Loads an arena's blocks, creating its blocks cache if needed. May be called from any thread.
+     *
+     * @param progress notified while a new cache is created, or null.
+     */
+    void loadArena(SkyArenaConfig arena, boolean forceReload, ArenaLoadListener progress) throws IOException;
+
+    /**
+     * Loads an arena from blocks read from somewhere other than a world, such as a schematic, storing them as its
+     * blocks cache. May be called from any thread.
+     */
+    void importArena(SkyArenaConfig arena, PalettedBlockArea blocks) throws IOException;
 
     void clearLoadedArenas();
 
+    /**
+     * Checks whether an arena's blocks are in memory. Arenas evicted to stay within the cache memory budget can be
+     * loaded again with {@link #loadArena(SkyArenaConfig, boolean, ArenaLoadListener)}; otherwise, operations on them
+     * load them on the calling thread.
+     */
+    boolean isLoaded(SkyArena arena);
+
     /**
      * Starts a multi-part copy operation of the arena, which will complete in around ticksTillCompletion.
      * <p>
@@ -39,11 +57,12 @@ public interface WorldProvider {
      * @param target              The target location to copy the arena to,
      * @param ticksTillCompletion Time (in server ticks) before the provider should try and finish the copying
      *                            completely
+     * @param lootSeed            Seed for the contents of the copy's randomly filled chests.
      * @return an operation handle, which can be used to complete or cancel the copy operation.
      */
-    OperationHandle startCopyOperation(World arenaWorld, SkyArena arena, SkyBlockLocation target, long ticksTillCompletion);
+    OperationHandle startCopyOperation(World arenaWorld, SkyArena arena, SkyBlockLocation target, long ticksTillCompletion, long lootSeed);
 
-    void copyArena(World arenaWorld, SkyArena arena, SkyBlockLocation target);
+    void copyArena(World arenaWorld, SkyArena arena, SkyBlockLocation target, long lootSeed);
 
     /**
      * Starts a multi-part destroy operation, similar to startCopyOperation().
@@ -59,4 +78,22 @@ public interface WorldProvider {
     OperationHandle startDestroyOperation(World arenaWorld, SkyArena arena, SkyBlockLocation target, long ticksTillCompletion);
 
     void destroyArena(World arenaWorld, SkyArena arena, SkyBlockLocation target);
+
+    /**
+     * Starts a multi-part operation restoring only the given positions of an arena copy which has been played in,
+     * similar to startCopyOperation(). If the changed positions aren't known, the whole clearing area is compared
+     * against the arena and only differing blocks are set. Entities in the arena's clearing area are removed once done.
+     *
+     * @param arenaWorld          The world the arena is in.
+     * @param arena               The arena which was copied to the target.
+     * @param target              The target location which the arena was copied to.
+     * @param changedPositions    Changed positions relative to target, packed with PalettedBlockArea.packPosition(),
+     *                            or null if unknown.
+     * @param ticksTillCompletion Time (in server ticks) before the provider should try and finish the restoring.
+     * @param lootSeed            Seed for the contents of the restored copy's randomly filled chests.
+     * @param lateChanges         Positions which change while the restore runs, which are restored once it's done, or
+     *                            null if changes aren't tracked.
+     * @return an operation handle, which can be used to complete or cancel the restore operation.
+     */
+    OperationHandle startRestoreOperation(World arenaWorld, SkyArena arena, SkyBlockLocation target, long[] changedPositions, long ticksTillCompletion, long lootSeed, LateChangeSource lateChanges);
 }
@@ -16,157 +16,362 @@
  */
 package net.daboross.bukkitdev.skywars.world.providers;
 
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
+import java.lang.ref.WeakReference;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
-import net.daboross.bukkitdev.bukkitstorageprotobuf.AreaClearing;
 import net.daboross.bukkitdev.bukkitstorageprotobuf.MemoryBlockArea;
 import net.daboross.bukkitdev.bukkitstorageprotobuf.MultiPartOperation;
-import net.daboross.bukkitdev.bukkitstorageprotobuf.ProtobufStorage;
 import net.daboross.bukkitdev.bukkitstorageprotobuf.compiled.BlockStorage;
+import net.daboross.bukkitdev.skywars.SkyWarsPlugin;
 import net.daboross.bukkitdev.skywars.api.SkyStatic;
-import net.daboross.bukkitdev.skywars.api.SkyWars;
 import net.daboross.bukkitdev.skywars.api.arenaconfig.SkyArena;
 import net.daboross.bukkitdev.skywars.api.arenaconfig.SkyArenaChest;
 import net.daboross.bukkitdev.skywars.api.arenaconfig.SkyArenaChestConfig;
 import net.daboross.bukkitdev.skywars.api.arenaconfig.SkyArenaConfig;
 import net.daboross.bukkitdev.skywars.api.location.SkyBlockLocation;
 import net.daboross.bukkitdev.skywars.api.location.SkyBlockLocationRange;
-import net.daboross.bukkitdev.skywars.util.CrossVersion;
+import net.daboross.bukkitdev.skywars.world.ArenaCacheIndex;
+import net.daboross.bukkitdev.skywars.world.ArenaChestIndex;
+import net.daboross.bukkitdev.skywars.world.ArenaLootTable;
+import net.daboross.bukkitdev.skywars.world.ArenaChunkHolder;
+import net.daboross.bukkitdev.skywars.world.ArenaLoadListener;
+import net.daboross.bukkitdev.skywars.world.ArenaSnapshot;
+import net.daboross.bukkitdev.skywars.world.ClearEntitiesOperation;
+import net.daboross.bukkitdev.skywars.world.BlockWriter;
+import net.daboross.bukkitdev.skywars.world.BukkitBlockWriter;
 import net.daboross.bukkitdev.skywars.world.OperationHandle;
+import net.daboross.bukkitdev.skywars.world.ParallelArenaLoader;
+import net.daboross.bukkitdev.skywars.world.PalettedBlockArea;
+import net.daboross.bukkitdev.skywars.world.LateChangeRestoreOperation;
+import net.daboross.bukkitdev.skywars.world.LateChangeSource;
+import net.daboross.bukkitdev.skywars.world.LootPregenerator;
 import net.daboross.bukkitdev.skywars.world.RandomChestProvider;
+import net.daboross.bukkitdev.skywars.world.SectionClearOperation;
+import net.daboross.bukkitdev.skywars.world.SectionRestoreOperation;
 import net.daboross.bukkitdev.skywars.world.VoidGenerator;
+import net.daboross.bukkitdev.skywars.world.WorldOperationExecutor;
 import net.daboross.bukkitdev.skywars.world.WorldProvider;
 import org.apache.commons.lang.Validate;
 import org.bukkit.Bukkit;
-import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.World;
 import org.bukkit.WorldCreator;
 import org.bukkit.WorldType;
-import org.bukkit.entity.Entity;
 
 public class ProtobufStorageProvider implements WorldProvider {
 
-    protected final Map<String, MemoryBlockArea> cache = new HashMap<>();
-    protected final SkyWars plugin;
-
-    public ProtobufStorageProvider(final SkyWars plugin) {
+    // Access ordered, so that the least recently used arena is evicted first. Arenas are loaded in parallel.
+    protected final Map<String, PalettedBlockArea> cache = Collections.synchronizedMap(new LinkedHashMap<String, PalettedBlockArea>(16, 0.75f, true));
+    protected final SkyWarsPlugin plugin;
+    protected final WorldOperationExecutor executor;
+    protected final ArenaChunkHolder chunkHolder;
+    protected final ParallelArenaLoader loader;
+    protected final LootPregenerator lootPregenerator;
+    // Areas by content hash, so arenas with identical blocks share one. Weak, so evicted areas can still be freed.
+    private final Map<String, WeakReference<PalettedBlockArea>> areasByHash = new HashMap<>();
+    private ArenaCacheIndex cacheIndex;
+    private final Map<String, ArenaChestIndex> chestIndices = new ConcurrentHashMap<>();
+
+    public ProtobufStorageProvider(final SkyWarsPlugin plugin, final WorldOperationExecutor executor, final ArenaChunkHolder chunkHolder, final ParallelArenaLoader loader, final LootPregenerator lootPregenerator) {
         this.plugin = plugin;
+        this.executor = executor;
+        this.chunkHolder = chunkHolder;
+        this.loader = loader;
+        this.lootPregenerator = lootPregenerator;
     }
 
     @Override
-    public void loadArena(final SkyArenaConfig arena, final boolean forceReload) throws IOException {
+    public void loadArena(final SkyArenaConfig arena, final boolean forceReload, final ArenaLoadListener progress) throws IOException {
         if (forceReload || cache.containsKey(arena.getArenaName())) {
             plugin.getLogger().log(Level.WARNING, "Updating arena blocks cache for arena ''{0}''.", arena.getArenaName());
         }
         boolean createdNewCache = false;
-        Path cachePath = plugin.getArenaPath().resolve(arena.getArenaName() + ".blocks");
-        BlockStorage.BlockArea area = null;
-        if (!forceReload) {
-            try (InputStream inputStream = new FileInputStream(cachePath.toFile())) {
-                try (GZIPInputStream gzipInputStream = new GZIPInputStream(inputStream)) {
-                    area = BlockStorage.BlockArea.parseFrom(gzipInputStream);
-                }
-            } catch (FileNotFoundException ignored) {
+        ArenaCacheIndex cacheIndex = getCacheIndex();
+        String arenaName = arena.getArenaName();
+        String origin = ArenaCacheIndex.describeOrigin(arena.getBoundaries().getOrigin());
+        // Arenas without an origin world can't be rebuilt, so a forced reload just reads their cache again.
+        String hash = forceReload && hasOriginWorld(arena) ? null : cacheIndex.getHash(arenaName);
+        if (hash != null && !origin.equals(cacheIndex.getOrigin(arenaName))) {
+            plugin.getLogger().log(Level.INFO, "Origin of arena ''{0}'' has changed since its blocks cache was made; rebuilding.", arenaName);
+            hash = null;
+        }
+        if (hash != null && !cacheIndex.verify(hash)) {
+            plugin.getLogger().log(Level.WARNING, "Blocks cache for arena ''{0}'' is missing or doesn't match its hash; rebuilding.", arenaName);
+            hash = null;
+        }
+        Path legacyPath = plugin.getArenaPath().resolve(arenaName + ".blocks");
+        if (hash == null && !forceReload && Files.exists(legacyPath)) {
+            // Cache file from before caches were named by hash.
+            Path newFile = cacheIndex.getTemporaryFile(arenaName);
+            if (PalettedBlockArea.isAreaFile(legacyPath)) {
+                Files.move(legacyPath, newFile, StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                convertCache(arena, legacyPath, newFile);
             }
+            hash = cacheIndex.store(arenaName, origin, newFile);
         }
-        if (area == null) {
+        if (hash == null) {
+            PalettedBlockArea newArea;
             try {
-                area = createCache(arena);
+                newArea = createCache(arena, progress);
                 createdNewCache = true;
-            } catch (IllegalStateException ex1) {
-                if (ex1.getMessage().contains("Origin location not listed in configuration")) {
-                    try (InputStream inputStream = plugin.getResourceAsStream("arenas/" + arena.getArenaName() + ".blocks")) {
+            } catch (IllegalStateException ex) {
+                if (ex.getMessage().contains("Origin location not listed in configuration")) {
+                    try (InputStream inputStream = plugin.getResourceAsStream("arenas/" + arenaName + ".blocks")) {
+                        if (inputStream == null) {
+                            throw new FileNotFoundException("arenas/" + arenaName + ".blocks");
+                        }
                         try (GZIPInputStream gzipInputStream = new GZIPInputStream(inputStream)) {
-                            area = BlockStorage.BlockArea.parseFrom(gzipInputStream);
+                            // The MemoryBlockArea is only kept long enough to pack it.
+                            newArea = PalettedBlockArea.pack(new MemoryBlockArea(BlockStorage.BlockArea.parseFrom(gzipInputStream)));
                         }
-                        plugin.getLogger().log(Level.INFO, "Loaded pre-built blocks cache file for arena {0}.", arena.getArenaName());
-                    } catch (FileNotFoundException ex) {
-                        throw new IOException("No origin listed in configuration, but no blocks file found in SkyWars jar file either!", ex);
+                        plugin.getLogger().log(Level.INFO, "Loaded pre-built blocks cache file for arena {0}.", arenaName);
+                    } catch (FileNotFoundException ex2) {
+                        throw new IOException("No origin listed in configuration, but no blocks file found in SkyWars jar file either!", ex2);
                     }
                 } else {
-                    throw ex1;
+                    throw ex;
+                }
+            }
+            Path newFile = cacheIndex.getTemporaryFile(arenaName);
+            newArea.write(newFile);
+            hash = cacheIndex.store(arenaName, origin, newFile);
+        }
+        finishLoading(arena, getSharedArea(cacheIndex, hash), createdNewCache);
+    }
+
+    @Override
+    public void importArena(final SkyArenaConfig arena, final PalettedBlockArea blocks) throws IOException {
+        ArenaCacheIndex cacheIndex = getCacheIndex();
+        Path newFile = cacheIndex.getTemporaryFile(arena.getArenaName());
+        blocks.write(newFile);
+        String hash = cacheIndex.store(arena.getArenaName(), ArenaCacheIndex.describeOrigin(arena.getBoundaries().getOrigin()), newFile);
+        finishLoading(arena, getSharedArea(cacheIndex, hash), true);
+    }
+
+    private void finishLoading(SkyArenaConfig arena, PalettedBlockArea packedArea, boolean createdNewCache) throws IOException {
+        plugin.getLogger().log(Level.INFO, "Arena ''{0}'' blocks cache uses ~{1} bytes of memory, and {2} bytes mapped from its file ({3} bytes unpacked); {4} palette entries, {5} stored sections.",
+                new Object[]{arena.getArenaName(), packedArea.getMemoryUsage(), packedArea.getMappedSize(), packedArea.estimateUnpackedMemoryUsage(),
+                        packedArea.getPaletteSize(), packedArea.getStoredSectionCount()});
+
+        if (createdNewCache || arena.getChestConfiguration() == null) {
+            loadChests(arena, packedArea);
+        }
+        cache.put(arena.getArenaName(), packedArea);
+        evictToBudget(arena.getArenaName());
+    }
+
+    @Override
+    public boolean isLoaded(final SkyArena arena) {
+        return cache.containsKey(arena.getArenaName());
+    }
+
+    /**
+     * Gets the cached blocks for an arena. Evicted arenas are never loaded here, as this is called on the server thread:
+     * they have to be loaded again in the background before being copied or restored.
+     *
+     * @throws IllegalStateException if the arena isn't loaded.
+     */
+    protected PalettedBlockArea getArea(SkyArena arena) {
+        PalettedBlockArea area = cache.get(arena.getArenaName());
+        if (area == null) {
+            throw new IllegalStateException("Arena " + arena.getArenaName() + " isn't loaded.");
+        }
+        return area;
+    }
+
+    /**
+     * Evicts least recently used arenas until the configured memory budget is met, never evicting the given arena.
+     */
+    private void evictToBudget(String keep) {
+        long budget = plugin.getConfiguration().getArenaCacheMemoryBudget() * 1024L * 1024L;
+        if (budget <= 0) {
+            return;
+        }
+        synchronized (cache) {
+            // Arenas may share an area, so count each area once, and only when its last user is evicted.
+            Map<PalettedBlockArea, Integer> users = new IdentityHashMap<>();
+            long total = 0;
+            for (PalettedBlockArea area : cache.values()) {
+                Integer count = users.get(area);
+                if (count == null) {
+                    total += area.getMemoryUsage() + area.getMappedSize();
+                    count = 0;
                 }
+                users.put(area, count + 1);
             }
-            try (OutputStream outputStream = new FileOutputStream(cachePath.toFile())) {
-                try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream)) {
-                    area.writeTo(gzipOutputStream);
+            for (Iterator<Map.Entry<String, PalettedBlockArea>> iterator = cache.entrySet().iterator(); total > budget && iterator.hasNext(); ) {
+                Map.Entry<String, PalettedBlockArea> entry = iterator.next();
+                if (entry.getKey().equals(keep)) {
+                    continue;
                 }
+                // Operations already using the area keep their own reference to it.
+                PalettedBlockArea area = entry.getValue();
+                int count = users.get(area) - 1;
+                users.put(area, count);
+                if (count == 0) {
+                    total -= area.getMemoryUsage() + area.getMappedSize();
+                }
+                iterator.remove();
+                SkyStatic.debug("Evicted arena %s from the blocks cache.", entry.getKey());
             }
         }
+    }
 
-        // We turn the BlockStorage.BlockArea into a StoredBlockArea here, not above, because StoredBlockArea can't write to a file.
-        MemoryBlockArea memoryBlockArea = new MemoryBlockArea(area);
+    private synchronized ArenaCacheIndex getCacheIndex() throws IOException {
+        if (cacheIndex == null) {
+            cacheIndex = new ArenaCacheIndex(plugin.getArenaPath());
+        }
+        return cacheIndex;
+    }
 
-        if (createdNewCache || arena.getChestConfiguration() == null) {
-            loadChests(arena, memoryBlockArea);
+    /**
+     * Gets the area with the given hash, reusing the area already loaded for another arena with identical blocks if
+     * there is one.
+     */
+    private PalettedBlockArea getSharedArea(ArenaCacheIndex cacheIndex, String hash) throws IOException {
+        synchronized (areasByHash) {
+            WeakReference<PalettedBlockArea> reference = areasByHash.get(hash);
+            PalettedBlockArea area = reference == null ? null : reference.get();
+            if (area == null) {
+                area = PalettedBlockArea.map(cacheIndex.getCacheFile(hash));
+                areasByHash.put(hash, new WeakReference<>(area));
+            } else {
+                SkyStatic.debug("Sharing blocks cache %s with an already loaded arena.", hash);
+            }
+            return area;
+        }
+    }
+
+    /**
+     * Converts a blocks cache file from the old gzipped protobuf format, keeping the old file as a backup.
+     */
+    private void convertCache(SkyArenaConfig arena, Path cachePath, Path newFile) throws IOException {
+        BlockStorage.BlockArea area;
+        try (InputStream inputStream = Files.newInputStream(cachePath)) {
+            try (GZIPInputStream gzipInputStream = new GZIPInputStream(inputStream)) {
+                area = BlockStorage.BlockArea.parseFrom(gzipInputStream);
+            }
         }
-        cache.put(arena.getArenaName(), memoryBlockArea);
+        PalettedBlockArea packedArea = PalettedBlockArea.pack(new MemoryBlockArea(area));
+        Path backupPath = cachePath.resolveSibling(arena.getArenaName() + ".blocks.gz");
+        Files.move(cachePath, backupPath, StandardCopyOption.REPLACE_EXISTING);
+        packedArea.write(newFile);
+        plugin.getLogger().log(Level.INFO, "Converted blocks cache for arena ''{0}'' to the new format. The old file was kept as {1}.",
+                new Object[]{arena.getArenaName(), backupPath.getFileName()});
     }
 
     @SuppressWarnings("deprecation")
-    private void loadChests(final SkyArenaConfig arena, final MemoryBlockArea area) {
+    private void loadChests(final SkyArenaConfig arena, final PalettedBlockArea area) throws IOException {
         SkyStatic.debug("Creating chest configuration for arena %s.", arena.getArenaName());
-        List<SkyArenaChest> originalChests = arena.getChests();
-        List<SkyArenaChest> chests = new ArrayList<>();
-        for (int y = 0; y < area.lengthY; y++) {
-            for (int x = 0; x < area.lengthX; x++) {
-                length_z:
-                for (int z = 0; z < area.lengthZ; z++) {
-                    BlockStorage.Block block = area.blocks[y][x][z];
-                    if (block.getId() == Material.CHEST.getId()
-                            || block.getId() == Material.TRAPPED_CHEST.getId()) {
-                        SkyBlockLocation location = new SkyBlockLocation(x, y, z, null);
-
-                        // Check for existing configurations for this chest, and keep them if they exist.
-                        for (SkyArenaChest testOldChest : originalChests) {
-                            if (location.equals(testOldChest.getLocation())) {
-                                chests.add(testOldChest);
-                                continue length_z;
-                            }
-                        }
-                        // If there isn't an existing configuration, just add a new one with default values
-                        chests.add(new SkyArenaChestConfig(location));
-                    }
+        ArenaChestIndex originalChests = new ArenaChestIndex(arena.getChests());
+        final List<SkyArenaChest> chests = new ArrayList<>();
+        for (long position : area.getInventoryPositions()) {
+            int x = PalettedBlockArea.unpackX(position);
+            int y = PalettedBlockArea.unpackY(position);
+            int z = PalettedBlockArea.unpackZ(position);
+            BlockStorage.Block block = area.getBlock(x, y, z);
+            if (block.getId() == Material.CHEST.getId()
+                    || block.getId() == Material.TRAPPED_CHEST.getId()) {
+                // Check for an existing configuration for this chest, and keep it if it exists.
+                SkyArenaChest oldChest = originalChests.get(x, y, z);
+                if (oldChest != null) {
+                    chests.add(oldChest);
+                } else {
+                    // If there isn't an existing configuration, just add a new one with default values
+                    chests.add(new SkyArenaChestConfig(new SkyBlockLocation(x, y, z, null)));
                 }
             }
         }
-        arena.setChests(chests);
-        plugin.getConfiguration().saveArena(arena);
+        try {
+            loader.runOnMainThread(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    arena.setChests(chests);
+                    plugin.getConfiguration().saveArena(arena);
+                    return null;
+                }
+            });
+        } catch (ExecutionException ex) {
+            throw new IOException("Failed to save chest configuration for arena " + arena.getArenaName(), ex.getCause());
+        }
+    }
+
+    /**
+     * Gets the chest index for an arena, building it again if the arena's chests have changed since it was built.
+     */
+    private ArenaChestIndex getChestIndex(SkyArena arena) {
+        List<SkyArenaChest> chests = arena.getChests();
+        ArenaChestIndex index = chestIndices.get(arena.getArenaName());
+        if (index == null || !index.isFor(chests)) {
+            index = new ArenaChestIndex(chests);
+            chestIndices.put(arena.getArenaName(), index);
+        }
+        return index;
     }
 
-    private BlockStorage.BlockArea createCache(SkyArena source) {
-        SkyBlockLocationRange origin = source.getBoundaries().getOrigin();
-        if (origin == null) {
+    /**
+     * Imported arenas have an origin with no world, giving their size but not anywhere to copy them from.
+     */
+    private static boolean hasOriginWorld(SkyArena arena) {
+        SkyBlockLocationRange origin = arena.getBoundaries().getOrigin();
+        return origin != null && origin.world != null;
+    }
+
+    /**
+     * Creates a cache from the arena's origin. Only taking the snapshot happens on the server thread: the blocks are
+     * encoded on the calling thread.
+     */
+    private PalettedBlockArea createCache(final SkyArena source, ArenaLoadListener progress) throws IOException {
+        final SkyBlockLocationRange origin = source.getBoundaries().getOrigin();
+        if (!hasOriginWorld(source)) {
             // this message needs to contain "Origin location" as it is checked for in the UpdateArena command.
             // "Origin location not listed in configuration" is checked for in the method above as well.
             throw new IllegalStateException("Failed to load arena " + source.getArenaName() + ": Origin location not listed in configuration.");
         }
-        String worldName = origin.world;
-        World world = plugin.getServer().getWorld(worldName);
-        if (world == null) {
-            plugin.getLogger().log(Level.INFO, "Loading the ''{0}'' world to create a cache for the ''{1}'' arena. This only happens on the first startup after adding an arena, or when `/sw rebuildcache` is used.", new Object[]{worldName, source.getArenaName()});
-            WorldCreator baseWorldCreator = new WorldCreator(worldName);
-            baseWorldCreator.generateStructures(false);
-            baseWorldCreator.generator(new VoidGenerator());
-            baseWorldCreator.type(WorldType.FLAT);
-            baseWorldCreator.seed(0);
-            world = baseWorldCreator.createWorld();
+        ArenaSnapshot snapshot;
+        try {
+            snapshot = loader.runOnMainThread(new Callable<ArenaSnapshot>() {
+                @Override
+                public ArenaSnapshot call() {
+                    String worldName = origin.world;
+                    World world = plugin.getServer().getWorld(worldName);
+                    if (world == null) {
+                        plugin.getLogger().log(Level.INFO, "Loading the ''{0}'' world to create a cache for the ''{1}'' arena. This only happens on the first startup after adding an arena, or when `/sw rebuildcache` is used.", new Object[]{worldName, source.getArenaName()});
+                        WorldCreator baseWorldCreator = new WorldCreator(worldName);
+                        baseWorldCreator.generateStructures(false);
+                        baseWorldCreator.generator(new VoidGenerator());
+                        baseWorldCreator.type(WorldType.FLAT);
+                        baseWorldCreator.seed(0);
+                        world = baseWorldCreator.createWorld();
+                    }
+                    ArenaSnapshot snapshot = ArenaSnapshot.take(world, origin.min, origin.max);
+                    Bukkit.unloadWorld(world, false);
+                    return snapshot;
+                }
+            });
+        } catch (ExecutionException ex) {
+            throw new IOException("Failed to read blocks of arena " + source.getArenaName(), ex.getCause());
         }
-        BlockStorage.BlockArea area = ProtobufStorage.encode(world, origin.min.x, origin.min.y, origin.min.z, origin.max.x - origin.min.x + 1, origin.max.y - origin.min.y + 1, origin.max.z - origin.min.z + 1, true);
-        Bukkit.unloadWorld(world, false);
+        PalettedBlockArea area = snapshot.encode(origin, progress);
         plugin.getLogger().log(Level.INFO, "Done creating cache for arena ''{0}''", source.getArenaName());
         return area;
     }
@@ -174,32 +379,63 @@ public class ProtobufStorageProvider implements WorldProvider {
     @Override
     public void clearLoadedArenas() {
         cache.clear();
+        chestIndices.clear();
     }
 
     @Override
-    public void copyArena(final World arenaWorld, final SkyArena arena, final SkyBlockLocation target) {
+    public void copyArena(final World arenaWorld, final SkyArena arena, final SkyBlockLocation target, final long lootSeed) {
         Validate.isTrue(target.world.equals(arenaWorld.getName()), "Destination world is not arena world.");
 
-        MemoryBlockArea area = cache.get(arena.getArenaName());
-        Validate.notNull(area, "Arena " + arena.getArenaName() + " not loaded.");
+        PalettedBlockArea area = getArea(arena);
 
-        area.apply(arenaWorld, target.x, target.y, target.z, new RandomChestProvider(plugin.getChestRandomizer(), arena));
+        SkyBlockLocationRange clearingArea = arena.getBoundaries().getClearing();
+        chunkHolder.holdArea(target.add(clearingArea.min), target.add(clearingArea.max));
+
+        BlockWriter writer = createBlockWriter(arenaWorld);
+        // Needed right away, so there is no point rolling the loot on another thread.
+        RandomChestProvider chestProvider = new RandomChestProvider(plugin.getChestRandomizer(), getChestIndex(arena), null, lootSeed);
+        if (plugin.getConfiguration().isArenaCopyingSkipAir()) {
+            area.applySparse(writer, target.x, target.y, target.z, chestProvider);
+        } else {
+            area.apply(writer, target.x, target.y, target.z, chestProvider);
+        }
     }
 
     @Override
-    public OperationHandle startCopyOperation(final World arenaWorld, final SkyArena arena, final SkyBlockLocation target, final long ticksTillCompletion) {
+    public OperationHandle startCopyOperation(final World arenaWorld, final SkyArena arena, final SkyBlockLocation target, final long ticksTillCompletion, final long lootSeed) {
         Validate.isTrue(target.world.equals(arenaWorld.getName()), "Destination world is not arena world.");
 
-        MemoryBlockArea area = cache.get(arena.getArenaName());
-        Validate.notNull(area, "Arena " + arena.getArenaName() + " not loaded.");
+        PalettedBlockArea area = getArea(arena);
+
+        BlockWriter writer = createBlockWriter(arenaWorld);
+        RandomChestProvider chestProvider = createPregeneratedChestProvider(arena, lootSeed);
+        int blockSize = plugin.getConfiguration().getArenaCopyingBlockSize();
+        MultiPartOperation storageOperation;
+        if (plugin.getConfiguration().isArenaCopyingSkipAir()) {
+            // The target has always been cleared by a destroy operation, so writing air again would be wasted work.
+            storageOperation = area.applySparseMultiPart(writer, target.x, target.y, target.z, chestProvider, blockSize);
+        } else {
+            storageOperation = area.applyMultiPart(writer, target.x, target.y, target.z, chestProvider, blockSize);
+        }
+        SkyBlockLocationRange clearingArea = arena.getBoundaries().getClearing();
+        // Columns which are all air are only skipped when air isn't copied, since otherwise the copy writes to them.
+        PalettedBlockArea preloadFilter = plugin.getConfiguration().isArenaCopyingSkipAir() ? area : null;
+        storageOperation = chunkHolder.holdAndPreload(arenaWorld, target.add(clearingArea.min), target.add(clearingArea.max), preloadFilter, target, storageOperation);
+
+        return executor.schedule(storageOperation, WorldOperationExecutor.Priority.COPY, ticksTillCompletion, blockSize, target);
+    }
 
-        MultiPartOperation storageOperation = area.applyMultiPart(arenaWorld, target.x, target.y, target.z,
-                new RandomChestProvider(plugin.getChestRandomizer(), arena),
-                plugin.getConfiguration().getArenaCopyingBlockSize());
+    /**
+     * Starts rolling the arena's chest loot on the loot generator thread, for a copy which won't reach its chests right
+     * away.
+     */
+    private RandomChestProvider createPregeneratedChestProvider(SkyArena arena, long lootSeed) {
+        Future<ArenaLootTable> loot = lootPregenerator.pregenerate(arena, lootSeed);
+        return new RandomChestProvider(plugin.getChestRandomizer(), getChestIndex(arena), loot, lootSeed);
+    }
 
-        OperationTimer timer = new OperationTimer(storageOperation, ticksTillCompletion, target);
-        timer.start();
-        return timer;
+    protected BlockWriter createBlockWriter(World arenaWorld) {
+        return new BukkitBlockWriter(arenaWorld);
     }
 
     @Override
@@ -210,156 +446,67 @@ public class ProtobufStorageProvider implements WorldProvider {
         final SkyBlockLocation clearingMin = new SkyBlockLocation(target.x + clearingArea.min.x, target.y + clearingArea.min.y, target.z + clearingArea.min.z, null);
         final SkyBlockLocation clearingMax = new SkyBlockLocation(target.x + clearingArea.max.x, target.y + clearingArea.max.y, target.z + clearingArea.max.z, null);
 
-        MultiPartOperation storageOperation = AreaClearing.clearMultiPart(arenaWorld, clearingMin.x, clearingMin.y, clearingMin.z,
-                clearingMax.x - clearingMin.x, clearingMax.y - clearingMin.y, clearingMax.z - clearingMin.z,
-                plugin.getConfiguration().getArenaDistanceApart());
+        // Not loaded again if evicted; the operation then just checks every chunk column.
+        MultiPartOperation storageOperation = new SectionClearOperation(createBlockWriter(arenaWorld), clearingMin, clearingMax, cache.get(arena.getArenaName()), target);
 
-        OperationTimer timer = new OperationTimer(storageOperation, ticksTillCompletion, clearingMin);
-        timer.runOnFinish(new Runnable() {
-            @Override
-            public void run() {
-                clearEntities(arenaWorld, clearingMin, clearingMax);
-            }
-        });
-        timer.start();
-        return timer;
+        return scheduleDestroy(storageOperation, ticksTillCompletion, arenaWorld, clearingMin, clearingMax);
     }
 
     @Override
-    public void destroyArena(final World arenaWorld, final SkyArena arena, final SkyBlockLocation target) {
+    public OperationHandle startRestoreOperation(final World arenaWorld, final SkyArena arena, final SkyBlockLocation target, final long[] changedPositions, final long ticksTillCompletion, final long lootSeed, final LateChangeSource lateChanges) {
+        Validate.isTrue(target.world.equals(arenaWorld.getName()), "Destination world is not arena world.");
 
-        SkyBlockLocationRange clearingArea = arena.getBoundaries().getClearing();
-        SkyBlockLocation clearingMin = new SkyBlockLocation(target.x + clearingArea.min.x, target.y + clearingArea.min.y, target.z + clearingArea.min.z, null);
-        SkyBlockLocation clearingMax = new SkyBlockLocation(target.x + clearingArea.max.x, target.y + clearingArea.max.y, target.z + clearingArea.max.z, null);
+        PalettedBlockArea area = getArea(arena);
 
-        for (int x = clearingMin.x; x <= clearingMax.x; x++) {
-            for (int y = clearingMin.y; y <= clearingMax.y; y++) {
-                for (int z = clearingMin.z; z <= clearingMax.z; z++) {
-                    arenaWorld.getBlockAt(x, y, z).setType(Material.AIR);
-                }
-            }
+        BlockWriter writer = createBlockWriter(arenaWorld);
+        RandomChestProvider chestProvider = createPregeneratedChestProvider(arena, lootSeed);
+        int blockSize = plugin.getConfiguration().getArenaCopyingBlockSize();
+        SkyBlockLocationRange clearingArea = arena.getBoundaries().getClearing();
+        final SkyBlockLocation clearingMin = new SkyBlockLocation(target.x + clearingArea.min.x, target.y + clearingArea.min.y, target.z + clearingArea.min.z, null);
+        final SkyBlockLocation clearingMax = new SkyBlockLocation(target.x + clearingArea.max.x, target.y + clearingArea.max.y, target.z + clearingArea.max.z, null);
+        MultiPartOperation storageOperation;
+        int blocksPerPart;
+        if (changedPositions != null) {
+            storageOperation = area.restoreMultiPart(writer, target.x, target.y, target.z, chestProvider, changedPositions, blockSize);
+            blocksPerPart = blockSize;
+        } else {
+            storageOperation = new SectionRestoreOperation(writer, area, target, clearingMin, clearingMax, chestProvider, blockSize);
+            // Each part compares a whole section, like the parts of a destroy operation.
+            blocksPerPart = PalettedBlockArea.SECTION_SIZE * PalettedBlockArea.SECTION_SIZE * PalettedBlockArea.SECTION_SIZE;
         }
-        clearEntities(arenaWorld, clearingMin, clearingMax);
-    }
-
-    protected void clearEntities(World arenaWorld, SkyBlockLocation clearingMin, SkyBlockLocation clearingMax) {
-        SkyBlockLocation halfDistance = new SkyBlockLocation((clearingMax.x - clearingMin.x) / 2, (clearingMax.y - clearingMin.y) / 2, (clearingMax.z - clearingMin.z) / 2, null);
-        Location center = clearingMin.add(halfDistance).toLocationWithWorldObj(arenaWorld);
-        for (Entity entity : CrossVersion.getNearbyEntities(center, halfDistance.x, halfDistance.y, halfDistance.z)) {
-            entity.remove();
+        if (lateChanges != null) {
+            storageOperation = new LateChangeRestoreOperation(storageOperation, writer, area, target, clearingMin, clearingMax, chestProvider, blockSize, lateChanges);
         }
+        MultiPartOperation operation = new ClearEntitiesOperation(arenaWorld, clearingMin, clearingMax, storageOperation);
+        return executor.schedule(operation, WorldOperationExecutor.Priority.RESTORE, ticksTillCompletion, blocksPerPart, target);
     }
 
-    protected class OperationTimer implements OperationHandle, Runnable {
-
-        private final MultiPartOperation storageOperation;
-        private final ArrayList<Runnable> runOnCompletion;
-        private final long ticksBetweenSteps;
-        private final SkyBlockLocation zeroLocation;
-        private boolean finished;
-        private int taskId = -1;
-        private int locationId;
-
-        /**
-         * @param storageOperation Operation to run.
-         * @param ticks            Ticks to run operation in.
-         * @param zeroLocation     location to return when getZeroLocation() is called (no internal usage).
-         */
-        public OperationTimer(final MultiPartOperation storageOperation, long ticks, SkyBlockLocation zeroLocation) {
-            this.storageOperation = storageOperation;
-            this.zeroLocation = zeroLocation;
-            this.runOnCompletion = new ArrayList<>(2);
-            this.finished = false;
-
-            // Add one to steps because we aren't doing one immediately, nor do we want to be doing one
-            // in the last tick available.
-            int steps = storageOperation.getPartsLeft() + 1;
-            ticksBetweenSteps = (long) Math.floor(((double) ticks) / ((double) steps));
-        }
-
-        public void start() {
-            synchronized (this) {
-                if (finished) {
-                    return;
-                }
-                if (this.taskId == -1) {
-                    taskId = Bukkit.getScheduler().runTaskTimer(plugin, this, ticksBetweenSteps, ticksBetweenSteps).getTaskId();
-                }
-            }
-        }
-
-        @Override
-        public void run() {
-            synchronized (this) {
-                if (finished) {
-                    return; // completeOperationNow() called
-                }
-                storageOperation.performNextPart();
-                if (storageOperation.getPartsLeft() <= 0) {
-                    finished = true;
-                    for (Runnable runnable : runOnCompletion) {
-                        runnable.run();
-                    }
-                    Bukkit.getScheduler().cancelTask(taskId);
-                    taskId = -1;
-                }
-            }
-        }
-
-        @Override
-        public void cancelOperation() {
-            synchronized (this) {
-                if (taskId != -1) {
-                    Bukkit.getScheduler().cancelTask(taskId);
-                    taskId = -1;
-                }
-            }
-        }
-
-        @Override
-        public void completeOperationNow() {
-            synchronized (this) {
-                if (finished) {
-                    return;
-                }
-                if (taskId != -1) {
-                    Bukkit.getScheduler().cancelTask(taskId);
-                }
-                SkyStatic.debug("[Timer] completeOperationNow performing %s parts in one tick.", storageOperation.getPartsLeft());
-                while (storageOperation.getPartsLeft() > 0) {
-                    storageOperation.performNextPart();
-                }
-                finished = true;
-                for (Runnable runnable : runOnCompletion) {
-                    runnable.run();
-                }
+    protected OperationHandle scheduleDestroy(MultiPartOperation storageOperation, long ticksTillCompletion,
+                                              final World arenaWorld, final SkyBlockLocation clearingMin, final SkyBlockLocation clearingMax) {
+        // Parts which only skip empty sections are cheap, but budget each part as an even share of the area anyway.
+        long volume = (long) (clearingMax.x - clearingMin.x + 1) * (clearingMax.y - clearingMin.y + 1) * (clearingMax.z - clearingMin.z + 1);
+        int blocksPerPart = (int) Math.min(Integer.MAX_VALUE, volume / Math.max(1, storageOperation.getPartsLeft()));
+        // Entities are cleared chunk by chunk once the blocks are gone, so nothing is dropped by blocks broken later.
+        MultiPartOperation operation = new ClearEntitiesOperation(arenaWorld, clearingMin, clearingMax, storageOperation);
+        OperationHandle handle = executor.schedule(operation, WorldOperationExecutor.Priority.DESTROY, ticksTillCompletion, blocksPerPart, clearingMin);
+        handle.runOnFinish(new Runnable() {
+            @Override
+            public void run() {
+                chunkHolder.release(arenaWorld, clearingMin);
             }
-        }
-
-        @Override
-        public void setTargetLocationId(final int locationId) {
-            this.locationId = locationId;
-        }
+        });
+        return handle;
+    }
 
-        @Override
-        public int getTargetLocationId() {
-            return locationId;
-        }
+    @Override
+    public void destroyArena(final World arenaWorld, final SkyArena arena, final SkyBlockLocation target) {
 
-        @Override
-        public SkyBlockLocation getZeroLocation() {
-            return zeroLocation;
-        }
+        SkyBlockLocationRange clearingArea = arena.getBoundaries().getClearing();
+        SkyBlockLocation clearingMin = new SkyBlockLocation(target.x + clearingArea.min.x, target.y + clearingArea.min.y, target.z + clearingArea.min.z, null);
+        SkyBlockLocation clearingMax = new SkyBlockLocation(target.x + clearingArea.max.x, target.y + clearingArea.max.y, target.z + clearingArea.max.z, null);
 
-        @Override
-        public void runOnFinish(final Runnable runnable) {
-            synchronized (this) {
-                if (finished) {
-                    runnable.run();
-                } else {
-                    runOnCompletion.add(runnable);
-                }
-            }
-        }
+        SectionClearOperation.clearNow(createBlockWriter(arenaWorld), clearingMin, clearingMax, cache.get(arena.getArenaName()), target);
+        ClearEntitiesOperation.clearNow(arenaWorld, clearingMin, clearingMax);
+        chunkHolder.release(arenaWorld, clearingMin);
     }
 }
@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2016 Dabo Ross <http://www.daboross.net/>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.daboross.bukkitdev.skywars.world.providers;
+
+import com.sk89q.worldedit.Vector;
+import com.sk89q.worldedit.WorldEditException;
+import com.sk89q.worldedit.blocks.BaseBlock;
+import com.sk89q.worldedit.bukkit.BukkitWorld;
+import java.util.logging.Level;
+import net.daboross.bukkitdev.bukkitstorageprotobuf.compiled.BlockStorage;
+import net.daboross.bukkitdev.skywars.api.SkyStatic;
+import net.daboross.bukkitdev.skywars.world.BlockWriter;
+import org.bukkit.World;
+
+public class WorldEditBlockWriter implements BlockWriter {
+
+    private final World world;
+    private final BukkitWorld editWorld;
+
+    public WorldEditBlockWriter(final World world, final BukkitWorld editWorld) {
+        this.world = world;
+        this.editWorld = editWorld;
+    }
+
+    @Override
+    public World getWorld() {
+        return world;
+    }
+
+    @Override
+    public void setBlock(final int x, final int y, final int z, final BlockStorage.Block block) {
+        try {
+            editWorld.setBlock(new Vector(x, y, z), new BaseBlock(block.getId(), block.getData()), false);
+        } catch (WorldEditException ex) {
+            SkyStatic.log(Level.WARNING, "Failed to set block at {0}, {1}, {2} using WorldEdit: {3}", x, y, z, ex);
+        }
+    }
+}
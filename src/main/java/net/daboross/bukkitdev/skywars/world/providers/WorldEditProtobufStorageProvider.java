@@ -16,110 +16,25 @@
  */
 package net.daboross.bukkitdev.skywars.world.providers;
 
-import com.sk89q.worldedit.Vector;
 import com.sk89q.worldedit.bukkit.BukkitWorld;
-import net.daboross.bukkitdev.bukkitstorageprotobuf.AreaClearing;
-import net.daboross.bukkitdev.bukkitstorageprotobuf.MemoryBlockArea;
-import net.daboross.bukkitdev.bukkitstorageprotobuf.MultiPartOperation;
-import net.daboross.bukkitdev.skywars.api.SkyWars;
-import net.daboross.bukkitdev.skywars.api.arenaconfig.SkyArena;
-import net.daboross.bukkitdev.skywars.api.location.SkyBlockLocation;
-import net.daboross.bukkitdev.skywars.api.location.SkyBlockLocationRange;
-import net.daboross.bukkitdev.skywars.world.OperationHandle;
-import net.daboross.bukkitdev.skywars.world.RandomChestProvider;
-import org.apache.commons.lang.Validate;
+import net.daboross.bukkitdev.skywars.SkyWarsPlugin;
+import net.daboross.bukkitdev.skywars.world.ArenaChunkHolder;
+import net.daboross.bukkitdev.skywars.world.BlockWriter;
+import net.daboross.bukkitdev.skywars.world.LootPregenerator;
+import net.daboross.bukkitdev.skywars.world.ParallelArenaLoader;
+import net.daboross.bukkitdev.skywars.world.WorldOperationExecutor;
 import org.bukkit.World;
 
 public class WorldEditProtobufStorageProvider extends ProtobufStorageProvider {
 
-    protected BukkitWorld editWorld;
-
-    public WorldEditProtobufStorageProvider(final SkyWars plugin) {
-        super(plugin);
+    public WorldEditProtobufStorageProvider(final SkyWarsPlugin plugin, final WorldOperationExecutor executor, final ArenaChunkHolder chunkHolder, final ParallelArenaLoader loader, final LootPregenerator lootPregenerator) {
+        super(plugin, executor, chunkHolder, loader, lootPregenerator);
     }
 
     @Override
-    public void copyArena(final World arenaWorld, final SkyArena arena, final SkyBlockLocation target) {
-        Validate.isTrue(target.world.equals(arenaWorld.getName()), "Destination world not arena world.");
-
-        if (editWorld == null) {
-            editWorld = new BukkitWorld(arenaWorld);
-        }
-
-        MemoryBlockArea area = cache.get(arena.getArenaName());
-        Validate.notNull(area, "Arena " + arena.getArenaName() + " not loaded.");
-
-
-        area.applyWorldEdit(arenaWorld, editWorld, target.x, target.y, target.z, new RandomChestProvider(plugin.getChestRandomizer(), arena));
-    }
-
-    @Override
-    public OperationHandle startCopyOperation(final World arenaWorld, final SkyArena arena, final SkyBlockLocation target, final long ticksTillCompletion) {
-        Validate.isTrue(target.world.equals(arenaWorld.getName()), "Destination world is not arena world.");
-
-        if (editWorld == null) {
-            editWorld = new BukkitWorld(arenaWorld);
-        }
-
-        MemoryBlockArea area = cache.get(arena.getArenaName());
-        Validate.notNull(area, "Arena " + arena.getArenaName() + " not loaded.");
-
-        MultiPartOperation storageOperation = area.applyMultiPartWorldEdit(arenaWorld, editWorld, target.x, target.y, target.z,
-                new RandomChestProvider(plugin.getChestRandomizer(), arena),
-                plugin.getConfiguration().getArenaCopyingBlockSize());
-
-        OperationTimer timer = new OperationTimer(storageOperation, ticksTillCompletion, target);
-        timer.start();
-        return timer;
-    }
-
-    @Override
-    public void destroyArena(final World arenaWorld, final SkyArena arena, final SkyBlockLocation target) {
-        Validate.isTrue(target.world.equals(arenaWorld.getName()), "Destination world not arena world.");
-
-        if (editWorld == null) {
-            editWorld = new BukkitWorld(arenaWorld);
-        }
-
-        SkyBlockLocationRange clearingArea = arena.getBoundaries().getClearing();
-        SkyBlockLocation clearingMin = new SkyBlockLocation(target.x + clearingArea.min.x, target.y + clearingArea.min.y, target.z + clearingArea.min.z, null);
-        SkyBlockLocation clearingMax = new SkyBlockLocation(target.x + clearingArea.max.x, target.y + clearingArea.max.y, target.z + clearingArea.max.z, null);
-
-        for (int x = clearingMin.x; x <= clearingMax.x; x++) {
-            for (int y = clearingMin.y; y <= clearingMax.y; y++) {
-                for (int z = clearingMin.z; z <= clearingMax.z; z++) {
-                    editWorld.setBlockType(new Vector(x, y, z), 0); // 0 = hardcoded Material.AIR
-                }
-            }
-        }
-        // TODO: do this part with WorldEdit too
-        clearEntities(arenaWorld, clearingMin, clearingMax);
-    }
-
-    @Override
-    public OperationHandle startDestroyOperation(final World arenaWorld, final SkyArena arena, final SkyBlockLocation target, final long ticksTillCompletion) {
-        Validate.isTrue(target.world.equals(arenaWorld.getName()), "Destination world is not arena world.");
-
-        if (editWorld == null) {
-            editWorld = new BukkitWorld(arenaWorld);
-        }
-
-        SkyBlockLocationRange clearingArea = arena.getBoundaries().getClearing();
-        final SkyBlockLocation clearingMin = new SkyBlockLocation(target.x + clearingArea.min.x, target.y + clearingArea.min.y, target.z + clearingArea.min.z, null);
-        final SkyBlockLocation clearingMax = new SkyBlockLocation(target.x + clearingArea.max.x, target.y + clearingArea.max.y, target.z + clearingArea.max.z, null);
-
-        MultiPartOperation storageOperation = AreaClearing.clearMultiPartWorldEdit(arenaWorld, editWorld, clearingMin.x, clearingMin.y, clearingMin.z,
-                clearingMax.x - clearingMin.x, clearingMax.y - clearingMin.y, clearingMax.z - clearingMin.z,
-                plugin.getConfiguration().getArenaDistanceApart());
-
-        OperationTimer timer = new OperationTimer(storageOperation, ticksTillCompletion, clearingMin);
-        timer.runOnFinish(new Runnable() {
-            @Override
-            public void run() {
-                clearEntities(arenaWorld, clearingMin, clearingMax);
-            }
-        });
-        timer.start();
-        return timer;
+    protected BlockWriter createBlockWriter(final World arenaWorld) {
+        // There can be several arena worlds, so each writer needs the WorldEdit world for its own. BukkitWorld only
+        // wraps a reference to the world, so it's cheap to create.
+        return new WorldEditBlockWriter(arenaWorld, new BukkitWorld(arenaWorld));
     }
 }